@@ -0,0 +1,15 @@
+package uis.mytutor.Excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+public class ConcurrenciaExcepciones {
+
+    // El documento siguió cambiando en todos los reintentos (ver ReintentoOptimistaServicio)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class ConflictoConcurrenciaException extends RuntimeException {
+        public ConflictoConcurrenciaException(String mensaje) {
+            super(mensaje);
+        }
+    }
+}
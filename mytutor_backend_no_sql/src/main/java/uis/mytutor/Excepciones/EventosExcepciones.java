@@ -0,0 +1,23 @@
+package uis.mytutor.Excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+public class EventosExcepciones {
+
+    // Se alcanzó app.horarios.eventos.max-suscriptores en esta réplica
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class LimiteSuscriptoresException extends RuntimeException {
+        public LimiteSuscriptoresException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    // Se alcanzó app.horarios.eventos.max-por-ip para la dirección del cliente
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public static class LimitePorIpException extends RuntimeException {
+        public LimitePorIpException(String mensaje) {
+            super(mensaje);
+        }
+    }
+}
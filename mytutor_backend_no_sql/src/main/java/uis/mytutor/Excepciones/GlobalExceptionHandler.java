@@ -1,5 +1,6 @@
 package uis.mytutor.Excepciones;
 
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -9,6 +10,38 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    // El horario ya fue reservado por otra petición
+    @ExceptionHandler(ReservaExcepciones.HorarioNoDisponibleException.class)
+    public ResponseEntity<?> handleHorarioNoDisponible(ReservaExcepciones.HorarioNoDisponibleException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Otra petición modificó el mismo documento en todos los reintentos
+    @ExceptionHandler(ConcurrenciaExcepciones.ConflictoConcurrenciaException.class)
+    public ResponseEntity<?> handleConflictoConcurrencia(ConcurrenciaExcepciones.ConflictoConcurrenciaException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Demasiadas conexiones SSE abiertas: el cliente puede reintentar más tarde
+    @ExceptionHandler(EventosExcepciones.LimiteSuscriptoresException.class)
+    public ResponseEntity<?> handleLimiteSuscriptores(EventosExcepciones.LimiteSuscriptoresException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
+    // Demasiadas conexiones SSE abiertas desde la misma dirección
+    @ExceptionHandler(EventosExcepciones.LimitePorIpException.class)
+    public ResponseEntity<?> handleLimitePorIp(EventosExcepciones.LimitePorIpException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ex.getMessage());
+    }
+
+    // Mongo no respondió a tiempo (p. ej. pool de conexiones agotado tras app.mongo.pool.espera-maxima-ms):
+    // es un problema del servidor, no de la petición, y el cliente puede reintentar
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<?> handleMongoNoDisponible(DataAccessResourceFailureException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Servicio temporalmente no disponible, intenta de nuevo.");
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.badRequest().body(ex.getMessage());
@@ -0,0 +1,15 @@
+package uis.mytutor.Excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+public class ReservaExcepciones {
+
+    // Otro usuario reservó (o se desactivó) el horario antes que esta petición
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class HorarioNoDisponibleException extends RuntimeException {
+        public HorarioNoDisponibleException(String mensaje) {
+            super(mensaje);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package uis.mytutor.configuraciones.cache;
+
+import uis.mytutor.dto.EstadisticasCacheDTO;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Cache en memoria acotada por tamaño (LRU) y por tiempo de vida (TTL)
+// Lleva métricas de aciertos, fallos y expulsiones
+public class CacheLocal<K, V> {
+
+    private record Entrada<V>(V valor, long expiraEn) {
+    }
+
+    private final String nombre;
+    private final int tamanoMaximo;
+    private final long ttlNanos;
+
+    // accessOrder = true: el primer elemento es el menos usado recientemente
+    private final LinkedHashMap<K, Entrada<V>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong expulsiones = new AtomicLong();
+
+    public CacheLocal(String nombre, int tamanoMaximo, Duration ttl) {
+        this.nombre = nombre;
+        this.tamanoMaximo = tamanoMaximo;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // Obtener el valor o cargarlo si no está (la carga se hace fuera del lock)
+    // Si el cargador devuelve null no se guarda nada
+    public V obtener(K clave, Function<K, V> cargador) {
+        V valor = obtener(clave);
+        if (valor != null) return valor;
+
+        valor = cargador.apply(clave);
+        if (valor != null) {
+            guardar(clave, valor);
+        }
+        return valor;
+    }
+
+    public V obtener(K clave) {
+        synchronized (entradas) {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada == null) {
+                fallos.incrementAndGet();
+                return null;
+            }
+            if (entrada.expiraEn() - System.nanoTime() <= 0) {
+                entradas.remove(clave);
+                expulsiones.incrementAndGet();
+                fallos.incrementAndGet();
+                return null;
+            }
+            aciertos.incrementAndGet();
+            return entrada.valor();
+        }
+    }
+
+    public void guardar(K clave, V valor) {
+        synchronized (entradas) {
+            entradas.put(clave, new Entrada<>(valor, System.nanoTime() + ttlNanos));
+
+            // Expulsar los menos usados si se supera el tamaño máximo
+            Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+            while (entradas.size() > tamanoMaximo && it.hasNext()) {
+                it.next();
+                it.remove();
+                expulsiones.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidar(K clave) {
+        synchronized (entradas) {
+            entradas.remove(clave);
+        }
+    }
+
+    public void invalidarSi(Predicate<K> condicion) {
+        synchronized (entradas) {
+            entradas.keySet().removeIf(condicion);
+        }
+    }
+
+    public void limpiar() {
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    public EstadisticasCacheDTO estadisticas() {
+        int tamano;
+        synchronized (entradas) {
+            tamano = entradas.size();
+        }
+        long totalAciertos = aciertos.get();
+        long totalFallos = fallos.get();
+        long consultas = totalAciertos + totalFallos;
+
+        EstadisticasCacheDTO dto = new EstadisticasCacheDTO();
+        dto.setNombre(nombre);
+        dto.setTamano(tamano);
+        dto.setTamanoMaximo(tamanoMaximo);
+        dto.setAciertos(totalAciertos);
+        dto.setFallos(totalFallos);
+        dto.setExpulsiones(expulsiones.get());
+        dto.setTasaAciertos(consultas == 0 ? 0.0 : (double) totalAciertos / consultas);
+        return dto;
+    }
+}
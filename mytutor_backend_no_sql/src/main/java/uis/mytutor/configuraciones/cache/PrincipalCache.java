@@ -0,0 +1,39 @@
+package uis.mytutor.configuraciones.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uis.mytutor.dto.UsuarioPrincipal;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Cache del principal (UsuarioPrincipal) que JwtFilter pone en el SecurityContext
+// Clave: nombreUsuario | id del token (jti)
+// Quien modifique un usuario debe llamar a invalidar(nombreUsuario) con el nombre de usuario anterior
+@Component
+public class PrincipalCache {
+
+    private static final String SEPARADOR = "|";
+
+    private final CacheLocal<String, UsuarioPrincipal> cache;
+
+    public PrincipalCache(@Value("${app.cache.principales.tamano-maximo:10000}") int tamanoMaximo,
+                          @Value("${app.cache.principales.ttl-segundos:60}") long ttlSegundos) {
+        this.cache = new CacheLocal<>("principales", tamanoMaximo, Duration.ofSeconds(ttlSegundos));
+    }
+
+    public UsuarioPrincipal obtener(String nombreUsuario, String idToken, Supplier<UsuarioPrincipal> cargador) {
+        return cache.obtener(clave(nombreUsuario, idToken), clave -> cargador.get());
+    }
+
+    // Quita todas las sesiones (tokens) cacheadas de ese usuario
+    public void invalidar(String nombreUsuario) {
+        if (nombreUsuario == null) return;
+        String prefijo = nombreUsuario + SEPARADOR;
+        cache.invalidarSi(clave -> clave.startsWith(prefijo));
+    }
+
+    private String clave(String nombreUsuario, String idToken) {
+        return nombreUsuario + SEPARADOR + (idToken == null ? "" : idToken);
+    }
+}
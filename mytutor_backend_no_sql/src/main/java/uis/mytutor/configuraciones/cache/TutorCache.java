@@ -0,0 +1,115 @@
+package uis.mytutor.configuraciones.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import uis.mytutor.dto.EstadisticasCacheDTO;
+import uis.mytutor.dto.ResumenResenasDTO;
+import uis.mytutor.dto.TutorDTO;
+import uis.mytutor.modelo.Resena;
+import uis.mytutor.repositorio.ResenaRepositorio;
+import uis.mytutor.repositorio.UsuarioRepositorio;
+import uis.mytutor.servicio.impl.TutorServicio;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Cache de perfiles de tutor por id de usuario
+// Solo lectura: quien modifique un tutor debe llamar a invalidar(idTutor)
+@Component
+public class TutorCache {
+
+    @Autowired
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Autowired
+    private ResenaRepositorio resenaRepositorio;
+
+    // Con hilos de plataforma las dos consultas se hacen en el mismo hilo: el executor de tareas de
+    // Spring Boot tiene 8 hilos y cola sin límite, y bajo carga la espera en cola costaría más que
+    // lo que se gana. Con hilos virtuales una consulta paralela solo cuesta un hilo virtual
+    private final ExecutorService hilosVirtuales;
+
+    // Reseñas más recientes incluidas en el resumen del perfil
+    @Value("${app.resenas.ultimas:5}")
+    private int ultimasResenas;
+
+    private final CacheLocal<String, TutorDTO> cache;
+
+    public TutorCache(@Value("${app.cache.tutores.tamano-maximo:1000}") int tamanoMaximo,
+                      @Value("${app.cache.tutores.ttl-segundos:300}") long ttlSegundos,
+                      @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        this.cache = new CacheLocal<>("tutores", tamanoMaximo, Duration.ofSeconds(ttlSegundos));
+        this.hilosVirtuales = hilosVirtuales ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (hilosVirtuales != null) hilosVirtuales.shutdownNow();
+    }
+
+    // Perfil del tutor o null si el usuario no existe o no es tutor
+    public TutorDTO obtener(String idTutor) {
+        if (idTutor == null) return null;
+        return cache.obtener(idTutor, id -> {
+            TutorDTO tutor = usuarioRepositorio.findById(id)
+                    .map(TutorServicio::mapToTutorDTO)
+                    .orElse(null);
+            if (tutor != null) {
+                completarResumenResenas(tutor);
+            }
+            return tutor;
+        });
+    }
+
+    // Histograma y últimas reseñas; total y promedio ya vienen de los contadores del perfil, igual que
+    // en el directorio y en horario_disponible (ver TutorServicio.mapToTutorDTO)
+    // Las dos consultas son independientes: con hilos virtuales las últimas reseñas se piden en otro
+    // hilo mientras este arma el histograma
+    private void completarResumenResenas(TutorDTO tutor) {
+        String idTutor = tutor.getIdTutor();
+        Future<List<Resena>> ultimas = hilosVirtuales == null
+                ? null
+                : hilosVirtuales.submit(() -> buscarUltimas(idTutor));
+        try {
+            ResumenResenasDTO resumen = tutor.getResumenResenas();
+            resumen.setHistograma(resenaRepositorio.histogramaPuntuaciones(idTutor));
+            resumen.setUltimas(ultimas == null ? buscarUltimas(idTutor) : esperar(ultimas));
+        } catch (RuntimeException e) {
+            // Si falla el histograma la otra consulta ya no sirve
+            if (ultimas != null) ultimas.cancel(true);
+            throw e;
+        }
+    }
+
+    private List<Resena> buscarUltimas(String idTutor) {
+        return resenaRepositorio.findByIdTutorOrderByFechaDescIdResenaDesc(idTutor, Limit.of(ultimasResenas));
+    }
+
+    private static <T> T esperar(Future<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta de reseñas interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) throw causa;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void invalidar(String idTutor) {
+        if (idTutor != null) cache.invalidar(idTutor);
+    }
+
+    public EstadisticasCacheDTO estadisticas() {
+        return cache.estadisticas();
+    }
+}
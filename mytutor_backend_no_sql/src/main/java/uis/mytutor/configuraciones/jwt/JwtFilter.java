@@ -1,5 +1,6 @@
 package uis.mytutor.configuraciones.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,21 +12,28 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import uis.mytutor.modelo.Usuario;
+import uis.mytutor.configuraciones.cache.PrincipalCache;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.repositorio.UsuarioRepositorio;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    private static final String RUTA_EVENTOS = "/api/horario/eventos";
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
     private UsuarioRepositorio usuarioRepo;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -33,32 +41,46 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
+        String token = null;
+        String usoEsperado = null;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        } else if (RUTA_EVENTOS.equals(ruta(request)) && request.getParameter("token") != null) {
+            // EventSource no puede enviar Authorization: solo aquí se acepta el token en la URL,
+            // y solo uno de eventos (corto), nunca el de sesión
+            token = request.getParameter("token");
+            usoEsperado = JwtUtil.USO_EVENTOS;
+        }
+
+        if (token == null) {
             // Si no hay token, simplemente continúa sin romper la cadena
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
-                String rol = jwtUtil.getRoleFromToken(token);
-
-                Usuario usuario = usuarioRepo.findByNombreUsuario(username).orElse(null);
-                if (usuario != null) {
-                    // Convertimos el rol a formato Spring Security: ROLE_TUTOR, ROLE_ESTUDIANTE, etc.
-                    List<GrantedAuthority> authorities = List.of(
-                            new SimpleGrantedAuthority("ROLE_" + rol.toUpperCase())
-                    );
-
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(usuario, null, authorities);
-
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+        // Una sola verificación de firma por petición
+        Claims claims = jwtUtil.parseClaims(token);
+        // Un token de un solo uso no vale como sesión, ni uno de sesión en la URL
+        if (claims != null && Objects.equals(usoEsperado, claims.get(JwtUtil.CLAIM_USO, String.class))) {
+            String username = claims.getSubject();
+            String rol = claims.get("rol", String.class);
+
+            // El usuario se busca en Mongo (proyección ligera) solo si no está en la cache de principales
+            UsuarioPrincipal usuario = principalCache.obtener(username, claims.getId(),
+                    () -> usuarioRepo.findPrincipalByNombreUsuario(username)
+                            .map(UsuarioPrincipal::desdeUsuario)
+                            .orElse(null));
+            if (usuario != null && rol != null) {
+                // Convertimos el rol a formato Spring Security: ROLE_TUTOR, ROLE_ESTUDIANTE, etc.
+                List<GrantedAuthority> authorities = List.of(
+                        new SimpleGrantedAuthority("ROLE_" + rol.toUpperCase())
+                );
+
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(usuario, null, authorities);
+
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
 
@@ -67,13 +89,7 @@ public class JwtFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        String contextPath = request.getContextPath();
-
-        // Elimina el contextPath si existe
-        if (contextPath != null && !contextPath.isEmpty()) {
-            path = path.substring(contextPath.length());
-        }
+        String path = ruta(request);
 
         boolean skip = path.startsWith("/auth/");
         if (skip) {
@@ -84,4 +100,15 @@ public class JwtFilter extends OncePerRequestFilter {
         return skip;
     }
 
+    private static String ruta(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String contextPath = request.getContextPath();
+
+        // Elimina el contextPath si existe
+        if (contextPath != null && !contextPath.isEmpty()) {
+            path = path.substring(contextPath.length());
+        }
+        return path;
+    }
+
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package uis.mytutor.configuraciones.jwt;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,43 +10,55 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
     private static final String SECRET_KEY = "clave_secreta_para_jwt_de_al_menos_32_caracteres";
     private static final long EXPIRATION_TIME = 1000 * 60 * 60; // 1 hora
+    private static final long EVENTOS_EXPIRATION_TIME = 1000 * 60; // 1 minuto
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-    }
+    // Claim "uso" de los tokens de un solo propósito (no sirven como token de sesión)
+    public static final String CLAIM_USO = "uso";
+    public static final String USO_EVENTOS = "eventos";
+
+    // La clave y el parser se construyen una sola vez (el parser es inmutable y thread-safe)
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
 
     public String generateToken(String username, String rol) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // id del token (jti)
                 .setSubject(username)
                 .claim("rol", rol) // 👈 incluimos el rol
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
-        }
-    }
-
-    public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    // Token corto para abrir la conexión SSE de eventos: EventSource no envía la cabecera Authorization,
+    // así que viaja en la URL (?token=) y puede quedar en logs. Solo vale para /api/horario/eventos
+    // y solo para abrir la conexión: la reconexión pide uno nuevo
+    public String generateEventosToken(String username, String rol) {
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .claim("rol", rol)
+                .claim(CLAIM_USO, USO_EVENTOS)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EVENTOS_EXPIRATION_TIME))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
     }
 
-    public String getRoleFromToken(String token) {
-        return (String) Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(token).getBody().get("rol");
+    // Verifica la firma y la expiración una sola vez y devuelve los claims (null si el token no es válido)
+    public Claims parseClaims(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 }
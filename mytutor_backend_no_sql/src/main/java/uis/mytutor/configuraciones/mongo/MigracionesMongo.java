@@ -0,0 +1,279 @@
+package uis.mytutor.configuraciones.mongo;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.HorarioDisponible;
+import uis.mytutor.modelo.LeaseScheduler;
+import uis.mytutor.modelo.Resena;
+import uis.mytutor.modelo.Reserva;
+import uis.mytutor.modelo.ResumenReserva;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.ReservaRepositorio;
+import uis.mytutor.repositorio.UsuarioRepositorio;
+import uis.mytutor.servicio.impl.HorarioDisponibleServicio;
+import uis.mytutor.servicio.impl.ResenaServicio;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Índices y migraciones de datos que se ejecutan al arrancar, antes de VerificadorIndicesMongo
+// Cada migración es idempotente: solo toca los documentos que aún no están migrados
+@Component
+@Order(1)
+public class MigracionesMongo implements ApplicationRunner {
+
+    // Colecciones con índices declarados en el modelo (@Indexed, @CompoundIndex)
+    private static final List<Class<?>> ENTIDADES = List.of(
+            Usuario.class, Horario.class, HorarioDisponible.class, Reserva.class, Resena.class, LeaseScheduler.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Autowired
+    private ReservaRepositorio reservaRepositorio;
+
+    @Autowired
+    private HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    private ResenaServicio resenaServicio;
+
+    @Value("${app.mongo.inicializar:true}")
+    private boolean inicializar;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!inicializar) return;
+
+        crearIndices();
+        // Documentos anteriores a @Version: sin versión, save() los trataría como nuevos
+        inicializarVersiones();
+        // Antes que nada: guardar un Horario con el modelo actual borra el arreglo historialReservas
+        migrarHistorialReservas();
+        asignarIdReserva();
+        // Mis reservas agrupa las entradas del usuario en orden de _id (idUsuario_id)
+        eliminarIndices(Reserva.class, List.of("idUsuario_fechaInicioHorario_id"));
+        // Primero las reseñas: guardar un Usuario con el modelo actual borra el arreglo embebido
+        migrarResenasEmbebidas();
+        inicializarContadoresCalificacion();
+        calcularClavesBusqueda();
+        // rol_tutorActivo es prefijo de rol_tutorActivo_id (directorio de tutores)
+        eliminarIndices(Usuario.class, List.of("rol_tutorActivo"));
+        // idTutor es prefijo de idTutor_puntuacion e idTutor_fecha_id
+        eliminarIndices(Resena.class, List.of("idTutor"));
+    }
+
+    // Se crean aquí y no con spring.data.mongodb.auto-index-creation: esa opción los crea al construir
+    // MongoTemplate, y entonces el contexto no levanta sin Mongo. createIndex no hace nada si ya existe
+    private void crearIndices() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entidad : ENTIDADES) {
+            IndexOperations indices = mongoTemplate.indexOps(entidad);
+            resolver.resolveIndexFor(entidad).forEach(indices::createIndex);
+        }
+    }
+
+    // Usuario y Horario llevan @Version: los documentos existentes empiezan en 0
+    private void inicializarVersiones() {
+        for (Class<?> entidad : List.of(Usuario.class, Horario.class)) {
+            long actualizados = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 0L),
+                    entidad
+            ).getModifiedCount();
+            if (actualizados > 0) {
+                System.out.println("Versión inicializada en " + actualizados + " documentos de " + entidad.getSimpleName());
+            }
+        }
+    }
+
+    // Las reservas vivían en horario.historialReservas; ahora son documentos de la colección reserva
+    // y el horario solo guarda el resumen de la última (reservaActual)
+    // El _id de cada reserva se deriva del horario y de su posición en el historial y se guarda con
+    // upsert: si dos réplicas migran a la vez, o una ejecución anterior se interrumpió, se escriben
+    // los mismos documentos y no se duplica ni se pierde ninguno
+    private void migrarHistorialReservas() {
+        Query query = new Query(Criteria.where("historialReservas").exists(true));
+        query.fields().include("fechaInicio", "historialReservas");
+        List<Document> horarios = mongoTemplate.find(query, Document.class, "horario");
+
+        int total = 0;
+        for (Document horario : horarios) {
+            ObjectId idHorarioObjeto = horario.getObjectId("_id");
+            String idHorario = idHorarioObjeto.toHexString();
+            Date fechaInicio = horario.getDate("fechaInicio");
+            List<Document> historial = horario.getList("historialReservas", Document.class, List.of());
+
+            List<Reserva> reservas = new ArrayList<>();
+            for (int posicion = 0; posicion < historial.size(); posicion++) {
+                Document embebida = historial.get(posicion);
+                Reserva reserva = new Reserva();
+                reserva.setId(idReservaMigrada(idHorarioObjeto, posicion));
+                // Cada elemento del historial embebido era una reserva distinta: su única entrada
+                reserva.setIdReserva(reserva.getId());
+                reserva.setIdHorario(idHorario);
+                reserva.setIdUsuario(embebida.getString("idUsuario"));
+                reserva.setEstado(Reserva.EstadoReserva.valueOf(embebida.getString("estado")));
+                reserva.setFecha(aLocalDateTime(embebida.getDate("fecha")));
+                reserva.setFechaInicioHorario(aLocalDateTime(fechaInicio));
+                reservas.add(reserva);
+            }
+
+            Update update = new Update().unset("historialReservas");
+            if (!reservas.isEmpty()) {
+                // save con _id = upsert
+                reservaRepositorio.saveAll(reservas);
+                update.set("reservaActual", ResumenReserva.desdeReserva(reservas.get(reservas.size() - 1)));
+            }
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(horario.getObjectId("_id"))),
+                    update,
+                    Horario.class
+            );
+            total += reservas.size();
+        }
+        if (!horarios.isEmpty()) {
+            System.out.println(total + " reservas migradas a la colección reserva desde " + horarios.size() + " horarios");
+        }
+
+        // Índices del historial embebido que ya no se usan
+        eliminarIndices(Horario.class, List.of("historial_usuario_fechaInicio_id", "fechaFin_reservaPendiente"));
+    }
+
+    // Entradas guardadas cuando el registro tenía un documento por reserva (el estado se reescribía):
+    // cada una es la única entrada de su reserva, así que idReserva es su propio _id
+    private void asignarIdReserva() {
+        long actualizados = mongoTemplate.updateMulti(
+                new Query(Criteria.where("idReserva").exists(false)),
+                AggregationUpdate.update().set("idReserva").toValue(ConvertOperators.valueOf("_id").convertToString()),
+                Reserva.class
+        ).getModifiedCount();
+        if (actualizados > 0) {
+            System.out.println("idReserva asignado a " + actualizados + " reservas");
+        }
+    }
+
+    private void eliminarIndices(Class<?> entidad, List<String> obsoletos) {
+        List<String> existentes = mongoTemplate.indexOps(entidad).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .toList();
+        for (String obsoleto : obsoletos) {
+            if (existentes.contains(obsoleto)) {
+                mongoTemplate.indexOps(entidad).dropIndex(obsoleto);
+            }
+        }
+    }
+
+    // _id determinista de la reserva migrada (12 bytes de un ObjectId):
+    // 4 del timestamp del horario, 6 del hash de su _id y 2 de la posición en el historial
+    // Dentro de un horario el _id crece con la posición, así se conserva el orden del historial
+    private static String idReservaMigrada(ObjectId idHorario, int posicion) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("MD5").digest(idHorario.toByteArray());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(12)
+                .putInt(idHorario.getTimestamp())
+                .put(hash, 0, 6)
+                .putShort((short) posicion);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    private static LocalDateTime aLocalDateTime(Date fecha) {
+        return fecha == null ? LocalDateTime.now() : LocalDateTime.ofInstant(fecha.toInstant(), ZoneId.systemDefault());
+    }
+
+    // Las reseñas vivían en usuario.tutor.resenas; ahora son documentos de la colección resena
+    // Se copian con su idResena como _id (save = upsert) y luego se quita el arreglo del usuario
+    private void migrarResenasEmbebidas() {
+        Query query = new Query(Criteria.where("tutor.resenas").exists(true));
+        query.fields().include("tutor.resenas");
+        List<Document> tutores = mongoTemplate.find(query, Document.class, "usuario");
+        if (tutores.isEmpty()) return;
+
+        int total = 0;
+        for (Document usuario : tutores) {
+            String idTutor = usuario.getObjectId("_id").toHexString();
+            List<Document> embebidas = usuario.get("tutor", Document.class)
+                    .getList("resenas", Document.class, List.of());
+
+            for (Document embebida : embebidas) {
+                Resena resena = new Resena();
+                resena.setIdResena(embebida.getString("idResena"));
+                resena.setIdTutor(idTutor);
+                resena.setAutorId(embebida.getString("autorId"));
+                resena.setPuntuacion(embebida.getInteger("puntuacion"));
+                resena.setComentario(embebida.getString("comentario"));
+                Date fecha = embebida.getDate("fecha");
+                if (fecha != null) {
+                    resena.setFecha(LocalDateTime.ofInstant(fecha.toInstant(), ZoneId.systemDefault()));
+                }
+                mongoTemplate.save(resena);
+                total++;
+            }
+
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(usuario.getObjectId("_id"))),
+                    new Update().unset("tutor.resenas"),
+                    "usuario"
+            );
+        }
+        System.out.println(total + " reseñas migradas a la colección resena desde " + tutores.size() + " tutores");
+    }
+
+    // Tutores creados antes de los contadores de calificación (sumaPuntuaciones, totalResenas)
+    private void inicializarContadoresCalificacion() {
+        Query query = new Query(Criteria.where("tutor").exists(true)
+                .and("tutor.totalResenas").exists(false));
+        query.fields().include("_id");
+        List<Usuario> pendientes = mongoTemplate.find(query, Usuario.class);
+        if (pendientes.isEmpty()) return;
+
+        pendientes.forEach(tutor -> resenaServicio.recalcularCalificacion(tutor.getId()));
+        System.out.println("Contadores de calificación inicializados para " + pendientes.size() + " tutores");
+    }
+
+    // Usuarios guardados antes de existir las claves de búsqueda normalizadas
+    private void calcularClavesBusqueda() {
+        List<Usuario> pendientes = mongoTemplate.find(
+                new Query(Criteria.where("nombreBusqueda").exists(false)),
+                Usuario.class
+        );
+        if (pendientes.isEmpty()) return;
+
+        // Al guardar, UsuarioBusquedaCallback calcula las claves
+        usuarioRepositorio.saveAll(pendientes);
+
+        // El modelo de lectura copia las claves de los tutores
+        horarioDisponibleServicio.reindexar();
+        System.out.println("Claves de búsqueda calculadas para " + pendientes.size() + " usuarios");
+    }
+}
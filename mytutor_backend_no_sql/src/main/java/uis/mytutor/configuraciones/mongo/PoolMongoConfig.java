@@ -0,0 +1,34 @@
+package uis.mytutor.configuraciones.mongo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+// Tamaño del pool de conexiones del driver según el modo de ejecución
+// Con hilos de plataforma Tomcat ya limita las peticiones simultáneas (server.tomcat.threads.max)
+// Con hilos virtuales (spring.threads.virtual.enabled) no hay ese límite: el pool es el que regula
+// cuántas peticiones esperan a Mongo a la vez, por eso es más grande y la espera por conexión es acotada
+@Configuration
+public class PoolMongoConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer poolMongo(
+            @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales,
+            @Value("${app.mongo.pool.max-conexiones:100}") int maxConexiones,
+            @Value("${app.mongo.pool.max-conexiones-hilos-virtuales:300}") int maxConexionesHilosVirtuales,
+            @Value("${app.mongo.pool.max-conectando:4}") int maxConectando,
+            @Value("${app.mongo.pool.espera-maxima-ms:5000}") long esperaMaximaMs
+    ) {
+        int tamano = hilosVirtuales ? maxConexionesHilosVirtuales : maxConexiones;
+
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(tamano)
+                // Conexiones abriéndose a la vez en un pico de carga (el driver usa 2 por defecto)
+                .maxConnecting(maxConectando)
+                // Sin conexión libre en este tiempo la petición falla en lugar de quedarse esperando
+                .maxWaitTime(esperaMaximaMs, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,42 @@
+package uis.mytutor.configuraciones.mongo;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import uis.mytutor.modelo.Materia;
+import uis.mytutor.modelo.Tutor;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.utilidades.TextoUtil;
+
+import java.util.List;
+
+// Calcula las claves de búsqueda normalizadas cada vez que se guarda un Usuario
+// Así las búsquedas sin tildes usan índices y no normalizan texto por cada fila
+@Component
+public class UsuarioBusquedaCallback implements BeforeConvertCallback<Usuario> {
+
+    @Override
+    public Usuario onBeforeConvert(Usuario usuario, String collection) {
+        usuario.setNombreBusqueda(clavesNombre(usuario.getNombre(), usuario.getApellido()));
+
+        Tutor tutor = usuario.getTutor();
+        if (tutor != null) {
+            tutor.setMateriasBusqueda(clavesMaterias(tutor.getMaterias()));
+        }
+        return usuario;
+    }
+
+    // También las usan las actualizaciones parciales, que no pasan por este callback
+    public static List<String> clavesNombre(String nombre, String apellido) {
+        return TextoUtil.clavesBusqueda(List.of(
+                (nombre != null ? nombre : "") + " " + (apellido != null ? apellido : "")
+        ));
+    }
+
+    public static List<String> clavesMaterias(List<Materia> materias) {
+        return TextoUtil.clavesBusqueda(
+                materias == null
+                        ? List.of()
+                        : materias.stream().map(Materia::getNombre).toList()
+        );
+    }
+}
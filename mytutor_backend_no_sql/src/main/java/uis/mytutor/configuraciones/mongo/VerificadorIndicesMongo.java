@@ -0,0 +1,170 @@
+package uis.mytutor.configuraciones.mongo;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Al arrancar ejecuta explain() sobre cada forma de consulta de los repositorios y servicios
+// Si alguna se resuelve con COLLSCAN (sin índice) lo avisa, o detiene el arranque si así se configura
+// Los índices los crea antes MigracionesMongo
+@Component
+@Order(2)
+public class VerificadorIndicesMongo implements ApplicationRunner {
+
+    // Forma de una consulta: colección, filtro y orden con valores de ejemplo
+    private record FormaConsulta(String nombre, String coleccion, Document filtro, Document orden) {
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.indices.verificar:true}")
+    private boolean verificar;
+
+    @Value("${app.mongo.indices.fallar-si-collscan:false}")
+    private boolean fallarSiCollscan;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!verificar) return;
+
+        List<String> sinIndice = new ArrayList<>();
+        for (FormaConsulta forma : formasConsulta()) {
+            if (usaCollscan(explicar(forma))) {
+                sinIndice.add(forma.nombre() + " (" + forma.coleccion() + ")");
+            }
+        }
+
+        if (sinIndice.isEmpty()) {
+            System.out.println("Índices verificados: ninguna consulta registrada usa COLLSCAN");
+            return;
+        }
+
+        String mensaje = "Consultas sin índice (COLLSCAN): " + String.join(", ", sinIndice);
+        if (fallarSiCollscan) {
+            throw new IllegalStateException(mensaje);
+        }
+        System.out.println("ADVERTENCIA " + mensaje);
+    }
+
+    // Al agregar una consulta nueva a un repositorio o servicio, registrar aquí su forma
+    private List<FormaConsulta> formasConsulta() {
+        Date ahora = new Date();
+
+        return List.of(
+                // HorarioRepositorio.findByDisponibleTrueAndFechaInicioBefore y barrido de HorarioSchedulerServicio
+                new FormaConsulta("horariosExpirados", "horario",
+                        new Document("disponible", true).append("fechaInicio", new Document("$lt", ahora)),
+                        null),
+                // ExpiracionHorarioServicio.recargar
+                new FormaConsulta("horariosPorExpirar", "horario",
+                        new Document("disponible", true)
+                                .append("fechaInicio", new Document("$gt", ahora).append("$lte", ahora)),
+                        null),
+                // HorarioRepositorio.findByIdTutor
+                new FormaConsulta("horariosDeTutor", "horario",
+                        new Document("idTutor", "x"),
+                        null),
+                // HorarioRepositorio.encontrarHorariosSolapados
+                new FormaConsulta("horariosSolapados", "horario",
+                        new Document("idTutor", "x")
+                                .append("fechaInicio", new Document("$lt", ahora))
+                                .append("fechaFin", new Document("$gt", ahora)),
+                        null),
+                // HorarioSchedulerServicio.marcarReservasPendientes
+                new FormaConsulta("reservasPendientesTerminadas", "horario",
+                        new Document("fechaFin", new Document("$lt", ahora))
+                                .append("reservaActual.estado", "PENDIENTE"),
+                        null),
+
+                // ReservaServicio.ObtenerMisReservas
+                new FormaConsulta("misReservas", "reserva",
+                        new Document("idUsuario", "x"),
+                        new Document("_id", 1)),
+                // ReservaRepositorio.findByIdHorarioInOrderByIdAsc (historial en lote)
+                new FormaConsulta("historialDeHorarios", "reserva",
+                        new Document("idHorario", new Document("$in", List.of("x", "y"))),
+                        new Document("_id", 1)),
+
+                // UsuarioRepositorio.findByNombreUsuario / findPrincipalByNombreUsuario
+                new FormaConsulta("usuarioPorNombreUsuario", "usuario",
+                        new Document("nombreUsuario", "x"),
+                        null),
+                // TutorServicio.getTutores (directorio paginado)
+                new FormaConsulta("directorioTutores", "usuario",
+                        new Document("rol", "TUTOR").append("tutor.activo", true).append("activo", true)
+                                .append("_id", new Document("$gt", new ObjectId())),
+                        new Document("_id", 1)),
+
+                // UsuarioServicio.getUsuarios (listado de admin)
+                new FormaConsulta("usuariosPorRolYEstado", "usuario",
+                        new Document("rol", "TUTOR").append("activo", true),
+                        new Document("_id", 1)),
+                new FormaConsulta("usuariosPorPrefijo", "usuario",
+                        new Document("$or", List.of(
+                                new Document("nombreBusqueda", new Document("$regex", "^jua")),
+                                new Document("nombreUsuario", new Document("$regex", "^jua"))
+                        )),
+                        null),
+
+                // ResenaServicio.getResenasDeTutorPorId y últimas reseñas de TutorCache
+                new FormaConsulta("resenasDeTutor", "resena",
+                        new Document("idTutor", "x"),
+                        new Document("fecha", -1).append("_id", -1)),
+                // ResenaRepositorio.findByAutorId
+                new FormaConsulta("resenasDeAutor", "resena",
+                        new Document("autorId", "x"),
+                        null),
+
+                // HorarioConsultaServicio (orden PROXIMOS, filtro idTutor del perfil) y sincronización por tutor
+                new FormaConsulta("disponiblesProximos", "horario_disponible",
+                        new Document("fechaInicio", new Document("$gte", ahora)),
+                        new Document("fechaInicio", 1).append("_id", 1)),
+                new FormaConsulta("disponiblesDeTutor", "horario_disponible",
+                        new Document("idTutor", "x"),
+                        null)
+        );
+    }
+
+    private Document explicar(FormaConsulta forma) {
+        Document find = new Document("find", forma.coleccion()).append("filter", forma.filtro());
+        if (forma.orden() != null) {
+            find.append("sort", forma.orden());
+        }
+
+        return mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner")
+        );
+    }
+
+    // Recorre el plan ganador (con o sin el motor SBE, que lo anida en queryPlan)
+    private boolean usaCollscan(Object nodo) {
+        if (nodo instanceof Document documento) {
+            if ("COLLSCAN".equals(documento.get("stage"))) return true;
+
+            Object planGanador = documento.get("queryPlanner") instanceof Document queryPlanner
+                    ? queryPlanner.get("winningPlan")
+                    : null;
+            if (planGanador != null) return usaCollscan(planGanador);
+
+            for (Object valor : documento.values()) {
+                if (usaCollscan(valor)) return true;
+            }
+        } else if (nodo instanceof List<?> lista) {
+            for (Object valor : lista) {
+                if (usaCollscan(valor)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import uis.mytutor.configuraciones.jwt.JwtFilter;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.util.Arrays;
 import java.util.List;
@@ -46,7 +47,7 @@ public class SecurityConfig {
         corsConfig.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
         corsConfig.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
         corsConfig.setAllowedHeaders(List.of("*"));
-        corsConfig.setExposedHeaders(List.of("Authorization"));
+        corsConfig.setExposedHeaders(List.of("Authorization", PaginacionUtil.CABECERA_CURSOR));
         corsConfig.setAllowCredentials(allowCredentials);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
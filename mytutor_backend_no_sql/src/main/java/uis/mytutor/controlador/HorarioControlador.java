@@ -3,17 +3,30 @@ package uis.mytutor.controlador;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uis.mytutor.configuraciones.jwt.JwtUtil;
+import uis.mytutor.dto.FiltroHorario;
 import uis.mytutor.dto.HorarioDisponibleDTO;
+import uis.mytutor.dto.OrdenHorario;
+import uis.mytutor.dto.ResultadoHorarioRecurrente;
 import uis.mytutor.dto.SolicitudHorario;
+import uis.mytutor.dto.SolicitudHorarioRecurrente;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Horario;
-import uis.mytutor.modelo.Usuario;
+import uis.mytutor.modelo.LeaseScheduler;
+import uis.mytutor.servicio.impl.EventosHorarioServicio;
+import uis.mytutor.servicio.impl.HorarioDisponibleServicio;
 import uis.mytutor.servicio.impl.HorarioServicio;
+import uis.mytutor.servicio.impl.LeaseSchedulerServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +39,18 @@ public class HorarioControlador {
     @Autowired
     HorarioServicio horarioServicio;
 
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    EventosHorarioServicio eventosHorarioServicio;
+
+    @Autowired
+    LeaseSchedulerServicio leaseSchedulerServicio;
+
+    @Autowired
+    JwtUtil jwtUtil;
+
 
     // -------------------------------------------------------------------------
     // 1. Obtener TODOS los horarios (disponibles y no disponibles)
@@ -45,7 +70,7 @@ public class HorarioControlador {
     @PreAuthorize("hasRole('TUTOR')")
     @GetMapping("/listMyHorarios")
     public List<Horario> obtenerTodosLosHorariosDeTutor(Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
         return horarioServicio.obtenerHorariosTutor(usuarioActual);
     }
 
@@ -53,10 +78,22 @@ public class HorarioControlador {
     // -------------------------------------------------------------------------
     // 2. Obtener solo horarios disponibles
     // -------------------------------------------------------------------------
-    @Operation(summary = "Obtener todos los horarios DISPONIBLES")
+    // El token de la siguiente página se devuelve en la cabecera X-Siguiente-Cursor
+    @Operation(summary = "Obtener los horarios DISPONIBLES (paginado por cursor)")
     @GetMapping("/disponibles")
-    public List<HorarioDisponibleDTO> obtenerHorariosDisponibles() {
-        return horarioServicio.obtenerTodosLosHorariosDisponibles();
+    public ResponseEntity<List<HorarioDisponibleDTO>> obtenerHorariosDisponibles(
+            @Parameter(description = "Orden: PROXIMOS, ECONOMICOS o MEJOR_CALIFICADOS", example = "PROXIMOS")
+            @RequestParam(required = false, defaultValue = "PROXIMOS") OrdenHorario orden,
+
+            @Parameter(description = "Cursor recibido en la cabecera X-Siguiente-Cursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer tamano
+    ) {
+        return PaginacionUtil.respuesta(
+                horarioServicio.obtenerTodosLosHorariosDisponibles(orden, cursor, tamano)
+        );
     }
 
 
@@ -64,9 +101,9 @@ public class HorarioControlador {
     // 3. Obtener horarios filtrados
     // -------------------------------------------------------------------------
     // http://localhost:8081/api/horario/filtrar?materia=Matem%C3%A1ticas&precioMin=20&precioMax=50&calificacionMin=4&fechaInicio=2025-11-20T10:00:00&fechaFin=2025-11-25T18:00:00
-    @Operation(summary = "Obtener horarios disponibles filtrados")
+    @Operation(summary = "Obtener horarios disponibles filtrados (paginado por cursor)")
     @GetMapping("/filtrar")
-    public List<HorarioDisponibleDTO> obtenerHorariosFiltrados(
+    public ResponseEntity<List<HorarioDisponibleDTO>> obtenerHorariosFiltrados(
             @Parameter(description = "Nombre de la materia a filtrar", example = "Matemáticas")
             @RequestParam(required = false) String materia,
 
@@ -85,22 +122,81 @@ public class HorarioControlador {
             @Parameter(description = "Nombre del tutor", example = "Juan Pérez")
             @RequestParam(required = false) String nombreTutor,
 
+            @Parameter(description = "Id del tutor (solo sus horarios)")
+            @RequestParam(required = false) String idTutor,
+
             @Parameter(description = "Fecha de inicio en formato ISO", example = "2025-11-17T23:25:00.000Z")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
             LocalDateTime fechaInicio,
 
             @Parameter(description = "Fecha de fin en formato ISO", example = "2025-11-17T23:25:00.000Z")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-            LocalDateTime fechaFin
+            LocalDateTime fechaFin,
+
+            @Parameter(description = "Orden: PROXIMOS, ECONOMICOS o MEJOR_CALIFICADOS", example = "PROXIMOS")
+            @RequestParam(required = false, defaultValue = "PROXIMOS") OrdenHorario orden,
+
+            @Parameter(description = "Cursor recibido en la cabecera X-Siguiente-Cursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer tamano
     ) {
-        return horarioServicio.obtenerHorariosFiltrados(
+        FiltroHorario filtro = new FiltroHorario(
                 materia, precioMin, precioMax,
                 calificacionMin, calificacionMax,
-                nombreTutor, fechaInicio, fechaFin
+                nombreTutor, fechaInicio, fechaFin, idTutor
+        );
+        return PaginacionUtil.respuesta(
+                horarioServicio.obtenerHorariosFiltrados(filtro, orden, cursor, tamano)
         );
     }
 
 
+    // -------------------------------------------------------------------------
+    // 3.0 Cambios de disponibilidad en tiempo real (Server-Sent Events)
+    // -------------------------------------------------------------------------
+    // Eventos CREADO, RESERVADO, CANCELADO, EXPIRADO, ELIMINADO y MODIFICADO con los datos públicos del horario
+    // EventSource no permite enviar la cabecera Authorization: primero se pide un token de eventos
+    // (POST /eventos/token, dura 1 minuto) y se abre la conexión con ?token=
+    @Operation(summary = "Obtener un token corto para abrir la conexión de eventos (SSE)")
+    @PostMapping("/eventos/token")
+    public ResponseEntity<String> obtenerTokenEventos(Authentication authentication) {
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(
+                jwtUtil.generateEventosToken(usuarioActual.getNombreUsuario(), usuarioActual.getRol().name())
+        );
+    }
+
+    @Operation(summary = "Suscribirse a los cambios de disponibilidad de horarios (SSE)")
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirseAEventos(HttpServletRequest request) {
+        return eventosHorarioServicio.suscribir(request.getRemoteAddr());
+    }
+
+
+    // -------------------------------------------------------------------------
+    // 3.1 Reconstruir el modelo de lectura de horarios disponibles (solo admin)
+    // -------------------------------------------------------------------------
+    @Operation(summary = "Reconstruir la colección de búsqueda de horarios disponibles (solo admin)")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reindexar")
+    public ResponseEntity<Long> reindexarHorariosDisponibles() {
+        return ResponseEntity.ok(horarioDisponibleServicio.reindexar());
+    }
+
+
+    // -------------------------------------------------------------------------
+    // 3.2 Estado de las tareas programadas entre réplicas (solo admin)
+    // -------------------------------------------------------------------------
+    @Operation(summary = "Ver qué réplica tiene cada lease del scheduler y su última ejecución (solo admin)")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/scheduler")
+    public ResponseEntity<List<LeaseScheduler>> obtenerLeasesScheduler() {
+        return ResponseEntity.ok(leaseSchedulerServicio.obtenerLeases());
+    }
+
+
     // -------------------------------------------------------------------------
     // 4. Crear horario (solo TUTOR)
     // -------------------------------------------------------------------------
@@ -110,13 +206,29 @@ public class HorarioControlador {
     public ResponseEntity<Horario> crearHorario(Authentication authentication,
                                           @RequestBody SolicitudHorario solicitud) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Horario nuevo = horarioServicio.crearHorarioTutoria(usuarioActual, solicitud);
         return ResponseEntity.ok(nuevo);
     }
 
 
+    // -------------------------------------------------------------------------
+    // 4.1 Crear horarios recurrentes (solo TUTOR)
+    // -------------------------------------------------------------------------
+    @Operation(summary = "Crear horarios con una regla de recurrencia: días, franja horaria y rango de fechas (solo tutor)")
+    @PreAuthorize("hasRole('TUTOR')")
+    @PostMapping("/crear/recurrente")
+    public ResponseEntity<ResultadoHorarioRecurrente> crearHorariosRecurrentes(Authentication authentication,
+                                                                               @RequestBody SolicitudHorarioRecurrente solicitud) {
+
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
+
+        ResultadoHorarioRecurrente resultado = horarioServicio.crearHorariosRecurrentes(usuarioActual, solicitud);
+        return ResponseEntity.ok(resultado);
+    }
+
+
     // -------------------------------------------------------------------------
     // 5. Modificar un horario existente (solo tutor)
     // -------------------------------------------------------------------------
@@ -128,7 +240,7 @@ public class HorarioControlador {
             @RequestBody SolicitudHorario solicitud,
             Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Horario actualizado = horarioServicio.modificarHorarioTutoria(
                     usuarioActual, idHorario, solicitud
@@ -148,7 +260,7 @@ public class HorarioControlador {
             @PathVariable String idHorario,
             Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         boolean ok = horarioServicio.desactivarHorarioTutoria(usuarioActual, idHorario);
 
@@ -1,6 +1,7 @@
 package uis.mytutor.controlador;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -10,9 +11,10 @@ import org.springframework.web.bind.annotation.*;
 import uis.mytutor.dto.ModificarResena;
 import uis.mytutor.dto.ResenasDTO;
 import uis.mytutor.dto.SolicitudResena;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Resena;
-import uis.mytutor.modelo.Usuario;
 import uis.mytutor.servicio.impl.ResenaServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.util.List;
 
@@ -28,11 +30,19 @@ public class ResenaControlador {
     // -------------------------------------------------------------------------
     // 1. Obtener reseñas de un tutor por su ID (público)
     // -------------------------------------------------------------------------
-    @Operation(summary = "Obtener todas las reseñas de un tutor específico")
+    // El token de la siguiente página se devuelve en la cabecera X-Siguiente-Cursor
+    @Operation(summary = "Obtener las reseñas de un tutor, más recientes primero (paginado por cursor)")
     @GetMapping("/tutor/{idTutor}")
-    public ResponseEntity<List<Resena>> obtenerResenasDeTutor(@PathVariable String idTutor) {
-        List<Resena> resenas = resenaServicio.getResenasDeTutorPorId(idTutor);
-        return ResponseEntity.ok(resenas);
+    public ResponseEntity<List<Resena>> obtenerResenasDeTutor(
+            @PathVariable String idTutor,
+
+            @Parameter(description = "Cursor recibido en la cabecera X-Siguiente-Cursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer tamano
+    ) {
+        return PaginacionUtil.respuesta(resenaServicio.getResenasDeTutorPorId(idTutor, cursor, tamano));
     }
 
 
@@ -43,7 +53,7 @@ public class ResenaControlador {
     @PreAuthorize("hasAnyRole('ESTUDIANTE', 'TUTOR')")
     @GetMapping()
     public ResponseEntity<List<ResenasDTO>> obtenerMisResenas(Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         List<ResenasDTO> misResenas = resenaServicio.obtenerResenasHechas(usuarioActual);
         return ResponseEntity.ok(misResenas);
@@ -70,7 +80,7 @@ public class ResenaControlador {
     @PostMapping()
     public ResponseEntity<Resena> crearResena(@RequestBody SolicitudResena solicitud,
                                               Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Resena nuevaResena = resenaServicio.crearResena(usuarioActual, solicitud);
         return ResponseEntity.ok(nuevaResena);
@@ -84,7 +94,7 @@ public class ResenaControlador {
     @PreAuthorize("hasAnyRole('ESTUDIANTE', 'TUTOR')")
     @PutMapping()
     public ResponseEntity<ResenasDTO> modificarResena(ModificarResena modificarResena, Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         return ResponseEntity.ok(resenaServicio.modificarResena(usuarioActual, modificarResena));
     }
@@ -1,18 +1,23 @@
 package uis.mytutor.controlador;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Horario;
 import uis.mytutor.modelo.Reserva;
-import uis.mytutor.modelo.Usuario;
 import uis.mytutor.servicio.impl.ReservaServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reserva")
@@ -38,14 +43,43 @@ public class ReservaControlador {
     // -------------------------------------------------------------------------
     // 2. Obtener mis reservas (estudiante o tutor)
     // -------------------------------------------------------------------------
-    @Operation(summary = "Obtener mis propias reservas")
+    // El token de la siguiente página se devuelve en la cabecera X-Siguiente-Cursor
+    @Operation(summary = "Obtener mis propias reservas (paginado por cursor)")
     @PreAuthorize("hasAnyRole('ESTUDIANTE', 'TUTOR')")
     @GetMapping()
-    public ResponseEntity<List<Horario>> obtenerMisReservas(Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+    public ResponseEntity<List<Horario>> obtenerMisReservas(
+            Authentication authentication,
 
-        List<Horario> misReservas = reservaServicio.ObtenerMisReservas(usuarioActual);
-        return ResponseEntity.ok(misReservas);
+            @Parameter(description = "Estado actual de mi reserva; varios separados por coma", example = "PENDIENTE,ESPERANDO_ACCION_TUTOR")
+            @RequestParam(required = false) List<Reserva.EstadoReserva> estado,
+
+            @Parameter(description = "Fecha de inicio mínima del horario en formato ISO", example = "2025-11-17T23:25:00.000Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime desde,
+
+            @Parameter(description = "Fecha de inicio máxima del horario en formato ISO", example = "2025-11-30T23:25:00.000Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime hasta,
+
+            @Parameter(description = "Cursor recibido en la cabecera X-Siguiente-Cursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer tamano
+    ) {
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
+
+        return PaginacionUtil.respuesta(
+                reservaServicio.ObtenerMisReservas(usuarioActual, estado, desde, hasta, cursor, tamano)
+        );
+    }
+
+    @Operation(summary = "Cantidad de mis reservas por estado actual")
+    @PreAuthorize("hasAnyRole('ESTUDIANTE', 'TUTOR')")
+    @GetMapping("/conteo")
+    public ResponseEntity<Map<Reserva.EstadoReserva, Long>> contarMisReservas(Authentication authentication) {
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(reservaServicio.contarMisReservas(usuarioActual));
     }
 
 
@@ -57,7 +91,7 @@ public class ReservaControlador {
     @PostMapping("/{idHorario}")
     public ResponseEntity<Reserva> reservarHorario(@PathVariable String idHorario,
                                                    Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Reserva nuevaReserva = reservaServicio.reservarHorario(usuarioActual, idHorario);
         return ResponseEntity.ok(nuevaReserva);
@@ -72,7 +106,7 @@ public class ReservaControlador {
     @DeleteMapping("/{idHorario}")
     public ResponseEntity<Reserva> cancelarReserva(@PathVariable String idHorario,
                                                    Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Reserva reservaCancelada = reservaServicio.cancelarReserva(usuarioActual, idHorario);
         return ResponseEntity.ok(reservaCancelada);
@@ -88,7 +122,7 @@ public class ReservaControlador {
     @DeleteMapping("/tutor/{idHorario}")
     public ResponseEntity<Reserva> turorCancelaReserva(@PathVariable String idHorario,
                                                    Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Reserva reservaCancelada = reservaServicio.tutorCancelaReservaHecha(usuarioActual, idHorario);
         return ResponseEntity.ok(reservaCancelada);
@@ -103,7 +137,7 @@ public class ReservaControlador {
     @PutMapping("/{idHorario}/completada")
     public ResponseEntity<Reserva> marcarReservaCompletada(@PathVariable String idHorario,
                                                            Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Reserva reservaCompletada = reservaServicio.reservaCompletada(usuarioActual, idHorario);
         return ResponseEntity.ok(reservaCompletada);
@@ -119,7 +153,7 @@ public class ReservaControlador {
     @PutMapping("/{idHorario}/no-asistio")
     public ResponseEntity<Reserva> marcarNoAsistio(@PathVariable String idHorario,
                                                    Authentication authentication) {
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Reserva reservaNoAsistio = reservaServicio.noAsistioALaReserva(usuarioActual, idHorario);
         return ResponseEntity.ok(reservaNoAsistio);
@@ -1,18 +1,22 @@
 package uis.mytutor.controlador;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import uis.mytutor.dto.EstadisticasCacheDTO;
+import uis.mytutor.dto.FiltroTutor;
 import uis.mytutor.dto.SolicitudTutor;
 import uis.mytutor.dto.TutorDTO;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Tutor;
-import uis.mytutor.modelo.Usuario;
 import uis.mytutor.servicio.impl.TutorServicio;
 import uis.mytutor.servicio.impl.UsuarioServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.util.List;
 
@@ -29,15 +33,33 @@ public class TutorControlador {
 
 
     // -------------------------------------------------------------------------
-    // 1. Listar todos los tutores (accesible para cualquiera)
+    // 1. Listar los tutores activos (accesible para cualquiera)
     // -------------------------------------------------------------------------
-    @Operation(summary = "Listar todos los tutores disponibles")
+    // El token de la siguiente página se devuelve en la cabecera X-Siguiente-Cursor
+    // http://localhost:8081/api/tutor/list?materia=calculo&precioMin=20&precioMax=50&nombre=jua
+    @Operation(summary = "Listar los tutores activos, con filtros (paginado por cursor)")
     @GetMapping("/list")
-    public List<TutorDTO> listarTutores() {
-        return tutorServicio.getTutores()
-                .stream()
-                .filter(t -> t != null)  // filtra usuarios que no son tutores
-                .toList();
+    public ResponseEntity<List<TutorDTO>> listarTutores(
+            @Parameter(description = "Nombre de la materia a filtrar", example = "Matemáticas")
+            @RequestParam(required = false) String materia,
+
+            @Parameter(description = "Precio mínimo", example = "20.0")
+            @RequestParam(required = false) Double precioMin,
+
+            @Parameter(description = "Precio máximo", example = "50.0")
+            @RequestParam(required = false) Double precioMax,
+
+            @Parameter(description = "Inicio del nombre o del apellido del tutor", example = "jua")
+            @RequestParam(required = false) String nombre,
+
+            @Parameter(description = "Cursor recibido en la cabecera X-Siguiente-Cursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer tamano
+    ) {
+        FiltroTutor filtro = new FiltroTutor(materia, precioMin, precioMax, nombre);
+        return PaginacionUtil.respuesta(tutorServicio.getTutores(filtro, cursor, tamano));
     }
 
 
@@ -60,7 +82,7 @@ public class TutorControlador {
     @GetMapping()
     public ResponseEntity<SolicitudTutor> obtenerMiTutor(Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         SolicitudTutor dto = tutorServicio.getTutor(usuarioActual);
         return ResponseEntity.ok(dto);
@@ -76,7 +98,7 @@ public class TutorControlador {
     public ResponseEntity<Tutor> crearTutor(@RequestBody SolicitudTutor solicitud,
                                             Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         Tutor tutor = tutorServicio.crearTutor(solicitud, usuarioActual);
         return ResponseEntity.ok(tutor);
@@ -92,7 +114,7 @@ public class TutorControlador {
     public ResponseEntity<SolicitudTutor> actualizarMiTutor(@RequestBody SolicitudTutor solicitud,
                                                             Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         SolicitudTutor actualizado = tutorServicio.ActualizarInfoTutorMismoUsuario(usuarioActual, solicitud);
 
@@ -108,7 +130,7 @@ public class TutorControlador {
     @DeleteMapping()
     public ResponseEntity<Void> desactivarMiTutor(Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal();
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal();
 
         boolean borrado = tutorServicio.tutorSeDesactivaElMismo(usuarioActual);
 
@@ -128,5 +150,15 @@ public class TutorControlador {
 
             return ResponseEntity.ok().build();
     }
-}
 
+
+    // -------------------------------------------------------------------------
+    // 8. Métricas de la cache de tutores (solo ADMIN)
+    // -------------------------------------------------------------------------
+    @Operation(summary = "Estadísticas de la cache de perfiles de tutor (solo ADMIN)")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/cache")
+    public ResponseEntity<EstadisticasCacheDTO> estadisticasCache() {
+        return ResponseEntity.ok(tutorServicio.estadisticasCache());
+    }
+}
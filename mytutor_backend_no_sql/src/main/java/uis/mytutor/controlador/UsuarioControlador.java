@@ -1,15 +1,21 @@
 package uis.mytutor.controlador;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import uis.mytutor.dto.EstadisticasConflictosDTO;
+import uis.mytutor.dto.FiltroUsuario;
 import uis.mytutor.dto.UsuarioDTO;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Usuario;
+import uis.mytutor.servicio.impl.ReintentoOptimistaServicio;
 import uis.mytutor.servicio.impl.UsuarioServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.util.List;
 
@@ -21,11 +27,31 @@ public class UsuarioControlador {
     @Autowired
     UsuarioServicio usuarioServicio;
 
-    @Operation(summary = "Listar todos los usuarios (Solo rol ADMIN)")
+    @Autowired
+    ReintentoOptimistaServicio reintentoOptimistaServicio;
+
+    // El token de la siguiente página se devuelve en la cabecera X-Siguiente-Cursor
+    @Operation(summary = "Listar usuarios con búsqueda y filtros, paginado por cursor (Solo rol ADMIN)")
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/list")
-    public List<UsuarioDTO> getUsuarios() {
-        return usuarioServicio.getUsuarios();
+    public ResponseEntity<List<UsuarioDTO>> getUsuarios(
+            @Parameter(description = "Inicio del nombre de usuario, nombre o apellido", example = "jua")
+            @RequestParam(required = false) String busqueda,
+
+            @Parameter(description = "Rol: ESTUDIANTE, TUTOR o ADMIN", example = "TUTOR")
+            @RequestParam(required = false) Usuario.Rol rol,
+
+            @Parameter(description = "Usuarios activos (true) o desactivados (false)", example = "true")
+            @RequestParam(required = false) Boolean activo,
+
+            @Parameter(description = "Cursor recibido en la cabecera X-Siguiente-Cursor")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer tamano
+    ) {
+        FiltroUsuario filtro = new FiltroUsuario(busqueda, rol, activo);
+        return PaginacionUtil.respuesta(usuarioServicio.getUsuarios(filtro, cursor, tamano));
     }
 
     @Operation(summary = "Obtener un usuario por ID (solo rol ADMIN)")
@@ -40,7 +66,7 @@ public class UsuarioControlador {
     @GetMapping()
     public ResponseEntity<Usuario> obtenerMyUsuario(Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal(); // lo que pusiste en el filtro
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal(); // lo que pusiste en el filtro
 
         Usuario obj = usuarioServicio.getMyUsuario(usuarioActual);
         return ResponseEntity.ok().body(obj);
@@ -50,7 +76,7 @@ public class UsuarioControlador {
     @PutMapping() //actualizar
     public ResponseEntity<UsuarioDTO> actualizarUsuario(@RequestBody Usuario usuario, Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal(); // lo que pusiste en el filtro
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal(); // lo que pusiste en el filtro
         String rol = authentication.getAuthorities().iterator().next().getAuthority(); // ej. ROLE_TUTOR
 
         UsuarioDTO obj = usuarioServicio.updateUsuario(usuario, usuarioActual, rol);
@@ -70,13 +96,20 @@ public class UsuarioControlador {
     @DeleteMapping()
     public ResponseEntity<Void> eliminarElPropioUsuario(Authentication authentication) {
 
-        Usuario usuarioActual = (Usuario) authentication.getPrincipal(); // lo que pusiste en el filtro
+        UsuarioPrincipal usuarioActual = (UsuarioPrincipal) authentication.getPrincipal(); // lo que pusiste en el filtro
         String rol = authentication.getAuthorities().iterator().next().getAuthority(); // ej. ROLE_TUTOR
 
         boolean borrado = usuarioServicio.deleteUsuario(usuarioActual);
         return ResponseEntity.ok().build(); // borrado exitoso
     }
 
+    @Operation(summary = "Conflictos de concurrencia optimista por operación (Solo rol ADMIN)")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/conflictos")
+    public ResponseEntity<List<EstadisticasConflictosDTO>> obtenerConflictos() {
+        return ResponseEntity.ok(reintentoOptimistaServicio.estadisticas());
+    }
+
     @Operation(summary = "Obtener mi rol")
     @GetMapping("/getMyRole")
     public String getMyRole(Authentication authentication) {
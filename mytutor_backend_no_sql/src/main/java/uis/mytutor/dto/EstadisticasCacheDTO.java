@@ -0,0 +1,18 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasCacheDTO {
+    private String nombre;
+    private int tamano;
+    private int tamanoMaximo;
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private double tasaAciertos;
+}
@@ -0,0 +1,16 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasConflictosDTO {
+    private String operacion;
+    private long ejecuciones;
+    private long conflictos;         // intentos que fallaron por versión desactualizada
+    private long reintentosAgotados; // ejecuciones que terminaron en 409
+    private double tasaConflictos;   // conflictos / ejecuciones
+}
@@ -0,0 +1,31 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Cambio de disponibilidad de un horario enviado por SSE (GET /api/horario/eventos)
+// Solo datos públicos del horario: nunca quién lo reservó
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventoHorario {
+
+    public enum Tipo {
+        CREADO,     // horario nuevo disponible
+        RESERVADO,  // alguien lo reservó: ya no está disponible
+        CANCELADO,  // se canceló la reserva: vuelve a estar disponible
+        EXPIRADO,   // llegó su fecha de inicio sin reserva
+        ELIMINADO,  // el tutor lo desactivó o se borró
+        MODIFICADO  // cambiaron sus fechas
+    }
+
+    private Tipo tipo;
+    private String idHorario;
+    private String idTutor;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+    private boolean disponible;
+}
@@ -0,0 +1,22 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroHorario {
+    private String materia;
+    private Double precioMin;
+    private Double precioMax;
+    private Double calificacionMin;
+    private Double calificacionMax;
+    private String nombreTutor;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+    private String idTutor; // horarios de un solo tutor (perfil del tutor)
+}
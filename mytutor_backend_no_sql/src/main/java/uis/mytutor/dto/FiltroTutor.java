@@ -0,0 +1,15 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroTutor {
+    private String materia;
+    private Double precioMin;
+    private Double precioMax;
+    private String nombre; // inicio del nombre o del apellido
+}
@@ -0,0 +1,15 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uis.mytutor.modelo.Usuario;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroUsuario {
+    private String busqueda; // prefijo de nombreUsuario, nombre o apellido
+    private Usuario.Rol rol;
+    private Boolean activo;
+}
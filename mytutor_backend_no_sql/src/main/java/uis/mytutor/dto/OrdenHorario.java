@@ -0,0 +1,8 @@
+package uis.mytutor.dto;
+
+// Ordenes soportados por el listado de horarios disponibles
+public enum OrdenHorario {
+    PROXIMOS,           // fechaInicio ascendente
+    ECONOMICOS,         // precioHora ascendente
+    MEJOR_CALIFICADOS   // califiacionPromedio descendente
+}
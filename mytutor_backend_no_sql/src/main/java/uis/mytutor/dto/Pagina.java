@@ -0,0 +1,15 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Pagina<T> {
+    private List<T> items;
+    private String siguienteCursor; // null cuando no hay más resultados
+}
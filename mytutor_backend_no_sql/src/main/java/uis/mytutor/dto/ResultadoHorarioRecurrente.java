@@ -0,0 +1,16 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uis.mytutor.modelo.Horario;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoHorarioRecurrente {
+    private List<Horario> creados;
+    private List<SolicitudHorario> rechazados; // se cruzan con otro horario del tutor o ya pasaron
+}
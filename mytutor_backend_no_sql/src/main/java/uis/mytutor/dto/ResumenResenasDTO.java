@@ -0,0 +1,20 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uis.mytutor.modelo.Resena;
+
+import java.util.List;
+
+// Resumen de las reseñas de un tutor; el listado completo se pide paginado (GET /api/resena/tutor/{idTutor})
+// En el directorio de tutores solo llegan total y promedio
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumenResenasDTO {
+    private long total;
+    private Double promedio;
+    private List<Long> histograma; // posición = puntuación (0 a 5), valor = cantidad de reseñas
+    private List<Resena> ultimas;  // las más recientes primero
+}
@@ -0,0 +1,23 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+// Regla de recurrencia: un horario de horaInicio a horaFin en cada día de la semana indicado
+// entre fechaDesde y fechaHasta (ambas incluidas)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SolicitudHorarioRecurrente {
+    private Set<DayOfWeek> dias;
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+    private LocalDate fechaDesde;
+    private LocalDate fechaHasta;
+}
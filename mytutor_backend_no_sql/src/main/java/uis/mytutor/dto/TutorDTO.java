@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import uis.mytutor.modelo.Materia;
-import uis.mytutor.modelo.Resena;
 
 import java.util.List;
 
@@ -24,6 +23,6 @@ public class TutorDTO {
     private String experiencia;
     private List<Materia> materias;
     private Double califiacionPromedio;
-    private List<Resena> resenas;
+    private ResumenResenasDTO resumenResenas;
 
 }
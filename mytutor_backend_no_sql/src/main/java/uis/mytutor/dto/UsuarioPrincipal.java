@@ -0,0 +1,38 @@
+package uis.mytutor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uis.mytutor.modelo.Usuario;
+
+// Usuario autenticado que JwtFilter pone en el SecurityContext
+// Solo lleva los campos necesarios para autorizar; el documento completo se busca por id cuando se necesita
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsuarioPrincipal {
+
+    private String id;
+    private String nombreUsuario;
+    private Usuario.Rol rol;
+    private boolean activo;
+    private Boolean tutorActivo; // null si el usuario no tiene perfil de tutor
+
+    // Mapear desde la proyección de UsuarioRepositorio.findPrincipalByNombreUsuario
+    public static UsuarioPrincipal desdeUsuario(Usuario usuario) {
+        if (usuario == null) return null;
+
+        return new UsuarioPrincipal(
+                usuario.getId(),
+                usuario.getNombreUsuario(),
+                usuario.getRol(),
+                usuario.isActivo(),
+                usuario.getTutor() == null ? null : usuario.getTutor().isActivo()
+        );
+    }
+
+    // Equivale a rol == TUTOR && tutor != null sobre el documento completo
+    public boolean esTutor() {
+        return rol == Usuario.Rol.TUTOR && tutorActivo != null;
+    }
+}
@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -14,11 +18,25 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "horario")
+@CompoundIndexes({
+        // Listado de horarios disponibles ordenado por fecha (paginación por cursor)
+        // También lo usan los barridos de horarios expirados (disponible + fechaInicio)
+        @CompoundIndex(name = "disponible_fechaInicio_id", def = "{ 'disponible': 1, 'fechaInicio': 1, '_id': 1 }"),
+        // Horarios de un tutor y validación de solapamiento (idTutor + rango de fechas)
+        @CompoundIndex(name = "idTutor_fechaInicio_fechaFin", def = "{ 'idTutor': 1, 'fechaInicio': 1, 'fechaFin': 1 }"),
+        // Barrido de reservas pendientes ya terminadas (HorarioSchedulerServicio): solo indexa horarios con la reserva actual PENDIENTE
+        @CompoundIndex(name = "fechaFin_reservaActualPendiente", def = "{ 'fechaFin': 1 }",
+                partialFilter = "{ 'reservaActual.estado': 'PENDIENTE' }")
+})
 public class Horario {
 
     @Id
     private String id;  // En MongoDB el ID es un String (ObjectId)
 
+    // Control de concurrencia optimista: cada escritura la incrementa (ver ReintentoOptimistaServicio)
+    @Version
+    private Long version;
+
     @NotNull
     private String idTutor;
 
@@ -31,6 +49,12 @@ public class Horario {
     @NotNull
     private boolean disponible = true;
 
+    // Resumen de la última reserva (null si nunca se ha reservado)
+    private ResumenReserva reservaActual;
+
+    // Historial completo desde la colección reserva; no se guarda en el horario
+    // ReservaServicio lo llena en lote al listar reservas
+    @Transient
     private List<Reserva> historialReservas;
 
 }
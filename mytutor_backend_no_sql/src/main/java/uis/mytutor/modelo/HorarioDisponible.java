@@ -0,0 +1,53 @@
+package uis.mytutor.modelo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Modelo de lectura: un documento por horario reservable con una copia de los datos del tutor
+// Lo mantiene HorarioDisponibleServicio cada vez que cambia un horario, una reserva, un tutor o una reseña
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "horario_disponible")
+@CompoundIndexes({
+        @CompoundIndex(name = "fechaInicio_id", def = "{ 'fechaInicio': 1, '_id': 1 }"),
+        @CompoundIndex(name = "precioHora_id", def = "{ 'precioHora': 1, '_id': 1 }"),
+        @CompoundIndex(name = "califiacionPromedio_id", def = "{ 'califiacionPromedio': -1, '_id': 1 }")
+})
+public class HorarioDisponible {
+
+    @Id
+    private String id;  // Mismo id del horario
+
+    @Indexed
+    private String idTutor;
+
+    private LocalDateTime fechaInicio;
+
+    private LocalDateTime fechaFin;
+
+    // Copia de los datos del tutor
+    private String tutorNombreApellido;
+
+    private double precioHora;
+
+    private Double califiacionPromedio;
+
+    private List<Materia> materias;
+
+    // Claves de búsqueda copiadas del tutor (ver TextoUtil.clavesBusqueda)
+    @Indexed
+    private List<String> tutorBusqueda;
+
+    @Indexed
+    private List<String> materiasBusqueda;
+}
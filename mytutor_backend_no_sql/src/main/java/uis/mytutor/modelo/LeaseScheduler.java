@@ -0,0 +1,34 @@
+package uis.mytutor.modelo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Lease de una tarea programada: solo la réplica que lo tiene ejecuta la tarea
+// Lo maneja LeaseSchedulerServicio
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scheduler_lease")
+public class LeaseScheduler {
+
+    @Id
+    private String id;  // Nombre de la tarea
+
+    private String nodo;  // Réplica que tiene el lease
+
+    private long token;  // Crece cada vez que el lease cambia de manos o se renueva
+
+    private LocalDateTime adquiridoEn;
+
+    private LocalDateTime expiraEn;  // Pasada esta fecha otra réplica puede tomar el lease
+
+    // Métricas de la última ejecución terminada sin error
+    private LocalDateTime ultimaEjecucionExitosa;
+    private String ultimoNodoExitoso;
+    private Long duracionUltimaEjecucionMs;
+}
@@ -6,6 +6,11 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -13,12 +18,24 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Document(collection = "resena")
+@CompoundIndexes({
+        // Histograma de puntuaciones del tutor (ResenaRepositorioParcial)
+        @CompoundIndex(name = "idTutor_puntuacion", def = "{ 'idTutor': 1, 'puntuacion': 1 }"),
+        // Reseñas del tutor de la más reciente a la más antigua, paginadas por cursor
+        @CompoundIndex(name = "idTutor_fecha_id", def = "{ 'idTutor': 1, 'fecha': -1, '_id': -1 }")
+})
 public class Resena {
 
+    @Id
     @NotNull
-    private String idResena = UUID.randomUUID().toString(); // Reseña NO es un documento en mongo, pero se genera un id en back para control cada reseña
+    private String idResena = UUID.randomUUID().toString(); // Se genera en back y se usa como _id
 
     @NotNull
+    private String idTutor; // id del usuario tutor que recibe la reseña
+
+    @NotNull
+    @Indexed
     private String autorId; // id del autor
 
     @NotNull
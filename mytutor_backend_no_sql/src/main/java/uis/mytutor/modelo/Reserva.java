@@ -4,18 +4,48 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+// Registro append-only de reservas: un documento por cambio de estado (reservar, cancelar, completar...)
+// Las entradas de una misma reserva comparten idReserva; estado y fecha de una entrada no se reescriben
+// El estado actual solo lo guarda el horario (Horario.reservaActual)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Document(collection = "reserva")
+@CompoundIndexes({
+        // Historial de un horario en orden de creación
+        @CompoundIndex(name = "idHorario_id", def = "{ 'idHorario': 1, '_id': 1 }"),
+        // Entradas de un usuario en orden de creación (mis reservas se queda con la última de cada reserva)
+        @CompoundIndex(name = "idUsuario_id", def = "{ 'idUsuario': 1, '_id': 1 }")
+})
 public class Reserva {
 
+    @Id
+    private String id = new ObjectId().toHexString(); // id de la entrada
+
+    // id de la reserva: el de su primera entrada (se copia en el horario)
+    // Por defecto la entrada abre una reserva nueva; los cambios de estado copian el de la reserva
+    @NotNull
+    private String idReserva = id;
+
+    @NotNull
+    private String idHorario;
+
     @NotNull
     private String idUsuario; // id del usuario que reservó
 
+    // Copia de Horario.fechaInicio para ordenar y filtrar mis reservas. No es parte del historial:
+    // si el tutor mueve el horario se corrige en las entradas de la reserva actual
+    @NotNull
+    private LocalDateTime fechaInicioHorario;
+
     public enum EstadoReserva {
         PENDIENTE,
         CANCELADA,
@@ -25,8 +55,8 @@ public class Reserva {
     }
 
     @NotNull
-    private EstadoReserva estado = EstadoReserva.PENDIENTE;
+    private EstadoReserva estado = EstadoReserva.PENDIENTE; // estado que toma la reserva con esta entrada
 
     @NotNull
-    private LocalDateTime fecha = LocalDateTime.now();
+    private LocalDateTime fecha = LocalDateTime.now(); // fecha de este cambio de estado
 }
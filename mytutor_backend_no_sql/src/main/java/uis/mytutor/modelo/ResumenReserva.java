@@ -0,0 +1,27 @@
+package uis.mytutor.modelo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Estado actual de la reserva actual del horario (tamaño fijo)
+// Cada cambio de estado queda además como una entrada en la colección reserva
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenReserva {
+
+    private String idReserva;
+
+    private String idUsuario;
+
+    private Reserva.EstadoReserva estado;
+
+    private LocalDateTime fecha;
+
+    public static ResumenReserva desdeReserva(Reserva reserva) {
+        return new ResumenReserva(reserva.getIdReserva(), reserva.getIdUsuario(), reserva.getEstado(), reserva.getFecha());
+    }
+}
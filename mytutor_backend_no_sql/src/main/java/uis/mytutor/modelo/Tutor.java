@@ -1,9 +1,11 @@
 package uis.mytutor.modelo;
 
 import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.util.List;
 
@@ -29,5 +31,17 @@ public class Tutor {
 
     private Double califiacionPromedio = 5.0;
 
-    private List<Resena> resenas;
+    // Contadores de las reseñas recibidas: califiacionPromedio = sumaPuntuaciones / totalResenas
+    // Se actualizan en Mongo en la misma escritura que el promedio (ver ResenaServicio)
+    @JsonIgnore
+    private long sumaPuntuaciones = 0;
+
+    @JsonIgnore
+    private int totalResenas = 0;
+
+    // Nombres de las materias normalizados (sin tildes, minúsculas) y sus palabras
+    // Se calculan al guardar (UsuarioBusquedaCallback)
+    @JsonIgnore
+    @Indexed
+    private List<String> materiasBusqueda;
 }
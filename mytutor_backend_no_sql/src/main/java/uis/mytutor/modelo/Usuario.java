@@ -1,23 +1,39 @@
 package uis.mytutor.modelo;
 
 import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "usuario")
+@CompoundIndexes({
+        // Directorio de tutores activos paginado por _id (TutorServicio.getTutores)
+        @CompoundIndex(name = "rol_tutorActivo_id", def = "{ 'rol': 1, 'tutor.activo': 1, '_id': 1 }"),
+        // Listado de admin filtrado por rol y estado, paginado por _id (UsuarioServicio.getUsuarios)
+        @CompoundIndex(name = "rol_activo_id", def = "{ 'rol': 1, 'activo': 1, '_id': 1 }")
+})
 public class Usuario {
 
     @Id
     private String id;  // En MongoDB el ID es un String (ObjectId)
 
+    // Control de concurrencia optimista: cada escritura la incrementa (ver ReintentoOptimistaServicio)
+    @Version
+    private Long version;
+
     @NotNull
     private String nombre;
 
@@ -50,4 +66,10 @@ public class Usuario {
     private Rol rol = Rol.ESTUDIANTE;
 
     private Tutor tutor;
+
+    // Nombre y apellido normalizados (sin tildes, minúsculas) y sus palabras
+    // Se calculan al guardar (UsuarioBusquedaCallback)
+    @JsonIgnore
+    @Indexed
+    private List<String> nombreBusqueda;
 }
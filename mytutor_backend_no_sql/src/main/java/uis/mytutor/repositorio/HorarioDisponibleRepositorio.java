@@ -0,0 +1,13 @@
+package uis.mytutor.repositorio;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import uis.mytutor.modelo.HorarioDisponible;
+
+import java.time.LocalDateTime;
+
+public interface HorarioDisponibleRepositorio extends MongoRepository<HorarioDisponible, String> {
+
+    void deleteByIdTutor(String idTutor);
+
+    long deleteByFechaInicioBefore(LocalDateTime fecha);
+}
@@ -7,7 +7,7 @@ import uis.mytutor.modelo.Horario;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface HorarioRepositorio extends MongoRepository<Horario, String> {
+public interface HorarioRepositorio extends MongoRepository<Horario, String>, HorarioRepositorioParcial {
     List<Horario> findByDisponibleTrue();
 
     List<Horario> findByDisponibleTrueAndFechaInicioBefore(LocalDateTime fecha);
@@ -0,0 +1,15 @@
+package uis.mytutor.repositorio;
+
+import uis.mytutor.modelo.Horario;
+
+// Actualizaciones parciales de horario: solo se envían los campos que cambian ($set)
+// Cada escritura exige la versión leída (horario.version) y la incrementa; si el documento cambió
+// entre la lectura y la escritura se lanza OptimisticLockingFailureException (ver ReintentoOptimistaServicio)
+public interface HorarioRepositorioParcial {
+
+    // Guarda fechaInicio y fechaFin del horario recibido
+    void actualizarFechas(Horario horario);
+
+    // Guarda disponible del horario recibido
+    void actualizarDisponible(Horario horario);
+}
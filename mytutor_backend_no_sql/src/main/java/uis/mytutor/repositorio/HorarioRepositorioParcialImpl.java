@@ -0,0 +1,42 @@
+package uis.mytutor.repositorio;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import uis.mytutor.modelo.Horario;
+
+// Spring Data une esta implementación a HorarioRepositorio por el sufijo Impl
+class HorarioRepositorioParcialImpl implements HorarioRepositorioParcial {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void actualizarFechas(Horario horario) {
+        actualizar(horario, new Update()
+                .set("fechaInicio", horario.getFechaInicio())
+                .set("fechaFin", horario.getFechaFin()));
+    }
+
+    @Override
+    public void actualizarDisponible(Horario horario) {
+        actualizar(horario, new Update().set("disponible", horario.isDisponible()));
+    }
+
+    // Escribir solo si la versión sigue siendo la leída
+    private void actualizar(Horario horario, Update update) {
+        Query query = new Query(Criteria.where("_id").is(horario.getId())
+                .and("version").is(horario.getVersion()));
+
+        long modificados = mongoTemplate.updateFirst(query, update.inc("version", 1), Horario.class)
+                .getMatchedCount();
+        if (modificados == 0) {
+            throw new OptimisticLockingFailureException(
+                    "El horario " + horario.getId() + " cambió desde la versión " + horario.getVersion());
+        }
+        horario.setVersion(horario.getVersion() == null ? 1L : horario.getVersion() + 1);
+    }
+}
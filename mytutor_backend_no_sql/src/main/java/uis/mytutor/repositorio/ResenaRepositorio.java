@@ -0,0 +1,15 @@
+package uis.mytutor.repositorio;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import uis.mytutor.modelo.Resena;
+
+import java.util.List;
+
+public interface ResenaRepositorio extends MongoRepository<Resena, String>, ResenaRepositorioParcial {
+
+    // Últimas reseñas del tutor (índice idTutor_fecha_id)
+    List<Resena> findByIdTutorOrderByFechaDescIdResenaDesc(String idTutor, Limit limite);
+
+    List<Resena> findByAutorId(String autorId);
+}
@@ -0,0 +1,9 @@
+package uis.mytutor.repositorio;
+
+import java.util.List;
+
+public interface ResenaRepositorioParcial {
+
+    // Cantidad de reseñas del tutor por puntuación: 6 posiciones, de 0 a 5
+    List<Long> histogramaPuntuaciones(String idTutor);
+}
@@ -0,0 +1,41 @@
+package uis.mytutor.repositorio;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import uis.mytutor.modelo.Resena;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Spring Data une esta implementación a ResenaRepositorio por el sufijo Impl
+class ResenaRepositorioParcialImpl implements ResenaRepositorioParcial {
+
+    private static final int PUNTUACION_MAXIMA = 5;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // $match + $group solo sobre idTutor y puntuacion: se resuelve con el índice idTutor_puntuacion
+    // sin leer los comentarios de las reseñas
+    @Override
+    public List<Long> histogramaPuntuaciones(String idTutor) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("idTutor").is(idTutor)),
+                Aggregation.group("puntuacion").count().as("total")
+        );
+
+        List<Long> histograma = new ArrayList<>(Collections.nCopies(PUNTUACION_MAXIMA + 1, 0L));
+        for (Document grupo : mongoTemplate.aggregate(aggregation, Resena.class, Document.class)) {
+            Object puntuacion = grupo.get("_id");
+            if (puntuacion instanceof Number numero
+                    && numero.intValue() >= 0 && numero.intValue() <= PUNTUACION_MAXIMA) {
+                histograma.set(numero.intValue(), ((Number) grupo.get("total")).longValue());
+            }
+        }
+        return histograma;
+    }
+}
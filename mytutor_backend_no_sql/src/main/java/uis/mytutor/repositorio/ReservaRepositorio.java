@@ -0,0 +1,16 @@
+package uis.mytutor.repositorio;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import uis.mytutor.modelo.Reserva;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReservaRepositorio extends MongoRepository<Reserva, String> {
+
+    List<Reserva> findByIdHorarioOrderByIdAsc(String idHorario);
+
+    List<Reserva> findByIdHorarioInOrderByIdAsc(Collection<String> idsHorarios);
+
+    long deleteByIdHorario(String idHorario);
+}
@@ -1,13 +1,20 @@
 package uis.mytutor.repositorio;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import uis.mytutor.modelo.Usuario;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface UsuarioRepositorio extends MongoRepository<Usuario, String> {
+public interface UsuarioRepositorio extends MongoRepository<Usuario, String>, UsuarioRepositorioParcial {
 
     Optional<Usuario> findByNombreUsuario(String nombreUsuario);
 
+    // Solo los campos del principal (sin tutor.resenas ni el resto del perfil)
+    @Query(value = "{ 'nombreUsuario': ?0 }",
+            fields = "{ 'nombreUsuario': 1, 'rol': 1, 'activo': 1, 'tutor.activo': 1 }")
+    Optional<Usuario> findPrincipalByNombreUsuario(String nombreUsuario);
+
     boolean existsByNombreUsuario(String nombreUsuario);
 }
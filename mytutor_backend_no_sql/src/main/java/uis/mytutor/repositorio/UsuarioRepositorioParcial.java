@@ -0,0 +1,24 @@
+package uis.mytutor.repositorio;
+
+import uis.mytutor.modelo.Tutor;
+import uis.mytutor.modelo.Usuario;
+
+// Actualizaciones parciales de usuario: solo se envían los campos que cambian ($set)
+// en lugar de reescribir el documento completo con save()
+// Cada escritura exige la versión leída (usuario.version) y la incrementa; si el documento cambió
+// entre la lectura y la escritura se lanza OptimisticLockingFailureException (ver ReintentoOptimistaServicio)
+public interface UsuarioRepositorioParcial {
+
+    void actualizarActivo(Usuario usuario, boolean activo);
+
+    // Nombre, apellido, contacto, foto, nombre de usuario y contraseña (si no es null)
+    void actualizarDatosPersonales(Usuario usuario, String passwordCodificada);
+
+    void actualizarPerfilTutor(Usuario usuario, Tutor tutor);
+
+    // Asigna el perfil de tutor completo y el rol TUTOR
+    void asignarTutor(Usuario usuario, Tutor tutor);
+
+    // tutor.activo = false y rol ESTUDIANTE
+    void desactivarTutor(Usuario usuario);
+}
@@ -0,0 +1,79 @@
+package uis.mytutor.repositorio;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import uis.mytutor.configuraciones.mongo.UsuarioBusquedaCallback;
+import uis.mytutor.modelo.Tutor;
+import uis.mytutor.modelo.Usuario;
+
+// Spring Data une esta implementación a UsuarioRepositorio por el sufijo Impl
+// Las claves de búsqueda se calculan aquí porque updateFirst no pasa por UsuarioBusquedaCallback
+class UsuarioRepositorioParcialImpl implements UsuarioRepositorioParcial {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void actualizarActivo(Usuario usuario, boolean activo) {
+        actualizar(usuario, new Update().set("activo", activo));
+    }
+
+    @Override
+    public void actualizarDatosPersonales(Usuario usuario, String passwordCodificada) {
+        Update update = new Update()
+                .set("nombre", usuario.getNombre())
+                .set("apellido", usuario.getApellido())
+                .set("correo", usuario.getCorreo())
+                .set("telefono", usuario.getTelefono())
+                .set("fotoPerfil", usuario.getFotoPerfil())
+                .set("nombreUsuario", usuario.getNombreUsuario())
+                .set("nombreBusqueda", UsuarioBusquedaCallback.clavesNombre(usuario.getNombre(), usuario.getApellido()));
+        if (passwordCodificada != null) {
+            update.set("password", passwordCodificada);
+        }
+        actualizar(usuario, update);
+    }
+
+    @Override
+    public void actualizarPerfilTutor(Usuario usuario, Tutor tutor) {
+        actualizar(usuario, new Update()
+                .set("tutor.bio", tutor.getBio())
+                .set("tutor.precioHora", tutor.getPrecioHora())
+                .set("tutor.experiencia", tutor.getExperiencia())
+                .set("tutor.materias", tutor.getMaterias())
+                .set("tutor.materiasBusqueda", UsuarioBusquedaCallback.clavesMaterias(tutor.getMaterias())));
+    }
+
+    @Override
+    public void asignarTutor(Usuario usuario, Tutor tutor) {
+        tutor.setMateriasBusqueda(UsuarioBusquedaCallback.clavesMaterias(tutor.getMaterias()));
+        actualizar(usuario, new Update()
+                .set("tutor", tutor)
+                .set("rol", Usuario.Rol.TUTOR));
+    }
+
+    @Override
+    public void desactivarTutor(Usuario usuario) {
+        actualizar(usuario, new Update()
+                .set("tutor.activo", false)
+                .set("rol", Usuario.Rol.ESTUDIANTE));
+    }
+
+    // Escribir solo si la versión sigue siendo la leída
+    private void actualizar(Usuario usuario, Update update) {
+        Query query = new Query(Criteria.where("_id").is(usuario.getId())
+                .and("version").is(usuario.getVersion()));
+
+        long modificados = mongoTemplate.updateFirst(query, update.inc("version", 1), Usuario.class)
+                .getMatchedCount();
+        if (modificados == 0) {
+            throw new OptimisticLockingFailureException(
+                    "El usuario " + usuario.getId() + " cambió desde la versión " + usuario.getVersion());
+        }
+        usuario.setVersion(usuario.getVersion() == null ? 1L : usuario.getVersion() + 1);
+    }
+}
@@ -0,0 +1,201 @@
+package uis.mytutor.servicio.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uis.mytutor.Excepciones.EventosExcepciones;
+import uis.mytutor.dto.EventoHorario;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Suscriptores SSE de los cambios de disponibilidad de horarios (de esta réplica)
+// Los eventos llegan desde HorarioChangeStreamServicio; cada réplica vigila el change stream
+// y reparte a sus propios clientes, así que no hace falta coordinar réplicas
+// publicar() no escribe en ninguna conexión: deja el evento en la cola de cada suscriptor y un hilo
+// virtual por suscriptor la vacía. Un cliente lento solo se retrasa a sí mismo; si su cola se llena
+// se le desconecta (EventSource se reconecta y vuelve a pedir el estado)
+@Service
+public class EventosHorarioServicio {
+
+    // Comentario SSE periódico para que proxies y navegadores no cierren la conexión inactiva
+    private static final long LATIDO_CADA = 25_000;
+
+    // Eventos pendientes por suscriptor antes de darlo por rezagado
+    private static final int COLA_POR_SUSCRIPTOR = 64;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> conexionesPorIp = new ConcurrentHashMap<>();
+
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Hilo propio: el latido no ocupa el scheduler de Spring (barridos de horarios y reservas)
+    private final ScheduledExecutorService latidos = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("latido-sse").factory());
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.horarios.eventos.max-suscriptores:10000}")
+    private int maxSuscriptores;
+
+    @Value("${app.horarios.eventos.max-por-ip:20}")
+    private int maxPorIp;
+
+    // Al vencer, el navegador (EventSource) se reconecta solo
+    @Value("${app.horarios.eventos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private static final class Suscriptor {
+        private final SseEmitter emitter;
+        private final String ip;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> cola =
+                new ArrayBlockingQueue<>(COLA_POR_SUSCRIPTOR);
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emitter, String ip) {
+            this.emitter = emitter;
+            this.ip = ip;
+        }
+    }
+
+
+    @PostConstruct
+    public void iniciarLatido() {
+        latidos.scheduleAtFixedRate(this::latido, LATIDO_CADA, LATIDO_CADA, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        latidos.shutdownNow();
+        envios.shutdownNow();
+    }
+
+    public SseEmitter suscribir(String ip) {
+        if (suscriptores.size() >= maxSuscriptores) {
+            throw new EventosExcepciones.LimiteSuscriptoresException(
+                    "Demasiadas conexiones de eventos abiertas, intenta más tarde.");
+        }
+        if (!ocuparIp(ip)) {
+            throw new EventosExcepciones.LimitePorIpException(
+                    "Demasiadas conexiones de eventos abiertas desde esta dirección.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter, ip);
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(e -> quitar(suscriptor));
+        suscriptores.add(suscriptor);
+        return emitter;
+    }
+
+    // El evento se serializa una sola vez y se encola tal cual para cada suscriptor
+    public void publicar(EventoHorario evento) {
+        if (suscriptores.isEmpty()) return;
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            System.out.println("Error serializando evento de horario: " + e.getMessage());
+            return;
+        }
+
+        difundir(SseEmitter.event()
+                .name(evento.getTipo().name())
+                .data(json, MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    public void latido() {
+        difundir(SseEmitter.event().comment("latido").build());
+    }
+
+    public int totalSuscriptores() {
+        return suscriptores.size();
+    }
+
+    private void difundir(Set<ResponseBodyEmitter.DataWithMediaType> datos) {
+        for (Suscriptor suscriptor : suscriptores) {
+            encolar(suscriptor, datos);
+        }
+    }
+
+    // Nunca bloquea: si la cola del suscriptor está llena se le desconecta
+    private void encolar(Suscriptor suscriptor, Set<ResponseBodyEmitter.DataWithMediaType> datos) {
+        if (!suscriptor.cola.offer(datos)) {
+            if (quitar(suscriptor)) {
+                // complete() espera a que termine el envío en curso: se hace fuera del hilo que publica
+                ejecutar(suscriptor.emitter::complete);
+            }
+            return;
+        }
+        if (suscriptor.enviando.compareAndSet(false, true)) {
+            ejecutar(() -> vaciar(suscriptor));
+        }
+    }
+
+    // Un solo hilo envía a cada suscriptor a la vez, en el orden de la cola
+    private void vaciar(Suscriptor suscriptor) {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> datos;
+            while ((datos = suscriptor.cola.poll()) != null) {
+                try {
+                    suscriptor.emitter.send(datos);
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado: se descarta sin afectar a los demás
+                    if (quitar(suscriptor)) {
+                        suscriptor.emitter.completeWithError(e);
+                    }
+                    return;
+                }
+            }
+            suscriptor.enviando.set(false);
+            // Un evento pudo llegar entre el último poll y el set(false)
+        } while (!suscriptor.cola.isEmpty() && suscriptor.enviando.compareAndSet(false, true));
+    }
+
+    private void ejecutar(Runnable tarea) {
+        try {
+            envios.execute(tarea);
+        } catch (RejectedExecutionException e) {
+            // La aplicación se está deteniendo
+        }
+    }
+
+    private boolean quitar(Suscriptor suscriptor) {
+        if (!suscriptores.remove(suscriptor)) return false;
+        suscriptor.cola.clear();
+        conexionesPorIp.computeIfPresent(suscriptor.ip, (ip, total) -> total > 1 ? total - 1 : null);
+        return true;
+    }
+
+    private boolean ocuparIp(String ip) {
+        AtomicBoolean admitida = new AtomicBoolean();
+        conexionesPorIp.compute(ip, (clave, total) -> {
+            int actuales = total == null ? 0 : total;
+            if (actuales >= maxPorIp) return total;
+            admitida.set(true);
+            return actuales + 1;
+        });
+        return admitida.get();
+    }
+}
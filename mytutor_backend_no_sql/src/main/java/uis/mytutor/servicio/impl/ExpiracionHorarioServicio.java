@@ -0,0 +1,146 @@
+package uis.mytutor.servicio.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uis.mytutor.modelo.Horario;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Marca cada horario no reservado como no disponible justo en su fechaInicio
+// Cola en memoria (DelayQueue) con los horarios que empiezan dentro del horizonte;
+// HorarioServicio la actualiza al crear, modificar o desactivar horarios
+// Cada réplica tiene su cola: la escritura es condicional, así que repetirla no hace daño
+@Service
+public class ExpiracionHorarioServicio {
+
+    private static final long RECARGAR_CADA = 3600000; // cada hora
+
+    // Se cargan los horarios que empiezan antes de dos recargas, así ninguno queda por fuera
+    private static final Duration HORIZONTE = Duration.ofMillis(2 * RECARGAR_CADA);
+
+    private record HorarioProgramado(String idHorario, LocalDateTime fechaInicio) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), fechaInicio));
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return fechaInicio.compareTo(((HorarioProgramado) otro).fechaInicio);
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HorarioDisponibleServicio horarioDisponibleServicio;
+
+    // Sin la carga inicial la cola se llena con la primera recarga programada
+    @Value("${app.mongo.inicializar:true}")
+    private boolean cargarAlArrancar;
+
+    private final DelayQueue<HorarioProgramado> cola = new DelayQueue<>();
+
+    // Última fechaInicio programada por horario (evita duplicados y permite reprogramar)
+    private final Map<String, LocalDateTime> programados = new ConcurrentHashMap<>();
+
+    private volatile Thread hilo;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (cargarAlArrancar) recargar();
+        hilo = Thread.ofPlatform().daemon().name("expiracion-horarios").start(this::procesar);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (hilo != null) hilo.interrupt();
+    }
+
+    // Programar (o reprogramar) un horario; solo entra a la cola si empieza dentro del horizonte
+    public void programar(Horario horario) {
+        if (!horario.isDisponible() || horario.getFechaInicio() == null) {
+            cancelar(horario.getId());
+            return;
+        }
+        if (horario.getFechaInicio().isAfter(LocalDateTime.now().plus(HORIZONTE))) {
+            cancelar(horario.getId());
+            return; // lo cargará una recarga posterior
+        }
+
+        LocalDateTime anterior = programados.put(horario.getId(), horario.getFechaInicio());
+        if (horario.getFechaInicio().equals(anterior)) return;
+
+        if (anterior != null) {
+            cola.removeIf(p -> p.idHorario().equals(horario.getId()));
+        }
+        cola.put(new HorarioProgramado(horario.getId(), horario.getFechaInicio()));
+    }
+
+    public void cancelar(String idHorario) {
+        if (programados.remove(idHorario) != null) {
+            cola.removeIf(p -> p.idHorario().equals(idHorario));
+        }
+    }
+
+    // Recarga de baja frecuencia: programa lo que entró al horizonte y lo que se perdió en un reinicio
+    // (el barrido de HorarioSchedulerServicio sigue corrigiendo cualquier horario pasado)
+    @Scheduled(initialDelay = RECARGAR_CADA, fixedRate = RECARGAR_CADA)
+    public void recargar() {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Query query = new Query(Criteria.where("disponible").is(true)
+                .and("fechaInicio").gt(ahora).lte(ahora.plus(HORIZONTE)));
+        query.fields().include("_id", "fechaInicio", "disponible");
+
+        mongoTemplate.find(query, Horario.class).forEach(this::programar);
+    }
+
+    private void procesar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                HorarioProgramado vencido = cola.take();
+
+                // Si el horario se reprogramó, esta entrada ya no es la vigente
+                if (!programados.remove(vencido.idHorario(), vencido.fechaInicio())) continue;
+
+                expirar(vencido);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.out.println("Error expirando horario: " + e.getMessage());
+            }
+        }
+    }
+
+    // Solo cambia el horario si sigue disponible y su fechaInicio ya llegó
+    private void expirar(HorarioProgramado vencido) {
+        Query query = new Query(Criteria.where("_id").is(vencido.idHorario())
+                .and("disponible").is(true)
+                .and("fechaInicio").lte(LocalDateTime.now()));
+
+        long modificados = mongoTemplate.updateFirst(query, new Update().set("disponible", false).inc("version", 1), Horario.class)
+                .getModifiedCount();
+        if (modificados > 0) {
+            horarioDisponibleServicio.eliminarHorario(vencido.idHorario());
+        }
+    }
+}
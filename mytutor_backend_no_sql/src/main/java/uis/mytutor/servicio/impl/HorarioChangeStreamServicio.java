@@ -0,0 +1,209 @@
+package uis.mytutor.servicio.impl;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import uis.mytutor.dto.EventoHorario;
+import uis.mytutor.modelo.Horario;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Vigila la colección horario con un change stream de Mongo y publica los cambios de disponibilidad
+// por SSE (EventosHorarioServicio). Así cualquier escritura cuenta, venga de esta réplica, de otra
+// o del scheduler, sin tocar los servicios que escriben
+// Los change streams requieren replica set (basta uno de un solo nodo, ver README)
+@Service
+public class HorarioChangeStreamServicio {
+
+    private static final long ESPERA_REINTENTO_MS = 5_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EventosHorarioServicio eventosHorarioServicio;
+
+    @Value("${app.horarios.eventos.change-stream:false}")
+    private boolean activo;
+
+    private volatile Thread hilo;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    // Último evento procesado: tras un error se reanuda desde aquí sin perder cambios
+    private BsonDocument tokenReanudacion;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!activo) return;
+        hilo = Thread.ofPlatform().daemon().name("change-stream-horarios").start(this::vigilar);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (hilo == null) return;
+        hilo.interrupt();
+        MongoChangeStreamCursor<?> actual = cursor;
+        if (actual != null) actual.close();
+    }
+
+    private void vigilar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> abierto = abrirCursor()) {
+                cursor = abierto;
+                while (!Thread.currentThread().isInterrupted()) {
+                    // tryNext espera como máximo maxAwaitTime: permite revisar la interrupción
+                    ChangeStreamDocument<Document> cambio = abierto.tryNext();
+                    if (cambio == null) continue;
+
+                    tokenReanudacion = cambio.getResumeToken();
+                    // Un documento que no se puede leer no debe detener el hilo: se salta ese evento
+                    try {
+                        EventoHorario evento = aEvento(cambio);
+                        if (evento != null) {
+                            eventosHorarioServicio.publicar(evento);
+                        }
+                    } catch (RuntimeException e) {
+                        System.out.println("Evento de horario descartado (" + cambio.getOperationType() + "): " + e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) return;
+                System.out.println("Change stream de horarios interrumpido, reintentando: " + e.getMessage());
+                // El token puede haber salido del oplog: en ese caso se sigue desde ahora
+                if (e instanceof MongoException me && me.getCode() == 286) {
+                    tokenReanudacion = null;
+                }
+                esperar();
+            }
+        }
+    }
+
+    // El cursor ya está abierto: desde aquí no se pierde ninguna escritura
+    boolean escuchando() {
+        return cursor != null;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrirCursor() {
+        var stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Horario.class))
+                .watch(filtroCambios())
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (tokenReanudacion != null) {
+            stream = stream.resumeAfter(tokenReanudacion);
+        }
+        return stream.cursor();
+    }
+
+    // Solo llegan al servidor los cambios que importan a los clientes: altas, bajas y cambios de
+    // disponible o de fechas. El resto (estado de la reserva, version, etc.) se filtra en Mongo
+    private List<Bson> filtroCambios() {
+        return List.of(Aggregates.match(Filters.or(
+                Filters.in("operationType", List.of("insert", "replace", "delete")),
+                Filters.exists("updateDescription.updatedFields.disponible"),
+                Filters.exists("updateDescription.updatedFields.fechaInicio"),
+                Filters.exists("updateDescription.updatedFields.fechaFin")
+        )));
+    }
+
+    private EventoHorario aEvento(ChangeStreamDocument<Document> cambio) {
+        BsonDocument clave = cambio.getDocumentKey();
+        String id = clave == null ? null : clave.getObjectId("_id").getValue().toHexString();
+
+        // En un update el documento completo puede faltar si se borró justo después
+        Document documento = cambio.getFullDocument();
+        Horario horario = documento == null ? null : mongoTemplate.getConverter().read(Horario.class, documento);
+
+        BsonDocument cambios = cambio.getUpdateDescription() == null
+                ? null
+                : cambio.getUpdateDescription().getUpdatedFields();
+        return aEvento(cambio.getOperationType(), id, cambios, horario, LocalDateTime.now());
+    }
+
+    // El tipo y la disponibilidad salen de lo que escribió la operación (updatedFields), no del documento
+    // completo: ese se lee después y puede reflejar escrituras posteriores (cancelar y volver a reservar
+    // darían dos RESERVADO). Del documento solo se toman el tutor y las fechas
+    static EventoHorario aEvento(OperationType operacion, String id, BsonDocument cambios,
+                                 Horario horario, LocalDateTime ahora) {
+        if (operacion == OperationType.DELETE) {
+            return id == null ? null : new EventoHorario(EventoHorario.Tipo.ELIMINADO, id, null, null, null, false);
+        }
+        if (horario == null) return null;
+
+        EventoHorario.Tipo tipo = switch (operacion) {
+            case INSERT -> EventoHorario.Tipo.CREADO;
+            case REPLACE -> EventoHorario.Tipo.MODIFICADO;
+            case UPDATE -> tipoDeActualizacion(cambios, horario.getFechaInicio(), ahora);
+            default -> null;
+        };
+        if (tipo == null) return null;
+
+        boolean disponible = operacion == OperationType.UPDATE && cambios.isBoolean("disponible")
+                ? cambios.getBoolean("disponible").getValue()
+                : horario.isDisponible();
+
+        return new EventoHorario(
+                tipo,
+                id != null ? id : horario.getId(),
+                horario.getIdTutor(),
+                horario.getFechaInicio(),
+                horario.getFechaFin(),
+                disponible
+        );
+    }
+
+    // Quién escribe qué:
+    //   reservar:              disponible=false + reservaActual nueva (cambia idReserva)
+    //   cancelar reserva:      disponible=true + reservaActual.estado
+    //   tutor cancela reserva: disponible=false + reservaActual.estado (ya no estaba disponible: sin evento)
+    //   expirar:               disponible=false (fechaInicio ya pasó)
+    //   desactivar horario:    disponible=false
+    //   modificar:             fechaInicio / fechaFin
+    static EventoHorario.Tipo tipoDeActualizacion(BsonDocument cambios, LocalDateTime fechaInicio,
+                                                  LocalDateTime ahora) {
+        if (cambios == null) return null;
+
+        if (cambios.isBoolean("disponible")) {
+            if (cambios.getBoolean("disponible").getValue()) return EventoHorario.Tipo.CANCELADO;
+
+            if (cambios.containsKey("reservaActual") || cambios.containsKey("reservaActual.idReserva")) {
+                return EventoHorario.Tipo.RESERVADO;
+            }
+            // Cambio de estado de una reserva existente: el horario ya estaba ocupado
+            boolean cambioDeEstado = cambios.keySet().stream().anyMatch(campo -> campo.startsWith("reservaActual."));
+            if (cambioDeEstado) return null;
+
+            return fechaInicio != null && !fechaInicio.isAfter(ahora)
+                    ? EventoHorario.Tipo.EXPIRADO
+                    : EventoHorario.Tipo.ELIMINADO;
+        }
+        if (cambios.containsKey("fechaInicio") || cambios.containsKey("fechaFin")) {
+            return EventoHorario.Tipo.MODIFICADO;
+        }
+        return null;
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(ESPERA_REINTENTO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package uis.mytutor.servicio.impl;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import uis.mytutor.dto.FiltroHorario;
+import uis.mytutor.dto.HorarioDisponibleDTO;
+import uis.mytutor.dto.OrdenHorario;
+import uis.mytutor.dto.Pagina;
+import uis.mytutor.modelo.HorarioDisponible;
+import uis.mytutor.utilidades.PaginacionUtil;
+import uis.mytutor.utilidades.TextoUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Motor de consultas de horarios disponibles
+// Lee solo del modelo de lectura horario_disponible (ver HorarioDisponibleServicio)
+// Paginación por cursor (keyset) sobre (clave de orden, _id)
+@Service
+public class HorarioConsultaServicio {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public Pagina<HorarioDisponibleDTO> buscarHorariosDisponibles(
+            FiltroHorario filtro,
+            OrdenHorario orden,
+            String cursor,
+            Integer tamano
+    ) {
+        if (filtro == null) filtro = new FiltroHorario();
+        if (orden == null) orden = OrdenHorario.PROXIMOS;
+        int limite = PaginacionUtil.tamanoValido(tamano);
+
+        Query query = new Query(criteriaFiltros(filtro));
+        if (cursor != null && !cursor.isEmpty()) {
+            query.addCriteria(criteriaCursor(orden, cursor));
+        }
+        // Se pide un elemento de más para saber si hay otra página
+        query.with(ordenar(orden)).limit(limite + 1);
+
+        List<HorarioDisponibleDTO> resultados = mongoTemplate.query(HorarioDisponible.class)
+                .as(HorarioDisponibleDTO.class)
+                .matching(query)
+                .all();
+
+        String siguienteCursor = null;
+        if (resultados.size() > limite) {
+            resultados = new ArrayList<>(resultados.subList(0, limite));
+            siguienteCursor = codificarCursor(orden, resultados.get(limite - 1));
+        }
+        return new Pagina<>(resultados, siguienteCursor);
+    }
+
+
+    private Criteria criteriaFiltros(FiltroHorario filtro) {
+
+        /* ---------------- FILTRO POR FECHAS (solo horarios futuros) ---------------- */
+        LocalDateTime desde = LocalDateTime.now();
+        if (filtro.getFechaInicio() != null && filtro.getFechaInicio().isAfter(desde)) {
+            desde = filtro.getFechaInicio();
+        }
+        Criteria criteria = Criteria.where("fechaInicio").gte(desde);
+        if (filtro.getFechaFin() != null) {
+            criteria.and("fechaFin").lte(filtro.getFechaFin());
+        }
+
+        /* ---------------- FILTRO POR MATERIA (sin tildes, prefijo de palabra) ---------------- */
+        if (filtro.getMateria() != null && !filtro.getMateria().isEmpty()) {
+            criteria.and("materiasBusqueda").regex(TextoUtil.patronPrefijo(filtro.getMateria()));
+        }
+
+        /* ---------------- FILTRO POR PRECIO ---------------- */
+        if (filtro.getPrecioMin() != null || filtro.getPrecioMax() != null) {
+            Criteria precio = criteria.and("precioHora");
+            if (filtro.getPrecioMin() != null) precio.gte(filtro.getPrecioMin());
+            if (filtro.getPrecioMax() != null) precio.lte(filtro.getPrecioMax());
+        }
+
+        /* ---------------- FILTRO POR CALIFICACIÓN ---------------- */
+        if (filtro.getCalificacionMin() != null || filtro.getCalificacionMax() != null) {
+            Criteria calificacion = criteria.and("califiacionPromedio");
+            if (filtro.getCalificacionMin() != null) calificacion.gte(filtro.getCalificacionMin());
+            if (filtro.getCalificacionMax() != null) calificacion.lte(filtro.getCalificacionMax());
+        }
+
+        /* ---------------- FILTRO POR TUTOR (índice idTutor) ---------------- */
+        if (filtro.getIdTutor() != null && !filtro.getIdTutor().isEmpty()) {
+            criteria.and("idTutor").is(filtro.getIdTutor());
+        }
+
+        /* ---------------- FILTRO POR NOMBRE DEL TUTOR (sin tildes, prefijo de palabra) ---------------- */
+        if (filtro.getNombreTutor() != null && !filtro.getNombreTutor().isEmpty()) {
+            criteria.and("tutorBusqueda").regex(TextoUtil.patronPrefijo(filtro.getNombreTutor()));
+        }
+
+        return criteria;
+    }
+
+    private String campoOrden(OrdenHorario orden) {
+        return switch (orden) {
+            case PROXIMOS -> "fechaInicio";
+            case ECONOMICOS -> "precioHora";
+            case MEJOR_CALIFICADOS -> "califiacionPromedio";
+        };
+    }
+
+    // Cada orden tiene su índice compuesto (clave, _id) en horario_disponible
+    private Sort ordenar(OrdenHorario orden) {
+        Sort.Direction direccion = orden == OrdenHorario.MEJOR_CALIFICADOS
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        return Sort.by(direccion, campoOrden(orden)).and(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    // Cursor = orden | valor de la clave de orden | _id de la última fila entregada
+    // Un valor nulo (tutor sin calificación) se codifica como cadena vacía
+    private String codificarCursor(OrdenHorario orden, HorarioDisponibleDTO ultimo) {
+        Object valor = switch (orden) {
+            case PROXIMOS -> ultimo.getFechaInicio();
+            case ECONOMICOS -> ultimo.getPrecioHora();
+            case MEJOR_CALIFICADOS -> ultimo.getCalifiacionPromedio();
+        };
+        return PaginacionUtil.codificarCursor(orden.name(), valor == null ? "" : valor.toString(), ultimo.getId());
+    }
+
+    // (clave > valor) OR (clave == valor AND _id > ultimoId), invertido si el orden es descendente
+    // En Mongo null (o campo ausente) ordena antes que cualquier valor: va al principio en orden
+    // ascendente y al final en descendente, y $gt/$lt nunca lo incluyen, así que se trata aparte
+    private Criteria criteriaCursor(OrdenHorario orden, String cursor) {
+        String[] partes = PaginacionUtil.decodificarCursor(cursor, 3);
+        if (!orden.name().equals(partes[0]) || !ObjectId.isValid(partes[2])) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
+
+        Object valor;
+        try {
+            if (partes[1].isEmpty()) {
+                valor = null;
+            } else {
+                valor = orden == OrdenHorario.PROXIMOS
+                        ? LocalDateTime.parse(partes[1])
+                        : Double.valueOf(partes[1]);
+            }
+        } catch (RuntimeException e) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
+        ObjectId ultimoId = new ObjectId(partes[2]);
+        String campo = campoOrden(orden);
+        boolean descendente = orden == OrdenHorario.MEJOR_CALIFICADOS;
+
+        Criteria mismoValor = new Criteria().andOperator(
+                Criteria.where(campo).is(valor),
+                Criteria.where("_id").gt(ultimoId)
+        );
+
+        if (valor == null) {
+            // Descendente: solo quedan los demás nulos. Ascendente: los nulos restantes y todos los valores
+            return descendente
+                    ? mismoValor
+                    : new Criteria().orOperator(Criteria.where(campo).ne(null), mismoValor);
+        }
+
+        if (descendente) {
+            return new Criteria().orOperator(
+                    Criteria.where(campo).lt(valor),
+                    mismoValor,
+                    Criteria.where(campo).is(null)
+            );
+        }
+        return new Criteria().orOperator(Criteria.where(campo).gt(valor), mismoValor);
+    }
+}
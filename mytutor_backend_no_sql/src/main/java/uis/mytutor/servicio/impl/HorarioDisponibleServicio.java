@@ -0,0 +1,194 @@
+package uis.mytutor.servicio.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import uis.mytutor.configuraciones.cache.TutorCache;
+import uis.mytutor.dto.TutorDTO;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.HorarioDisponible;
+import uis.mytutor.modelo.Materia;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioDisponibleRepositorio;
+import uis.mytutor.utilidades.TextoUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Mantiene la colección horario_disponible (modelo de lectura de la búsqueda de horarios)
+// Un documento por horario reservable: disponible, futuro y de un usuario que sea tutor
+@Service
+public class HorarioDisponibleServicio {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HorarioDisponibleRepositorio horarioDisponibleRepositorio;
+
+    @Autowired
+    private TutorCache tutorCache;
+
+    @Value("${app.mongo.inicializar:true}")
+    private boolean inicializarAlArrancar;
+
+
+    // Crear o actualizar el documento de un horario (o quitarlo si ya no se puede reservar)
+    public void sincronizarHorario(Horario horario) {
+        if (!esReservable(horario)) {
+            eliminarHorario(horario.getId());
+            return;
+        }
+        sincronizarHorario(horario, tutorCache.obtener(horario.getIdTutor()));
+    }
+
+    // tutor es null si el usuario no es un tutor válido
+    private void sincronizarHorario(Horario horario, TutorDTO tutor) {
+        if (!esReservable(horario) || tutor == null) {
+            eliminarHorario(horario.getId());
+            return;
+        }
+        horarioDisponibleRepositorio.save(construir(horario, tutor));
+    }
+
+    // Publicar de una vez varios horarios nuevos del mismo tutor (creación recurrente)
+    public void sincronizarHorariosNuevos(String idTutor, List<Horario> horarios) {
+        TutorDTO tutor = tutorCache.obtener(idTutor);
+        if (tutor == null) return;
+
+        List<HorarioDisponible> documentos = horarios.stream()
+                .filter(this::esReservable)
+                .map(horario -> construir(horario, tutor))
+                .toList();
+
+        if (!documentos.isEmpty()) {
+            horarioDisponibleRepositorio.insert(documentos);
+        }
+    }
+
+    // Quitar un horario que ya no se puede reservar (reservado, desactivado, expirado)
+    public void eliminarHorario(String idHorario) {
+        horarioDisponibleRepositorio.deleteById(idHorario);
+    }
+
+    // Rehacer los documentos de un tutor después de cambiar su perfil, su rol o su nombre
+    public void sincronizarTutor(Usuario tutorUsuario) {
+        horarioDisponibleRepositorio.deleteByIdTutor(tutorUsuario.getId());
+
+        TutorDTO tutor = TutorServicio.mapToTutorDTO(tutorUsuario);
+        if (tutor == null) return;
+
+        Query query = new Query(Criteria.where("idTutor").is(tutorUsuario.getId())
+                .and("disponible").is(true)
+                .and("fechaInicio").gt(LocalDateTime.now()));
+
+        List<HorarioDisponible> documentos = mongoTemplate.find(query, Horario.class)
+                .stream()
+                .map(horario -> construir(horario, tutor))
+                .toList();
+
+        if (!documentos.isEmpty()) {
+            horarioDisponibleRepositorio.insert(documentos);
+        }
+    }
+
+    // Actualizar la calificación copiada en todos los horarios del tutor
+    public void actualizarCalificacion(String idTutor, Double califiacionPromedio) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("idTutor").is(idTutor)),
+                new Update().set("califiacionPromedio", califiacionPromedio),
+                HorarioDisponible.class
+        );
+    }
+
+    // Quitar los horarios cuya fecha de inicio ya pasó
+    public long eliminarExpirados() {
+        return horarioDisponibleRepositorio.deleteByFechaInicioBefore(LocalDateTime.now());
+    }
+
+
+    // Reconstruir toda la colección desde horario + usuario (uso admin)
+    // La agregación se ejecuta en Mongo y $out reemplaza la colección conservando sus índices
+    public long reindexar() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("disponible").is(true)
+                        .and("fechaInicio").gt(LocalDateTime.now())),
+
+                // idTutor se guarda como String, el _id del usuario es ObjectId
+                Aggregation.addFields()
+                        .addField("idTutorObjeto")
+                        .withValueOf(ConvertOperators.valueOf("idTutor").convertToObjectId())
+                        .build(),
+                Aggregation.lookup("usuario", "idTutorObjeto", "_id", "tutorUsuario"),
+                Aggregation.unwind("tutorUsuario"),
+                Aggregation.match(Criteria.where("tutorUsuario.rol").is(Usuario.Rol.TUTOR.name())
+                        .and("tutorUsuario.tutor").ne(null)),
+
+                Aggregation.project("idTutor", "fechaInicio", "fechaFin")
+                        .and(StringOperators.Concat.valueOf("tutorUsuario.nombre")
+                                .concat(" ")
+                                .concatValueOf("tutorUsuario.apellido")).as("tutorNombreApellido")
+                        .and("tutorUsuario.tutor.precioHora").as("precioHora")
+                        .and("tutorUsuario.tutor.califiacionPromedio").as("califiacionPromedio")
+                        .and("tutorUsuario.tutor.materias").as("materias")
+                        .and("tutorUsuario.nombreBusqueda").as("tutorBusqueda")
+                        .and("tutorUsuario.tutor.materiasBusqueda").as("materiasBusqueda"),
+
+                Aggregation.out("horario_disponible")
+        );
+
+        mongoTemplate.aggregate(aggregation, "horario", HorarioDisponible.class);
+        return horarioDisponibleRepositorio.count();
+    }
+
+    // En el primer arranque el modelo de lectura está vacío: construirlo desde los datos actuales
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (!inicializarAlArrancar) return;
+        if (horarioDisponibleRepositorio.count() == 0 && mongoTemplate.count(new Query(), Horario.class) > 0) {
+            long total = reindexar();
+            System.out.println("Modelo de lectura horario_disponible construido con " + total + " horarios");
+        }
+    }
+
+
+    private boolean esReservable(Horario horario) {
+        return horario.isDisponible()
+                && horario.getFechaInicio() != null
+                && horario.getFechaInicio().isAfter(LocalDateTime.now());
+    }
+
+    private HorarioDisponible construir(Horario horario, TutorDTO tutor) {
+        HorarioDisponible documento = new HorarioDisponible();
+        documento.setId(horario.getId());
+        documento.setIdTutor(horario.getIdTutor());
+        documento.setFechaInicio(horario.getFechaInicio());
+        documento.setFechaFin(horario.getFechaFin());
+
+        // Datos del tutor
+        documento.setTutorNombreApellido(tutor.getNombre() + " " + tutor.getApellido());
+        documento.setPrecioHora(tutor.getPrecioHora());
+        documento.setCalifiacionPromedio(tutor.getCalifiacionPromedio());
+        documento.setMaterias(tutor.getMaterias());
+
+        // Claves de búsqueda normalizadas
+        documento.setTutorBusqueda(TextoUtil.clavesBusqueda(
+                List.of(documento.getTutorNombreApellido())
+        ));
+        documento.setMateriasBusqueda(TextoUtil.clavesBusqueda(
+                tutor.getMaterias() == null
+                        ? List.of()
+                        : tutor.getMaterias().stream().map(Materia::getNombre).toList()
+        ));
+        return documento;
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.stereotype.Service;
 import uis.mytutor.modelo.Horario;
 import uis.mytutor.modelo.Reserva;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -19,22 +21,47 @@ public class HorarioSchedulerServicio {
     @Autowired
     private MongoTemplate mongoTemplate;
 
-    private final int actualizarCada = 600000; // cada 10 minutos (600000 ms)
+    @Autowired
+    private HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    private LeaseSchedulerServicio leaseSchedulerServicio;
+
+    private final int actualizarCada = 3600000; // cada hora (la expiración exacta la hace ExpiracionHorarioServicio)
+    private final int revisarReservasCada = 3600000; // cada hora
+
+    // Con varias réplicas, cada barrido lo ejecuta solo la que tenga el lease
+    // El lease dura un poco menos que el periodo para que vuelva a estar libre en el siguiente ciclo
+    // El lease solo evita que dos réplicas empiecen el mismo barrido; no protege sus escrituras: una réplica
+    // pausada puede seguir escribiendo después de que venza y otra lo tome (las escrituras van a otras
+    // colecciones y sin transacciones no pueden comprobar el lease). Por eso cada escritura es idempotente
+    // y condicionada al estado de origen (disponible=true, estado=PENDIENTE): si la repiten dos réplicas,
+    // la segunda no cambia nada
+    private static final Duration MARGEN_LEASE = Duration.ofSeconds(30);
 
     // Servicio que revisa cada hora si un horario de tutoría ya paso
     // si este no fue resevado por nadie y está diponible
     // lo marca como no disponible para evitar errores
+    // Es solo una reconciliación: ExpiracionHorarioServicio ya los marca justo en su fechaInicio
     @Scheduled(fixedRate = actualizarCada)
     public void actualizarHorariosExpirados() {
+        leaseSchedulerServicio.ejecutarConLease(
+                "actualizarHorariosExpirados",
+                Duration.ofMillis(actualizarCada).minus(MARGEN_LEASE),
+                this::marcarHorariosExpirados
+        );
+    }
 
+    private void marcarHorariosExpirados() {
         Query query = new Query(
                 Criteria.where("disponible").is(true)
                         .and("fechaInicio").lt(LocalDateTime.now())
         );
 
-        Update update = new Update().set("disponible", false);
+        Update update = new Update().set("disponible", false).inc("version", 1);
 
         mongoTemplate.updateMulti(query, update, Horario.class);
+        horarioDisponibleServicio.eliminarExpirados();
         System.out.println("Se actualizaron horarios no reservados");
     }
 
@@ -42,40 +69,57 @@ public class HorarioSchedulerServicio {
     // Servicio que verifica cada hora las resevas hechas
     // si una reserva ya pasó y está marcada como pendiente
     // se asigna ESPERANDO_ACCION_TUTOR para que el tutor sepa que necesita marcar ASISTIO NO_ASISTIO
-    @Scheduled(fixedRate = 3600000)
+    // Los horarios se buscan con el índice parcial fechaFin_reservaActualPendiente
+    @Scheduled(fixedRate = revisarReservasCada)
     public void actualizarReservasPendientes() {
-
-        LocalDateTime ahora = LocalDateTime.now();
-
-        // Criterios unidos correctamente
-        Criteria criteria = new Criteria().andOperator(
-                Criteria.where("fechaFin").lt(ahora),
-                Criteria.where("historialReservas").ne(null),
-                Criteria.where("historialReservas.0").exists(true) // lista NO vacía
+        leaseSchedulerServicio.ejecutarConLease(
+                "actualizarReservasPendientes",
+                Duration.ofMillis(revisarReservasCada).minus(MARGEN_LEASE),
+                this::marcarReservasPendientes
         );
+    }
 
-        Query query = new Query(criteria);
-
-        List<Horario> horarios = mongoTemplate.find(query, Horario.class);
-
-        for (Horario horario : horarios) {
-
-            boolean actualizado = false;
+    // El estado actual se cambia en los horarios con un solo updateMulti y después se agrega al registro
+    // una entrada por cada reserva que cambió. Las que cambió este barrido se reconocen por la fecha del
+    // cambio: si dos barridos se cruzan, cada uno agrega solo las entradas de sus propios cambios
+    private void marcarReservasPendientes() {
 
-            if (horario.getHistorialReservas() != null) {
-                for (Reserva r : horario.getHistorialReservas()) {
-                    if (r.getEstado() == Reserva.EstadoReserva.PENDIENTE) {
-                        r.setEstado(Reserva.EstadoReserva.ESPERANDO_ACCION_TUTOR);
-                        actualizado = true;
-                    }
-                }
-            }
+        Reserva.EstadoReserva esperando = Reserva.EstadoReserva.ESPERANDO_ACCION_TUTOR;
+        // Mongo guarda milisegundos: la fecha debe compararse igual después de guardarla
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
 
-            // 3. Si se actualizó al menos una reserva → guardar horario
-            if (actualizado) {
-                mongoTemplate.save(horario);
-                System.out.println("Se actualizaron reservas pendientes pasadas a ESPERANDO_ACCION_TUTOR");
-            }
-        }
+        Query query = new Query(
+                Criteria.where("fechaFin").lt(ahora)
+                        .and("reservaActual.estado").is(Reserva.EstadoReserva.PENDIENTE.name())
+        );
+        query.fields().include("reservaActual.idReserva");
+
+        List<String> idsReservas = mongoTemplate.find(query, Horario.class).stream()
+                .map(h -> h.getReservaActual().getIdReserva())
+                .toList();
+        if (idsReservas.isEmpty()) return;
+
+        long actualizados = mongoTemplate.updateMulti(
+                new Query(Criteria.where("reservaActual.idReserva").in(idsReservas)
+                        .and("reservaActual.estado").is(Reserva.EstadoReserva.PENDIENTE.name())),
+                new Update()
+                        .set("reservaActual.estado", esperando.name())
+                        .set("reservaActual.fecha", ahora)
+                        .inc("version", 1),
+                Horario.class
+        ).getModifiedCount();
+        if (actualizados == 0) return;
+
+        Query cambiados = new Query(Criteria.where("reservaActual.idReserva").in(idsReservas)
+                .and("reservaActual.estado").is(esperando.name())
+                .and("reservaActual.fecha").is(ahora));
+        cambiados.fields().include("fechaInicio", "reservaActual");
+
+        List<Reserva> entradas = mongoTemplate.find(cambiados, Horario.class).stream()
+                .map(h -> ReservaServicio.entradaDeEstado(h, esperando, ahora))
+                .toList();
+        mongoTemplate.insertAll(entradas);
+
+        System.out.println("Se actualizaron reservas pendientes pasadas a ESPERANDO_ACCION_TUTOR en " + actualizados + " horarios");
     }
 }
@@ -2,164 +2,92 @@ package uis.mytutor.servicio.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import uis.mytutor.dto.FiltroHorario;
+import uis.mytutor.dto.OrdenHorario;
+import uis.mytutor.dto.Pagina;
+import uis.mytutor.dto.ResultadoHorarioRecurrente;
 import uis.mytutor.dto.SolicitudHorario;
+import uis.mytutor.dto.SolicitudHorarioRecurrente;
 import uis.mytutor.modelo.Horario;
 import uis.mytutor.modelo.Usuario;
 import uis.mytutor.repositorio.HorarioRepositorio;
 import uis.mytutor.dto.HorarioDisponibleDTO;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.repositorio.UsuarioRepositorio;
+import uis.mytutor.utilidades.ArbolIntervalos;
 
-import java.text.Normalizer;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class HorarioServicio {
 
+    // Un año como máximo por regla de recurrencia
+    private static final int MAX_DIAS_RECURRENCIA = 366;
+
     @Autowired
     HorarioRepositorio horarioRepositorio;
 
     @Autowired
     UsuarioRepositorio usuarioRepositorio;
 
-    // Mapear el Horario al DTO para entregar al front
-    public HorarioDisponibleDTO mapToHorarioDisponibleDTO(Horario horario) {
-
-        // Buscar el usuario/tutor
-        Usuario tutorUsuario = usuarioRepositorio.findById(horario.getIdTutor())
-                .orElseThrow(() -> new RuntimeException("Tutor no encontrado"));
-
-        // Validar que sea tutor y que tenga objeto Tutor
-        if (tutorUsuario.getRol() != Usuario.Rol.TUTOR || tutorUsuario.getTutor() == null) {
-            return null;
-        }
-
-        // Validar que el horario esté disponible
-        if (!horario.isDisponible()) return null; // skip
+    @Autowired
+    HorarioConsultaServicio horarioConsultaServicio;
 
-        // Crear DTO
-        HorarioDisponibleDTO dto = new HorarioDisponibleDTO();
-        dto.setId(horario.getId());
-        dto.setIdTutor(horario.getIdTutor());
-        dto.setFechaInicio(horario.getFechaInicio());
-        dto.setFechaFin(horario.getFechaFin());
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
 
-        // Datos del tutor
-        dto.setTutorNombreApellido(
-                tutorUsuario.getNombre() + " " + tutorUsuario.getApellido()
-        );
-        dto.setPrecioHora(tutorUsuario.getTutor().getPrecioHora());
-        dto.setCalifiacionPromedio(tutorUsuario.getTutor().getCalifiacionPromedio());
-        dto.setMaterias(tutorUsuario.getTutor().getMaterias());
+    @Autowired
+    ExpiracionHorarioServicio expiracionHorarioServicio;
 
-        return dto;
-    }
+    @Autowired
+    ReservaServicio reservaServicio;
 
+    @Autowired
+    ReintentoOptimistaServicio reintentoOptimistaServicio;
 
     // Obtener todos los horarios
     public List<Horario> obtenerTodosLosHorarios(){
         List<Horario> horarios = new ArrayList<>();
         horarios = horarioRepositorio.findAll();
+        reservaServicio.llenarHistorial(horarios);
         return horarios;
     }
 
-    // Obtener todos los horarios disponibles
-    public List<HorarioDisponibleDTO> obtenerTodosLosHorariosDisponibles(){
-        return horarioRepositorio.findAll()
-                .stream()
-                .map(this::mapToHorarioDisponibleDTO)
-                .collect(Collectors.toList());
+    // Obtener una página de los horarios disponibles
+    public Pagina<HorarioDisponibleDTO> obtenerTodosLosHorariosDisponibles(OrdenHorario orden, String cursor, Integer tamano){
+        return horarioConsultaServicio.buscarHorariosDisponibles(new FiltroHorario(), orden, cursor, tamano);
     }
 
 
-    // Busqueda de texto sin tildes
-    private String normalizar(String texto) {
-        if (texto == null) return null;
-
-        return Normalizer
-                .normalize(texto, Normalizer.Form.NFD) // separa caracteres base + tildes
-                .replaceAll("\\p{M}", "")               // elimina tildes
-                .toLowerCase()                          // pasa a minúsculas
-                .trim();
-    }
-    // Obtener horarios según filtros
-    public List<HorarioDisponibleDTO> obtenerHorariosFiltrados(
-            String materia,
-            Double precioMin,
-            Double precioMax,
-            Double calificacionMin,
-            Double calificacionMax,
-            String nombreTutor,
-            LocalDateTime fechaInicioFiltro,
-            LocalDateTime fechaFinFiltro
-    ) {
-
-        List<HorarioDisponibleDTO> horarios = obtenerTodosLosHorariosDisponibles();
-
-        return horarios.stream()
-
-                /* ---------------- FILTRO POR MATERIA (sin tildes) ---------------- */
-                .filter(dto -> materia == null || materia.isEmpty() ||
-                        (dto.getMaterias() != null &&
-                                dto.getMaterias().stream().anyMatch(m ->
-                                        m.getNombre() != null &&
-                                                normalizar(m.getNombre()).contains(normalizar(materia))
-                                )
-                        )
-                )
-
-                /* ---------------- FILTRO POR PRECIO ---------------- */
-                .filter(dto -> precioMin == null || dto.getPrecioHora() >= precioMin)
-                .filter(dto -> precioMax == null || dto.getPrecioHora() <= precioMax)
-
-                /* ---------------- FILTRO POR CALIFICACIÓN ---------------- */
-                .filter(dto -> calificacionMin == null || dto.getCalifiacionPromedio() >= calificacionMin)
-                .filter(dto -> calificacionMax == null || dto.getCalifiacionPromedio() <= calificacionMax)
-
-                /* ---------------- FILTRO POR NOMBRE DEL TUTOR (sin tildes, partial match) ---------------- */
-                .filter(dto -> {
-                    if (nombreTutor == null || nombreTutor.isEmpty()) return true;
-
-                    String buscar = normalizar(nombreTutor);
-                    String nombreCompleto = normalizar(dto.getTutorNombreApellido());
-
-                    return nombreCompleto.contains(buscar);
-                })
-
-                /* ---------------- FILTRO POR FECHAS ---------------- */
-                .filter(dto -> {
-                    if (fechaInicioFiltro == null && fechaFinFiltro == null) return true;
-
-                    LocalDateTime inicio = dto.getFechaInicio();
-                    LocalDateTime fin = dto.getFechaFin();
-
-                    boolean cumpleInicio = (fechaInicioFiltro == null || !inicio.isBefore(fechaInicioFiltro));
-                    boolean cumpleFin = (fechaFinFiltro == null || !fin.isAfter(fechaFinFiltro));
-
-                    return cumpleInicio && cumpleFin;
-                })
-
-                .collect(Collectors.toList());
+    // Obtener una página de horarios según filtros
+    // Los filtros se resuelven en Mongo (ver HorarioConsultaServicio)
+    public Pagina<HorarioDisponibleDTO> obtenerHorariosFiltrados(FiltroHorario filtro, OrdenHorario orden,
+                                                               String cursor, Integer tamano) {
+        return horarioConsultaServicio.buscarHorariosDisponibles(filtro, orden, cursor, tamano);
     }
 
 
     // Obtener mis horarios como tutor
-    public List<Horario> obtenerHorariosTutor(Usuario usuarioActual) {
+    public List<Horario> obtenerHorariosTutor(UsuarioPrincipal usuarioActual) {
         // Validar que el usuario sea TUTOR
-        if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
+        if (!usuarioActual.esTutor()) {
             throw new RuntimeException("Solo un tutor puede obtener sus horarios.");
         }
-        return horarioRepositorio.findByIdTutor(usuarioActual.getId());
+        List<Horario> horarios = horarioRepositorio.findByIdTutor(usuarioActual.getId());
+        reservaServicio.llenarHistorial(horarios);
+        return horarios;
     }
 
 
     // Que el tutor cree un horario de tutoría
-    public Horario crearHorarioTutoria(Usuario usuarioActual, SolicitudHorario nuevoHorario) {
+    public Horario crearHorarioTutoria(UsuarioPrincipal usuarioActual, SolicitudHorario nuevoHorario) {
 
         // Validar que el usuario sea TUTOR
-        if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
+        if (!usuarioActual.esTutor()) {
             throw new RuntimeException("Solo un tutor puede crear horarios.");
         }
 
@@ -194,76 +122,174 @@ public class HorarioServicio {
         horario.setFechaFin(nuevoHorario.getFechaFin());
         horario.setDisponible(true);
 
-        return horarioRepositorio.save(horario);
+        Horario guardado = horarioRepositorio.save(horario);
+        horarioDisponibleServicio.sincronizarHorario(guardado);
+        expiracionHorarioServicio.programar(guardado);
+        return guardado;
     }
 
 
-    // Que el tutor modifique el horario de una tutoría por id del horario
-    public Horario modificarHorarioTutoria(Usuario usuarioActual, String idHorario, SolicitudHorario datosActualizados) {
+    // Que el tutor cree muchos horarios con una regla de recurrencia (ej. lunes y miércoles de 8 a 10 todo el semestre)
+    // Una sola consulta trae los horarios existentes del rango; los cruces se revisan en memoria
+    // con un árbol de intervalos y los horarios aceptados se guardan con un único insertMany
+    public ResultadoHorarioRecurrente crearHorariosRecurrentes(UsuarioPrincipal usuarioActual,
+                                                              SolicitudHorarioRecurrente solicitud) {
 
-        // Validar rol del usuario
-        if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
-            throw new RuntimeException("Solo un tutor puede modificar horarios.");
+        // Validar que el usuario sea TUTOR
+        if (!usuarioActual.esTutor()) {
+            throw new RuntimeException("Solo un tutor puede crear horarios.");
         }
 
-        // Buscar el horario
-        Horario horario = horarioRepositorio.findById(idHorario)
-                .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
+        // Validar la regla
+        if (solicitud.getDias() == null || solicitud.getDias().isEmpty()
+                || solicitud.getHoraInicio() == null || solicitud.getHoraFin() == null
+                || solicitud.getFechaDesde() == null || solicitud.getFechaHasta() == null) {
+            throw new RuntimeException("La regla de recurrencia está incompleta.");
+        }
+        if (!solicitud.getHoraFin().isAfter(solicitud.getHoraInicio())) {
+            throw new RuntimeException("Las horas del horario no son válidas.");
+        }
+        if (solicitud.getFechaHasta().isBefore(solicitud.getFechaDesde())) {
+            throw new RuntimeException("El rango de fechas no es válido.");
+        }
+        if (ChronoUnit.DAYS.between(solicitud.getFechaDesde(), solicitud.getFechaHasta()) > MAX_DIAS_RECURRENCIA) {
+            throw new RuntimeException("El rango de fechas no puede superar " + MAX_DIAS_RECURRENCIA + " días.");
+        }
 
-        // Validar que el horario pertenezca al tutor actual
-        if (!horario.getIdTutor().equals(usuarioActual.getId())) {
-            throw new RuntimeException("No puedes modificar un horario que no te pertenece.");
+        // Expandir la regla en horarios concretos
+        List<SolicitudHorario> candidatos = new ArrayList<>();
+        for (LocalDate dia = solicitud.getFechaDesde(); !dia.isAfter(solicitud.getFechaHasta()); dia = dia.plusDays(1)) {
+            if (solicitud.getDias().contains(dia.getDayOfWeek())) {
+                candidatos.add(new SolicitudHorario(dia.atTime(solicitud.getHoraInicio()), dia.atTime(solicitud.getHoraFin())));
+            }
         }
+        if (candidatos.isEmpty()) {
+            return new ResultadoHorarioRecurrente(List.of(), List.of());
+        }
+
+        // Horarios del tutor que se cruzan con el rango completo (asi tengan disponible=false)
+        ArbolIntervalos<LocalDateTime> ocupados = new ArbolIntervalos<>();
+        horarioRepositorio.encontrarHorariosSolapados(
+                usuarioActual.getId(),
+                candidatos.get(0).getFechaInicio(),
+                candidatos.get(candidatos.size() - 1).getFechaFin()
+        ).forEach(h -> ocupados.insertar(h.getFechaInicio(), h.getFechaFin()));
 
-        // Validar que la sea Fecha real y posible (No se puede modificar una tutoria si ya pasó)
+        // Revisar cada candidato contra los existentes y contra los ya aceptados
         LocalDateTime ahora = LocalDateTime.now();
-        if (!ahora.isBefore(datosActualizados.getFechaInicio())) {
-            throw new IllegalArgumentException("No se puede modificar un horario de una tutoria pasada");
+        List<Horario> aceptados = new ArrayList<>();
+        List<SolicitudHorario> rechazados = new ArrayList<>();
+        for (SolicitudHorario candidato : candidatos) {
+            if (!ahora.isBefore(candidato.getFechaInicio())
+                    || ocupados.seCruza(candidato.getFechaInicio(), candidato.getFechaFin())) {
+                rechazados.add(candidato);
+                continue;
+            }
+            ocupados.insertar(candidato.getFechaInicio(), candidato.getFechaFin());
+
+            Horario horario = new Horario();
+            horario.setIdTutor(usuarioActual.getId());
+            horario.setFechaInicio(candidato.getFechaInicio());
+            horario.setFechaFin(candidato.getFechaFin());
+            horario.setDisponible(true);
+            aceptados.add(horario);
         }
 
-        // Validar fechas si vienen
-        if (datosActualizados.getFechaInicio() != null) {
-            horario.setFechaInicio(datosActualizados.getFechaInicio());
+        if (aceptados.isEmpty()) {
+            return new ResultadoHorarioRecurrente(List.of(), rechazados);
         }
 
-        if (datosActualizados.getFechaFin() != null) {
-            horario.setFechaFin(datosActualizados.getFechaFin());
-        }
+        List<Horario> guardados = horarioRepositorio.insert(aceptados);
+        horarioDisponibleServicio.sincronizarHorariosNuevos(usuarioActual.getId(), guardados);
+        guardados.forEach(expiracionHorarioServicio::programar);
 
-        if (!horario.getFechaFin().isAfter(horario.getFechaInicio())) {
-            throw new RuntimeException("Las fechas del horario no son válidas.");
+        return new ResultadoHorarioRecurrente(guardados, rechazados);
+    }
+
+
+    // Que el tutor modifique el horario de una tutoría por id del horario
+    public Horario modificarHorarioTutoria(UsuarioPrincipal usuarioActual, String idHorario, SolicitudHorario datosActualizados) {
+
+        // Validar rol del usuario
+        if (!usuarioActual.esTutor()) {
+            throw new RuntimeException("Solo un tutor puede modificar horarios.");
         }
 
-        return horarioRepositorio.save(horario);
+        return reintentoOptimistaServicio.ejecutar("horario.modificar", () -> {
+            // Buscar el horario
+            Horario horario = horarioRepositorio.findById(idHorario)
+                    .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
+
+            // Validar que el horario pertenezca al tutor actual
+            if (!horario.getIdTutor().equals(usuarioActual.getId())) {
+                throw new RuntimeException("No puedes modificar un horario que no te pertenece.");
+            }
+
+            // Validar que la sea Fecha real y posible (No se puede modificar una tutoria si ya pasó)
+            LocalDateTime ahora = LocalDateTime.now();
+            if (!ahora.isBefore(datosActualizados.getFechaInicio())) {
+                throw new IllegalArgumentException("No se puede modificar un horario de una tutoria pasada");
+            }
+
+            LocalDateTime fechaInicioAnterior = horario.getFechaInicio();
+
+            // Validar fechas si vienen
+            if (datosActualizados.getFechaInicio() != null) {
+                horario.setFechaInicio(datosActualizados.getFechaInicio());
+            }
+
+            if (datosActualizados.getFechaFin() != null) {
+                horario.setFechaFin(datosActualizados.getFechaFin());
+            }
+
+            if (!horario.getFechaFin().isAfter(horario.getFechaInicio())) {
+                throw new RuntimeException("Las fechas del horario no son válidas.");
+            }
+
+            // Solo las fechas: la reserva actual y el resto del horario no se reescriben
+            horarioRepositorio.actualizarFechas(horario);
+            horarioDisponibleServicio.sincronizarHorario(horario);
+            expiracionHorarioServicio.programar(horario);
+
+            // Las entradas de la reserva actual guardan una copia de la fecha de inicio
+            if (horario.getReservaActual() != null && !horario.getFechaInicio().equals(fechaInicioAnterior)) {
+                reservaServicio.actualizarFechaInicioHorario(horario);
+            }
+            return horario;
+        });
     }
 
 
     // Que el tutor soft delete un horario poniendo disponible en false
-    public boolean desactivarHorarioTutoria(Usuario usuarioActual, String idHorario) {
+    public boolean desactivarHorarioTutoria(UsuarioPrincipal usuarioActual, String idHorario) {
 
         // Validar rol del usuario
-        if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
+        if (!usuarioActual.esTutor()) {
             throw new RuntimeException("Solo un tutor puede desactivar sus horarios.");
         }
 
-        // Buscar horario
-        Horario horario = horarioRepositorio.findById(idHorario)
-                .orElse(null);
+        return reintentoOptimistaServicio.ejecutar("horario.desactivar", () -> {
+            // Buscar horario
+            Horario horario = horarioRepositorio.findById(idHorario)
+                    .orElse(null);
 
-        if (horario == null) {
-            return false;
-        }
+            if (horario == null) {
+                return false;
+            }
 
-        // Validar propiedad del horario
-        if (!horario.getIdTutor().equals(usuarioActual.getId())) {
-            throw new RuntimeException("No puedes desactivar un horario que no es tuyo.");
-        }
+            // Validar propiedad del horario
+            if (!horario.getIdTutor().equals(usuarioActual.getId())) {
+                throw new RuntimeException("No puedes desactivar un horario que no es tuyo.");
+            }
 
-        // Soft delete
-        horario.setDisponible(false);
-        horarioRepositorio.save(horario);
+            // Soft delete
+            horario.setDisponible(false);
+            horarioRepositorio.actualizarDisponible(horario);
+            horarioDisponibleServicio.eliminarHorario(idHorario);
+            expiracionHorarioServicio.cancelar(idHorario);
 
-        return true;
+            return true;
+        });
     }
 
 }
@@ -0,0 +1,113 @@
+package uis.mytutor.servicio.impl;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import uis.mytutor.modelo.LeaseScheduler;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// Exclusión mutua entre réplicas para las tareas @Scheduled, con leases guardados en scheduler_lease
+// Un lease vence solo (expiraEn); no se usa índice TTL porque borrar el documento reiniciaría el token
+// El lease solo decide qué réplica ejecuta cada vez la tarea: no protege las escrituras de la tarea, que
+// deben ser idempotentes (ver HorarioSchedulerServicio)
+// Las fechas del lease salen del reloj de Mongo ($$NOW), no del de cada réplica: un reloj local
+// adelantado o atrasado no puede alargar un lease ni robarlo antes de tiempo
+@Service
+public class LeaseSchedulerServicio {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Identificador de esta réplica
+    private final String nodo;
+
+    public LeaseSchedulerServicio(MongoTemplate mongoTemplate,
+                                  @Value("${app.scheduler.nodo:}") String nodo) {
+        this.mongoTemplate = mongoTemplate;
+        this.nodo = nodo == null || nodo.isBlank() ? nodoPorDefecto() : nodo;
+    }
+
+    // Ejecutar la tarea solo si esta réplica consigue el lease
+    // ttl debe ser mayor que lo que tarda la tarea y menor que su periodo
+    public boolean ejecutarConLease(String nombre, Duration ttl, Runnable tarea) {
+        LeaseScheduler lease = adquirir(nombre, ttl);
+        if (lease == null) return false;
+
+        long inicio = System.currentTimeMillis();
+        tarea.run();
+        registrarEjecucion(lease, System.currentTimeMillis() - inicio);
+        return true;
+    }
+
+    // Tomar el lease si está vencido o si ya es de esta réplica (renovación)
+    // Devuelve null si otra réplica lo tiene vigente
+    public LeaseScheduler adquirir(String nombre, Duration ttl) {
+        // { _id, $or: [ expiraEn < $$NOW, nodo = este ] }
+        Query query = new BasicQuery(new Document("_id", nombre)
+                .append("$or", List.of(
+                        new Document("$expr", new Document("$lt", List.of("$expiraEn", "$$NOW"))),
+                        new Document("nodo", nodo)
+                )));
+
+        // Update con pipeline para poder usar $$NOW; token = token + 1 (0 si el documento es nuevo)
+        Document set = new Document("nodo", new Document("$literal", nodo))
+                .append("adquiridoEn", "$$NOW")
+                .append("expiraEn", new Document("$add", List.of("$$NOW", ttl.toMillis())))
+                .append("token", new Document("$add", List.of(new Document("$ifNull", List.of("$token", 0L)), 1L)));
+        AggregationOperation etapa = contexto -> new Document("$set", set);
+        AggregationUpdate update = AggregationUpdate.from(List.of(etapa));
+
+        try {
+            // upsert: la primera vez crea el documento; si otra réplica lo tiene, el insert choca con el _id
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    LeaseScheduler.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    // Solo se registra si el token sigue siendo el nuestro (condición en la misma escritura):
+    // si el lease venció y otra réplica lo tomó, esta escritura no tiene efecto
+    private void registrarEjecucion(LeaseScheduler lease, long duracionMs) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(lease.getId()).and("token").is(lease.getToken())),
+                new Update()
+                        .currentDate("ultimaEjecucionExitosa")
+                        .set("ultimoNodoExitoso", nodo)
+                        .set("duracionUltimaEjecucionMs", duracionMs),
+                LeaseScheduler.class
+        );
+    }
+
+    // Estado de todos los leases (uso admin)
+    public List<LeaseScheduler> obtenerLeases() {
+        return mongoTemplate.findAll(LeaseScheduler.class);
+    }
+
+    public String getNodo() {
+        return nodo;
+    }
+
+    private static String nodoPorDefecto() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "desconocido";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,83 @@
+package uis.mytutor.servicio.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import uis.mytutor.Excepciones.ConcurrenciaExcepciones;
+import uis.mytutor.dto.EstadisticasConflictosDTO;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Control de concurrencia optimista: Usuario y Horario llevan @Version
+// Una operación lee el documento, valida y escribe condicionada a la versión leída;
+// si otra petición lo cambió antes, se lanza OptimisticLockingFailureException y aquí se repite
+// la operación completa (volviendo a leer) hasta max-intentos. Sin bloqueos en Mongo
+@Service
+public class ReintentoOptimistaServicio {
+
+    private static final class Contadores {
+        final LongAdder ejecuciones = new LongAdder();
+        final LongAdder conflictos = new LongAdder();
+        final LongAdder agotados = new LongAdder();
+    }
+
+    private final Map<String, Contadores> contadores = new ConcurrentHashMap<>();
+
+    @Value("${app.concurrencia.max-intentos:3}")
+    private int maxIntentos;
+
+    // operacion: nombre corto para las métricas (ej. "tutor.actualizarPerfil")
+    // accion: debe leer el documento dentro de la lambda para que cada intento use la versión actual
+    public <T> T ejecutar(String operacion, Supplier<T> accion) {
+        Contadores c = contadores.computeIfAbsent(operacion, k -> new Contadores());
+        c.ejecuciones.increment();
+
+        for (int intento = 1; ; intento++) {
+            try {
+                return accion.get();
+            } catch (OptimisticLockingFailureException e) {
+                c.conflictos.increment();
+                if (intento >= maxIntentos) {
+                    c.agotados.increment();
+                    throw new ConcurrenciaExcepciones.ConflictoConcurrenciaException(
+                            "Otra operación modificó los mismos datos, intenta de nuevo.");
+                }
+                esperar(intento);
+            }
+        }
+    }
+
+    // Métricas por operación (uso admin)
+    public List<EstadisticasConflictosDTO> estadisticas() {
+        return contadores.entrySet().stream()
+                .map(e -> {
+                    long ejecuciones = e.getValue().ejecuciones.sum();
+                    long conflictos = e.getValue().conflictos.sum();
+                    return new EstadisticasConflictosDTO(
+                            e.getKey(),
+                            ejecuciones,
+                            conflictos,
+                            e.getValue().agotados.sum(),
+                            ejecuciones == 0 ? 0.0 : (double) conflictos / ejecuciones
+                    );
+                })
+                .sorted(Comparator.comparing(EstadisticasConflictosDTO::getOperacion))
+                .toList();
+    }
+
+    // Espera corta y aleatoria para que los reintentos de peticiones simultáneas no choquen otra vez
+    private void esperar(int intento) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20L * intento));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrenciaExcepciones.ConflictoConcurrenciaException("Operación interrumpida, intenta de nuevo.");
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package uis.mytutor.servicio.impl;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import uis.mytutor.configuraciones.cache.TutorCache;
 import uis.mytutor.dto.ModificarResena;
+import uis.mytutor.dto.Pagina;
 import uis.mytutor.dto.ResenasDTO;
+import uis.mytutor.dto.TutorDTO;
 import uis.mytutor.modelo.*;
 import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.ResenaRepositorio;
 import uis.mytutor.repositorio.UsuarioRepositorio;
 import uis.mytutor.dto.SolicitudResena;
+import uis.mytutor.dto.UsuarioPrincipal;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,53 +44,71 @@ public class ResenaServicio {
     @Autowired
     private UsuarioRepositorio usuarioRepositorio;
 
-    // Obtener reseñas de un Tutor por su id
-    public List<Resena> getResenasDeTutorPorId(String idTutor) {
-        Usuario tutor = usuarioRepositorio.findById(idTutor)
-                .orElseThrow(() -> new RuntimeException("Tutor no encontrado"));
+    @Autowired
+    private ResenaRepositorio resenaRepositorio;
 
-        if (tutor.getRol() != Usuario.Rol.TUTOR || tutor.getTutor() == null) {
+    @Autowired
+    private HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    private TutorCache tutorCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Obtener reseñas de un Tutor por su id
+    // Paginado por cursor, de la más reciente a la más antigua (índice idTutor_fecha_id)
+    public Pagina<Resena> getResenasDeTutorPorId(String idTutor, String cursor, Integer tamano) {
+        TutorDTO tutor = tutorCache.obtener(idTutor);
+
+        if (tutor == null) {
+            if (!usuarioRepositorio.existsById(idTutor)) {
+                throw new RuntimeException("Tutor no encontrado");
+            }
             throw new RuntimeException("El usuario encontrado no es un tutor válido");
         }
 
-        // Si no tiene reseñas, se devuelve lista vacía
-        return tutor.getTutor().getResenas() != null
-                ? tutor.getTutor().getResenas()
-                : new ArrayList<>();
+        int limite = PaginacionUtil.tamanoValido(tamano);
+        Query query = new Query(Criteria.where("idTutor").is(idTutor));
+        if (cursor != null && !cursor.isEmpty()) {
+            query.addCriteria(criteriaCursor(cursor));
+        }
+
+        // Se pide un elemento de más para saber si hay otra página
+        query.with(Sort.by(Sort.Direction.DESC, "fecha", "_id")).limit(limite + 1);
+        List<Resena> resenas = mongoTemplate.find(query, Resena.class);
+
+        String siguienteCursor = null;
+        if (resenas.size() > limite) {
+            resenas = resenas.subList(0, limite);
+            Resena ultima = resenas.get(limite - 1);
+            siguienteCursor = PaginacionUtil.codificarCursor(ultima.getFecha().toString(), ultima.getIdResena());
+        }
+        return new Pagina<>(resenas, siguienteCursor);
     }
 
 
 
     // Obtener las reseñas que un usuario haya hecho
-    public List<ResenasDTO> obtenerResenasHechas(Usuario usuarioQueSolicita) {
+    public List<ResenasDTO> obtenerResenasHechas(UsuarioPrincipal usuarioQueSolicita) {
+
+        // Reseñas del autor (índice autorId)
+        List<Resena> resenas = resenaRepositorio.findByAutorId(usuarioQueSolicita.getId());
 
-        // Obtener todos los usuarios que sean TUTORES
-        List<Usuario> tutores = usuarioRepositorio.findAll()
-                .stream()
-                .filter(u -> u.getRol() == Usuario.Rol.TUTOR && u.getTutor() != null)
+        // Cargar en una sola consulta los tutores de esas reseñas
+        List<String> idsTutores = resenas.stream()
+                .map(Resena::getIdTutor)
+                .distinct()
                 .toList();
+        Map<String, Usuario> tutores = usuarioRepositorio.findAllById(idsTutores).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
 
         List<ResenasDTO> resultado = new ArrayList<>();
+        for (Resena r : resenas) {
+            Usuario tutor = tutores.get(r.getIdTutor());
+            if (tutor == null) continue;
 
-        for (Usuario tutor : tutores) {
-            Tutor datosTutor = tutor.getTutor();
-
-            // Si no tiene reseñas continuar
-            if (datosTutor.getResenas() == null) continue;
-
-            // Revisar reseñas hechas por este usuario
-            datosTutor.getResenas().stream()
-                    .filter(r -> r.getAutorId().equals(usuarioQueSolicita.getId()))
-                    .forEach(r -> {
-                        ResenasDTO dto = new ResenasDTO();
-                        dto.setId(r.getIdResena());
-                        dto.setIdTutor(tutor.getId());
-                        dto.setTutorNombreApellido(tutor.getNombre() + " " + tutor.getApellido());
-                        dto.setPuntuacion(r.getPuntuacion());
-                        dto.setComentario(r.getComentario());
-
-                        resultado.add(dto);
-                    });
+            resultado.add(mapToResenasDTO(r, tutor));
         }
 
         return resultado;
@@ -82,36 +119,22 @@ public class ResenaServicio {
     //Obtener reseña por id
     public ResenasDTO obtenerResenaPorId(String idResena) {
 
-        // 1. Buscar entre todos los usuarios que son tutores
-        Usuario tutorUsuario = usuarioRepositorio.findAll().stream()
-                .filter(u -> u.getRol() == Usuario.Rol.TUTOR && u.getTutor() != null)
-                .filter(u -> u.getTutor().getResenas() != null)
-                .filter(u -> u.getTutor().getResenas().stream()
-                        .anyMatch(r -> r.getIdResena().equals(idResena)))
-                .findFirst()
+        // 1. Buscar la reseña (idResena es el _id)
+        Resena resena = resenaRepositorio.findById(idResena)
                 .orElseThrow(() -> new RuntimeException("Reseña no encontrada"));
 
-        // 2. Obtener la reseña dentro de ese tutor
-        Resena resena = tutorUsuario.getTutor().getResenas().stream()
-                .filter(r -> r.getIdResena().equals(idResena))
-                .findFirst()
+        // 2. Obtener el tutor de la reseña
+        Usuario tutorUsuario = usuarioRepositorio.findById(resena.getIdTutor())
                 .orElseThrow(() -> new RuntimeException("Reseña no encontrada (inconsistencia)"));
 
         // 3. Mapear el DTO
-        ResenasDTO dto = new ResenasDTO();
-        dto.setId(resena.getIdResena());
-        dto.setIdTutor(tutorUsuario.getId());
-        dto.setTutorNombreApellido(tutorUsuario.getNombre() + " " + tutorUsuario.getApellido());
-        dto.setComentario(resena.getComentario());
-        dto.setPuntuacion(resena.getPuntuacion());
-
-        return dto;
+        return mapToResenasDTO(resena, tutorUsuario);
     }
 
 
 
-    // Actualizar y obtener la califiación promedio de todas las reseñas (Uso solo en el back)
-    // Colocar el promedio de todas las resenas en Usuario.Tutor.califiacionPromedio
+    // Recalcular desde cero la califiación promedio de un tutor (Uso solo en el back)
+    // Crear y modificar reseñas ya mantienen los contadores; esto es para migraciones o reparar datos
     public double obtenerPromedioResenasDeTutor(String idTutor) {
 
         // Buscar usuario/tutor
@@ -123,24 +146,35 @@ public class ResenaServicio {
             throw new RuntimeException("El usuario no es un tutor válido");
         }
 
-        Tutor datosTutor = tutor.getTutor();
+        return recalcularCalificacion(idTutor);
+    }
 
-        // Si no tiene reseñas → promedio 5.0
-        if (datosTutor.getResenas() == null || datosTutor.getResenas().isEmpty()) {
-            datosTutor.setCalifiacionPromedio(5.0);
-            usuarioRepositorio.save(tutor);
-            return 5.0;
-        }
+    // Suma y cantidad de puntuaciones en la colección resena → contadores y promedio del tutor
+    public double recalcularCalificacion(String idTutor) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("idTutor").is(idTutor)),
+                Aggregation.group().sum("puntuacion").as("suma").count().as("total")
+        );
+        Document resultado = mongoTemplate.aggregate(aggregation, Resena.class, Document.class)
+                .getUniqueMappedResult();
 
-        // Calcular promedio
-        double promedio = datosTutor.getResenas().stream()
-                .mapToInt(Resena::getPuntuacion)
-                .average()
-                .orElse(0.0);
+        long suma = resultado == null ? 0 : ((Number) resultado.get("suma")).longValue();
+        int total = resultado == null ? 0 : ((Number) resultado.get("total")).intValue();
 
-        // Guardar promedio dentro del tutor
-        datosTutor.setCalifiacionPromedio(promedio);
-        usuarioRepositorio.save(tutor);
+        // Si no tiene reseñas → promedio 5.0
+        double promedio = total == 0 ? 5.0 : (double) suma / total;
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(idTutor)),
+                new Update()
+                        .set("tutor.sumaPuntuaciones", suma)
+                        .set("tutor.totalResenas", total)
+                        .set("tutor.califiacionPromedio", promedio)
+                        .inc("version", 1),
+                Usuario.class
+        );
+        tutorCache.invalidar(idTutor);
+        horarioDisponibleServicio.actualizarCalificacion(idTutor, promedio);
 
         return promedio;
     }
@@ -150,8 +184,8 @@ public class ResenaServicio {
     // EL usuario solicitante debe haber visto una tutoría con el tutor
     //      Horario.Reserva.estado == COMPLETADA
     // Calificación de 0 - 5
-    // Usar obtenerPromedioResenasDeTutor(String idTutor) al finalizar
-    public Resena crearResena(Usuario usuarioQueSolicita, SolicitudResena solicitud) {
+    // Al finalizar se suman la puntuación y la reseña a los contadores del tutor
+    public Resena crearResena(UsuarioPrincipal usuarioQueSolicita, SolicitudResena solicitud) {
         // Buscar horario
         Horario horario = horarioRepositorio.findById(solicitud.getIdHorario())
                 .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
@@ -161,12 +195,12 @@ public class ResenaServicio {
             throw new RuntimeException("La calificación debe estar entre 0 y 5.");
         }
 
-        // Buscar la reserva que hizo este usuario
-        Reserva reservaDelUsuario = horario.getHistorialReservas().stream()
-                .filter(r -> r.getIdUsuario().equals(usuarioQueSolicita.getId()))
-                .max(Comparator.comparing(Reserva::getFecha))
-                .orElseThrow(() -> new RuntimeException("El usuario no ha reservado este horario."));
-
+        // La reserva actual del horario debe ser de este usuario (el estado actual solo lo guarda el horario;
+        // una reserva completada no deja el horario disponible, así que sigue siendo la actual)
+        ResumenReserva reservaDelUsuario = horario.getReservaActual();
+        if (reservaDelUsuario == null || !reservaDelUsuario.getIdUsuario().equals(usuarioQueSolicita.getId())) {
+            throw new RuntimeException("El usuario no ha reservado este horario.");
+        }
 
         // Validar que la reserva esté COMPLETADA
         if (reservaDelUsuario.getEstado() != Reserva.EstadoReserva.COMPLETADA) {
@@ -183,24 +217,17 @@ public class ResenaServicio {
 
         // Crear la reseña
         Resena nuevaResena = new Resena();
+        nuevaResena.setIdTutor(tutorUsuario.getId());
         nuevaResena.setAutorId(usuarioQueSolicita.getId());
         nuevaResena.setPuntuacion(solicitud.getPuntuacion());
         nuevaResena.setComentario(solicitud.getComentario());
         nuevaResena.setFecha(LocalDateTime.now());
 
-        // Inicializar lista de reseñas si no existe
-        if (tutorUsuario.getTutor().getResenas() == null) {
-            tutorUsuario.getTutor().setResenas(new ArrayList<>());
-        }
-
-        // Agregar reseña al tutor
-        tutorUsuario.getTutor().getResenas().add(nuevaResena);
-
-        // Guardar tutor actualizado
-        usuarioRepositorio.save(tutorUsuario);
+        // Guardar la reseña en su colección
+        resenaRepositorio.insert(nuevaResena);
 
         // Actualizar promedio
-        this.obtenerPromedioResenasDeTutor(tutorUsuario.getId());
+        sumarPuntuacion(tutorUsuario.getId(), nuevaResena.getPuntuacion(), 1);
 
         return nuevaResena;
     }
@@ -209,50 +236,119 @@ public class ResenaServicio {
 
     // Actualizar reseña por id
     // Un usuario solo puede editar las reseñas hechas por él
-    public ResenasDTO modificarResena(Usuario usuarioQueSolicita, ModificarResena solicitud) {
-
-        // 1. Buscar usuario cuya sección "tutor" contenga esta reseña
-        Usuario usuarioTutor = usuarioRepositorio.findAll()
-                .stream()
-                .filter(u -> u.getTutor() != null &&
-                        u.getTutor().getResenas() != null &&
-                        u.getTutor().getResenas()
-                                .stream()
-                                .anyMatch(r -> r.getIdResena().equals(solicitud.getId())))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("No existe ninguna reseña con ese ID"));
-
-        // 2. Obtener la reseña dentro de la lista
-        Resena resena = usuarioTutor.getTutor().getResenas().stream()
-                .filter(r -> r.getIdResena().equals(solicitud.getId()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Reseña no encontrada dentro del usuario tutor"));
+    // Calificación de 0 - 5
+    public ResenasDTO modificarResena(UsuarioPrincipal usuarioQueSolicita, ModificarResena solicitud) {
 
-        // 3. Validar que quien solicita ES el autor
-        if (!resena.getAutorId().equals(usuarioQueSolicita.getId())) {
-            throw new RuntimeException("No tienes permiso para editar esta reseña");
+        // 1. Validamos puntuación (igual que al crear)
+        if (solicitud.getPuntuacion() != null && (solicitud.getPuntuacion() < 0 || solicitud.getPuntuacion() > 5)) {
+            throw new RuntimeException("La calificación debe estar entre 0 y 5.");
         }
 
-        // 4. Actualizar la información
+        // 2. Guardar solo puntuación y comentario
+        Update update = new Update();
         if (solicitud.getPuntuacion() != null) {
-            resena.setPuntuacion(solicitud.getPuntuacion());
+            update.set("puntuacion", solicitud.getPuntuacion());
+        }
+        if (solicitud.getComentario() != null) {
+            update.set("comentario", solicitud.getComentario());
         }
 
+        // El filtro por autor valida el permiso en la misma escritura, y se devuelve el documento
+        // anterior: la diferencia de puntuación sale de lo que se reemplazó, así dos ediciones
+        // simultáneas de la misma reseña no ajustan los contadores desde la misma puntuación vieja
+        Query query = new Query(Criteria.where("_id").is(solicitud.getId())
+                .and("autorId").is(usuarioQueSolicita.getId()));
+        Resena resena = update.getUpdateObject().isEmpty()
+                ? mongoTemplate.findOne(query, Resena.class)
+                : mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Resena.class);
+
+        if (resena == null) {
+            if (!resenaRepositorio.existsById(solicitud.getId())) {
+                throw new RuntimeException("No existe ninguna reseña con ese ID");
+            }
+            throw new RuntimeException("No tienes permiso para editar esta reseña");
+        }
+
+        // 3. Ajustar el promedio con la diferencia de puntuación
+        int puntuacionAnterior = resena.getPuntuacion();
         if (solicitud.getComentario() != null) {
             resena.setComentario(solicitud.getComentario());
         }
+        if (solicitud.getPuntuacion() != null && solicitud.getPuntuacion() != puntuacionAnterior) {
+            resena.setPuntuacion(solicitud.getPuntuacion());
+            sumarPuntuacion(resena.getIdTutor(), resena.getPuntuacion() - puntuacionAnterior, 0);
+        } else {
+            tutorCache.invalidar(resena.getIdTutor());
+        }
+
+        // 4. Construir DTO de respuesta
+        Usuario usuarioTutor = usuarioRepositorio.findById(resena.getIdTutor())
+                .orElseThrow(() -> new RuntimeException("Reseña no encontrada dentro del usuario tutor"));
+
+        return mapToResenasDTO(resena, usuarioTutor);
+    }
 
-        // 5. Guardar el usuario que contiene la reseña
-        usuarioRepositorio.save(usuarioTutor);
 
-        // 6. Construir DTO de respuesta
+    // Sumar a los contadores del tutor y recalcular su promedio en una sola escritura atómica
+    // Es un update con pipeline: cada $set ve el resultado del anterior, así el promedio sale de los
+    // contadores ya incrementados y dos reseñas simultáneas no se pisan
+    private void sumarPuntuacion(String idTutor, int puntos, int resenas) {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("tutor.sumaPuntuaciones").toValue(
+                        ArithmeticOperators.valueOf("tutor.sumaPuntuaciones").add(puntos))
+                .set("tutor.totalResenas").toValue(
+                        ArithmeticOperators.valueOf("tutor.totalResenas").add(resenas))
+                .set("tutor.califiacionPromedio").toValue(
+                        ConditionalOperators.when(ComparisonOperators.valueOf("tutor.totalResenas").greaterThanValue(0))
+                                .then(ArithmeticOperators.valueOf("tutor.sumaPuntuaciones").divideBy("tutor.totalResenas"))
+                                .otherwise(5.0))
+                // Los escritores con versión (ver UsuarioRepositorioParcial) deben notar este cambio
+                .set("version").toValue(ArithmeticOperators.valueOf("version").add(1));
+
+        Query query = new Query(Criteria.where("_id").is(idTutor));
+        query.fields().include("tutor.califiacionPromedio");
+
+        Usuario actualizado = mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Usuario.class);
+        tutorCache.invalidar(idTutor);
+
+        if (actualizado != null && actualizado.getTutor() != null) {
+            horarioDisponibleServicio.actualizarCalificacion(idTutor, actualizado.getTutor().getCalifiacionPromedio());
+        }
+    }
+
+
+    // (fecha < valor) OR (fecha == valor AND _id < ultimoId): orden descendente
+    private Criteria criteriaCursor(String cursor) {
+        String[] partes = PaginacionUtil.decodificarCursor(cursor, 2);
+        if (partes[1].isEmpty()) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
+
+        LocalDateTime fecha;
+        try {
+            fecha = LocalDateTime.parse(partes[0]);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
+
+        return new Criteria().orOperator(
+                Criteria.where("fecha").lt(fecha),
+                new Criteria().andOperator(
+                        Criteria.where("fecha").is(fecha),
+                        Criteria.where("_id").lt(partes[1])
+                )
+        );
+    }
+
+
+    private ResenasDTO mapToResenasDTO(Resena resena, Usuario tutorUsuario) {
         ResenasDTO dto = new ResenasDTO();
         dto.setId(resena.getIdResena());
-        dto.setComentario(resena.getComentario());
+        dto.setIdTutor(tutorUsuario.getId());
+        dto.setTutorNombreApellido(tutorUsuario.getNombre() + " " + tutorUsuario.getApellido());
         dto.setPuntuacion(resena.getPuntuacion());
-        dto.setIdTutor(usuarioTutor.getId());
-        dto.setTutorNombreApellido(usuarioTutor.getNombre() + " " + usuarioTutor.getApellido());
-
+        dto.setComentario(resena.getComentario());
         return dto;
     }
 
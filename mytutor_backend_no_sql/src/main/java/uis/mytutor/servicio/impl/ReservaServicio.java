@@ -1,15 +1,36 @@
 package uis.mytutor.servicio.impl;
 
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import uis.mytutor.Excepciones.ReservaExcepciones;
+import uis.mytutor.dto.Pagina;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Horario;
 import uis.mytutor.modelo.Reserva;
+import uis.mytutor.modelo.ResumenReserva;
 import uis.mytutor.modelo.Usuario;
 import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.ReservaRepositorio;
+import uis.mytutor.utilidades.PaginacionUtil;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,34 +39,124 @@ public class ReservaServicio {
     @Autowired
     HorarioRepositorio horarioRepositorio;
 
+    @Autowired
+    ReservaRepositorio reservaRepositorio;
+
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    ExpiracionHorarioServicio expiracionHorarioServicio;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
     // Obtener todas las reservas
-    // Devuelve todos los horarios con historialReservas != null
+    // Devuelve todos los horarios que se han reservado alguna vez, con su historial
     public List<Horario> getReservas() {
-        // Traer todos los horarios
-        List<Horario> horarios = horarioRepositorio.findAll();
+        List<Horario> horarios = mongoTemplate.find(
+                new Query(Criteria.where("reservaActual").exists(true)),
+                Horario.class
+        );
+        llenarHistorial(horarios);
+        return horarios;
+    }
 
-        // Filtrar solo los que tengan historialReservas con elementos
-        return horarios.stream()
-                .filter(h -> h.getHistorialReservas() != null && !h.getHistorialReservas().isEmpty())
+
+    // Que un usuario obtenga sus reservas
+    // Se buscan sus entradas en la colección reserva (índice idUsuario_id), se deja la
+    // última de cada reserva (su estado actual) y luego se cargan sus horarios en lote
+    // Filtros opcionales: estados actuales de su reserva y rango de fechaInicio del horario
+    // Paginado por cursor, del horario más reciente al más antiguo
+    // El trabajo crece con el historial del usuario, no con el de la plataforma
+    public Pagina<Horario> ObtenerMisReservas(
+            UsuarioPrincipal usuarioQueSolicita,
+            Collection<Reserva.EstadoReserva> estados,
+            LocalDateTime desde,
+            LocalDateTime hasta,
+            String cursor,
+            Integer tamano
+    ) {
+        int limite = PaginacionUtil.tamanoValido(tamano);
+
+        // Filtros sobre el estado actual: se aplican después de quedarse con la última entrada
+        List<Criteria> filtros = new ArrayList<>();
+        if (estados != null && !estados.isEmpty()) {
+            filtros.add(Criteria.where("estado").in(estados.stream().map(Enum::name).toList()));
+        }
+        if (desde != null || hasta != null) {
+            Criteria fecha = Criteria.where("fechaInicioHorario");
+            if (desde != null) fecha.gte(desde);
+            if (hasta != null) fecha.lte(hasta);
+            filtros.add(fecha);
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            filtros.add(criteriaCursor(cursor));
+        }
+
+        List<AggregationOperation> etapas = etapasEstadoActual(usuarioQueSolicita.getId());
+        if (!filtros.isEmpty()) {
+            etapas.add(Aggregation.match(new Criteria().andOperator(filtros)));
+        }
+        // Se pide un elemento de más para saber si hay otra página
+        etapas.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, "fechaInicioHorario", "idReserva")));
+        etapas.add(Aggregation.limit(limite + 1));
+
+        List<Reserva> reservas = mongoTemplate.aggregate(
+                Aggregation.newAggregation(Reserva.class, etapas), Reserva.class).getMappedResults();
+
+        String siguienteCursor = null;
+        if (reservas.size() > limite) {
+            reservas = reservas.subList(0, limite);
+            Reserva ultima = reservas.get(limite - 1);
+            siguienteCursor = PaginacionUtil.codificarCursor(ultima.getFechaInicioHorario().toString(), ultima.getIdReserva());
+        }
+
+        // Horarios de la página en una sola consulta, en el orden de las reservas
+        // (si el usuario reservó dos veces el mismo horario, sale una vez)
+        Map<String, Horario> horariosPorId = horarioRepositorio.findAllById(
+                        reservas.stream().map(Reserva::getIdHorario).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Horario::getId, h -> h));
+        List<Horario> horarios = reservas.stream()
+                .map(Reserva::getIdHorario)
+                .distinct()
+                .map(horariosPorId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-    }
 
+        llenarHistorial(horarios);
+        return new Pagina<>(horarios, siguienteCursor);
+    }
 
-    // Que un usuario obtenga todas sus reservas
-    // Obtiene todos los horarios donde él salga en la reserva
-    public List<Horario> ObtenerMisReservas(Usuario usuarioQueSolicita) {
 
-        String idUsuario = usuarioQueSolicita.getId();
+    // Cantidad de reservas del usuario por estado actual (todos los estados, aunque sea 0)
+    // Mismo recorrido que ObtenerMisReservas pero solo devuelve un documento por estado,
+    // así la interfaz puede mostrar los totales sin pedir todas las páginas
+    public Map<Reserva.EstadoReserva, Long> contarMisReservas(UsuarioPrincipal usuarioQueSolicita) {
+        List<AggregationOperation> etapas = etapasEstadoActual(usuarioQueSolicita.getId());
+        etapas.add(Aggregation.group("estado").count().as("total"));
 
-        // Traer todos los horarios
-        List<Horario> horarios = horarioRepositorio.findAll();
+        Map<Reserva.EstadoReserva, Long> conteo = new EnumMap<>(Reserva.EstadoReserva.class);
+        for (Reserva.EstadoReserva estado : Reserva.EstadoReserva.values()) {
+            conteo.put(estado, 0L);
+        }
+        for (Document grupo : mongoTemplate.aggregate(
+                Aggregation.newAggregation(Reserva.class, etapas), Document.class).getMappedResults()) {
+            conteo.put(Reserva.EstadoReserva.valueOf(grupo.getString("_id")),
+                    ((Number) grupo.get("total")).longValue());
+        }
+        return conteo;
+    }
 
-        // Filtrar horarios donde alguna reserva tenga el id del usuario
-        return horarios.stream()
-                .filter(horario -> horario.getHistorialReservas() != null)
-                .filter(horario -> horario.getHistorialReservas().stream()
-                        .anyMatch(reserva -> reserva.getIdUsuario().equals(idUsuario)))
-                .collect(Collectors.toList());
+    // Entradas del usuario reducidas a la última de cada reserva (su estado actual)
+    private List<AggregationOperation> etapasEstadoActual(String idUsuario) {
+        List<AggregationOperation> etapas = new ArrayList<>();
+        etapas.add(Aggregation.match(Criteria.where("idUsuario").is(idUsuario)));
+        etapas.add(Aggregation.sort(Sort.by(Sort.Direction.ASC, "id")));
+        etapas.add(Aggregation.group("idReserva").last(Aggregation.ROOT).as("ultima"));
+        etapas.add(Aggregation.replaceRoot("ultima"));
+        return etapas;
     }
 
 
@@ -53,41 +164,52 @@ public class ReservaServicio {
     // Poner en horario disponible=false
     // EstadoReserva.PENDIENTE se asigna automáticamente en modelo
     // LocalDateTime.now() debe ser menor que fechaInicio en 2 horas (No se puede reservar un horario que ya pasó)
-    public Reserva reservarHorario(Usuario usuarioQueSolicita, String idHorario) {
-        // 1. Buscar el horario
-        Horario horario = horarioRepositorio.findById(idHorario)
-                .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
-
-        // 2. Validar que el horario esté disponible
-        if (!horario.isDisponible()) {
-            throw new RuntimeException("Este horario ya no está disponible");
-        }
-
-        // 3. Validar que la fecha del horario sea al menos 2 horas mayor que ahora
-        LocalDateTime ahora = LocalDateTime.now();
-        if (ahora.isAfter(horario.getFechaInicio().minusHours(2))) {
-            throw new RuntimeException("Solo puedes reservar un horario con mínimo 2 horas de anticipación");
-        }
-
-        // 4. Crear reserva
+    // La reserva es atómica (findAndModify condicionado a disponible=true): si dos usuarios
+    // reservan a la vez solo uno lo consigue y el otro recibe HorarioNoDisponibleException (409)
+    public Reserva reservarHorario(UsuarioPrincipal usuarioQueSolicita, String idHorario) {
+        // 1. Crear reserva (primera entrada del registro: idReserva = id)
         Reserva nuevaReserva = new Reserva();
+        nuevaReserva.setIdHorario(idHorario);
         nuevaReserva.setIdUsuario(usuarioQueSolicita.getId());
         // estado = PENDIENTE ya se asigna automáticamente
         // nuevaReserva.setFecha(LocalDateTime.now());
 
-        // 5. Asegurar que la lista historialReservas no sea null
-        if (horario.getHistorialReservas() == null) {
-            horario.setHistorialReservas(new ArrayList<>());
+        // 2. Reservar solo si sigue disponible y faltan al menos 2 horas
+        //    El horario solo guarda el resumen de la reserva (escritura de tamaño fijo)
+        Query query = new Query(Criteria.where("_id").is(idHorario)
+                .and("disponible").is(true)
+                .and("fechaInicio").gte(LocalDateTime.now().plusHours(2)));
+        Update update = new Update()
+                .set("reservaActual", ResumenReserva.desdeReserva(nuevaReserva))
+                .set("disponible", false)
+                .inc("version", 1);
+
+        Horario horario = mongoTemplate.findAndModify(query, update, Horario.class);
+
+        // 3. Si no se modificó nada, averiguar por qué
+        if (horario == null) {
+            Horario existente = horarioRepositorio.findById(idHorario)
+                    .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
+
+            if (!existente.isDisponible()) {
+                throw new ReservaExcepciones.HorarioNoDisponibleException("Este horario ya no está disponible");
+            }
+            throw new RuntimeException("Solo puedes reservar un horario con mínimo 2 horas de anticipación");
         }
 
-        // 6. Agregar la reserva al historial
-        horario.getHistorialReservas().add(nuevaReserva);
-
-        // 7. Marcar horario como NO disponible
-        horario.setDisponible(false);
+        // 4. Agregar la reserva al registro
+        //    Son dos escrituras (Mongo sin replica set no tiene transacciones): si el insert falla
+        //    se deshace la reserva en el horario para que no quede apuntando a una reserva inexistente
+        nuevaReserva.setFechaInicioHorario(horario.getFechaInicio());
+        try {
+            reservaRepositorio.insert(nuevaReserva);
+        } catch (RuntimeException e) {
+            deshacerReserva(horario, nuevaReserva);
+            throw e;
+        }
 
-        // 8. Guardar cambios en Mongo
-        horarioRepositorio.save(horario);
+        // 5. Quitarlo de la búsqueda de horarios disponibles
+        horarioDisponibleServicio.eliminarHorario(idHorario);
 
         return nuevaReserva;
     }
@@ -97,10 +219,10 @@ public class ReservaServicio {
     // Solo puede cancelar un día antes
     //      -- LocalDateTime.now() debe ser un día antes a LocalDateTime fechaInicio en Horario)
     // Poner en horario disponible=false y la última reserva en EstadoReserva.CANCELADA
-    public Reserva tutorCancelaReservaHecha(Usuario usuarioQueSolicita, String idHorario) {
+    public Reserva tutorCancelaReservaHecha(UsuarioPrincipal usuarioQueSolicita, String idHorario) {
 
         // 1. Validar que quien solicita sea tutor
-        if (usuarioQueSolicita.getRol() != Usuario.Rol.TUTOR || usuarioQueSolicita.getTutor() == null) {
+        if (!usuarioQueSolicita.esTutor()) {
             throw new RuntimeException("Solo un tutor puede cancelar reservas realizadas por estudiantes.");
         }
 
@@ -114,13 +236,12 @@ public class ReservaServicio {
         }
 
         // 4. Verificar que el horario tenga reservas
-        if (horario.getHistorialReservas() == null || horario.getHistorialReservas().isEmpty()) {
+        if (horario.getReservaActual() == null) {
             throw new RuntimeException("Este horario no tiene reservas para cancelar.");
         }
 
         // 5. Tomar la última reserva (la activa)
-        Reserva reservaActual = horario.getHistorialReservas()
-                .get(horario.getHistorialReservas().size() - 1);
+        ResumenReserva reservaActual = horario.getReservaActual();
 
         // 6. Validar que la reserva esté en estado PENDIENTE
         if (reservaActual.getEstado() != Reserva.EstadoReserva.PENDIENTE) {
@@ -133,17 +254,8 @@ public class ReservaServicio {
             throw new RuntimeException("Solo puedes cancelar una reserva con al menos 1 día de anticipación.");
         }
 
-        // 8. Cambiar el estado de la reserva
-        reservaActual.setEstado(Reserva.EstadoReserva.CANCELADA);
-        reservaActual.setFecha(LocalDateTime.now());
-
-        // 9. Que ya no esté disponible
-        horario.setDisponible(false);
-
-        // 10. Guardar cambios en MongoDB
-        horarioRepositorio.save(horario);
-
-        return reservaActual;
+        // 8. Cambiar el estado de la reserva y que el horario ya no esté disponible
+        return cambiarEstadoReserva(horario, Reserva.EstadoReserva.CANCELADA, false);
     }
 
 
@@ -152,19 +264,18 @@ public class ReservaServicio {
     // Solo puede cancelar un día antes
     //      -- LocalDateTime.now() debe ser un día antes a LocalDateTime fechaInicio en Horario)
     // Poner en horario disponible=true
-    // Es posible que alguien la reserve despúes (Se añade la siguiente reserva disponible al array de historialReservas)
-    public Reserva cancelarReserva(Usuario usuarioQueSolicita, String idHorario) {
+    // Es posible que alguien la reserve despúes (la siguiente reserva se agrega a la colección reserva)
+    public Reserva cancelarReserva(UsuarioPrincipal usuarioQueSolicita, String idHorario) {
         // 1. Buscar horario
         Horario horario = horarioRepositorio.findById(idHorario)
                 .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
 
-        if (horario.getHistorialReservas() == null || horario.getHistorialReservas().isEmpty()) {
+        if (horario.getReservaActual() == null) {
             throw new RuntimeException("Este horario no tiene reservas");
         }
 
         // 2. Buscar la reserva activa (la última del historial)
-        Reserva reservaActual = horario.getHistorialReservas()
-                .get(horario.getHistorialReservas().size() - 1);
+        ResumenReserva reservaActual = horario.getReservaActual();
 
         // 3. Validar que la reserva pertenece al usuario solicitante
         if (!reservaActual.getIdUsuario().equals(usuarioQueSolicita.getId())) {
@@ -177,24 +288,22 @@ public class ReservaServicio {
             throw new RuntimeException("Solo puedes cancelar una reserva con al menos 1 día de anticipación");
         }
 
-        // 5. Cambiar estado a CANCELADA
-        reservaActual.setEstado(Reserva.EstadoReserva.CANCELADA);
-        reservaActual.setFecha(LocalDateTime.now()); // Fecha de cancelación
-
-        // 6. Hacer que el horario vuelva a estar disponible
+        // 5. Cambiar estado a CANCELADA y hacer que el horario vuelva a estar disponible
+        Reserva cancelada = cambiarEstadoReserva(horario, Reserva.EstadoReserva.CANCELADA, true);
         horario.setDisponible(true);
 
-        // 7. Guardar cambios en MongoDB
-        horarioRepositorio.save(horario);
+        // 6. Volver a publicarlo en la búsqueda de horarios disponibles
+        horarioDisponibleServicio.sincronizarHorario(horario);
+        expiracionHorarioServicio.programar(horario);
 
-        return reservaActual;
+        return cancelada;
     }
 
 
 
     // Que el tutor marque la reserva como COMPLETADA
     // LocalDateTime.now() debe ser mayor que fechaFin de horario (Marcar solo las que ya hayan pasado)
-    public Reserva reservaCompletada(Usuario usuarioQueSolicita, String idHorario) {
+    public Reserva reservaCompletada(UsuarioPrincipal usuarioQueSolicita, String idHorario) {
         // 1. Validar que el usuario es tutor
         if (usuarioQueSolicita.getRol() != Usuario.Rol.TUTOR) {
             throw new RuntimeException("Solo los tutores pueden marcar una reserva como completada");
@@ -214,29 +323,20 @@ public class ReservaServicio {
             throw new RuntimeException("No puedes marcar como completada una reserva que aún no ha terminado");
         }
 
-        // 5. Obtener la última reserva (la que está activa)
-        if (horario.getHistorialReservas() == null || horario.getHistorialReservas().isEmpty()) {
+        // 5. Verificar que el horario tenga una reserva
+        if (horario.getReservaActual() == null) {
             throw new RuntimeException("Este horario no tiene reservas");
         }
 
-        Reserva reservaActual = horario.getHistorialReservas()
-                .get(horario.getHistorialReservas().size() - 1);
-
-        // 6. Cambiar estado a COMPLETADA
-        reservaActual.setEstado(Reserva.EstadoReserva.COMPLETADA);
-        reservaActual.setFecha(LocalDateTime.now()); // Fecha en que se completó
-
-        // 7. Guardar cambios
-        horarioRepositorio.save(horario);
-
-        return reservaActual;
+        // 6. Cambiar estado de la reserva actual a COMPLETADA
+        return cambiarEstadoReserva(horario, Reserva.EstadoReserva.COMPLETADA, null);
     }
 
 
 
     // Que el tutor marque la reserva como NO_ASISTIO
     // LocalDateTime.now() debe ser mayor que fechaFin de horario (Marcar solo las que ya hayan pasado)
-    public Reserva noAsistioALaReserva(Usuario usuarioQueSolicita,  String idHorario) {
+    public Reserva noAsistioALaReserva(UsuarioPrincipal usuarioQueSolicita,  String idHorario) {
         // 1. Validar que el usuario es tutor
         if (usuarioQueSolicita.getRol() != Usuario.Rol.TUTOR) {
             throw new RuntimeException("Solo los tutores pueden marcar una reserva como completada");
@@ -256,21 +356,154 @@ public class ReservaServicio {
             throw new RuntimeException("No puedes marcar como completada una reserva que aún no ha terminado");
         }
 
-        // 5. Obtener la última reserva (la que está activa)
-        if (horario.getHistorialReservas() == null || horario.getHistorialReservas().isEmpty()) {
+        // 5. Verificar que el horario tenga una reserva
+        if (horario.getReservaActual() == null) {
             throw new RuntimeException("Este horario no tiene reservas");
         }
 
-        Reserva reservaActual = horario.getHistorialReservas()
-                .get(horario.getHistorialReservas().size() - 1);
+        // 6. Cambiar estado de la reserva actual a NO_ASISTIO
+        return cambiarEstadoReserva(horario, Reserva.EstadoReserva.NO_ASISTIO, null);
+    }
+
+
+    // Mantener la copia de fechaInicio cuando el tutor mueve el horario
+    // Solo en las entradas de la reserva actual: las reservas anteriores guardan la fecha que tenían
+    public void actualizarFechaInicioHorario(Horario horario) {
+        if (horario.getReservaActual() == null) return;
+
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("idHorario").is(horario.getId())
+                        .and("idReserva").is(horario.getReservaActual().getIdReserva())),
+                new Update().set("fechaInicioHorario", horario.getFechaInicio()),
+                Reserva.class
+        );
+    }
+
+    // Entrada del registro con el nuevo estado de la reserva actual del horario
+    public static Reserva entradaDeEstado(Horario horario, Reserva.EstadoReserva estado, LocalDateTime fecha) {
+        ResumenReserva actual = horario.getReservaActual();
+
+        Reserva entrada = new Reserva();
+        entrada.setIdReserva(actual.getIdReserva());
+        entrada.setIdHorario(horario.getId());
+        entrada.setIdUsuario(actual.getIdUsuario());
+        entrada.setFechaInicioHorario(horario.getFechaInicio());
+        entrada.setEstado(estado);
+        entrada.setFecha(fecha);
+        return entrada;
+    }
+
+    // Cambiar el estado de la reserva actual del horario y agregar la entrada al registro
+    // El horario se actualiza solo si su reserva actual sigue igual (si otro cambio llegó antes, falla)
+    // disponible: nuevo valor para el horario, o null para no tocarlo
+    private Reserva cambiarEstadoReserva(Horario horario, Reserva.EstadoReserva nuevoEstado, Boolean disponible) {
+        ResumenReserva actual = horario.getReservaActual();
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Query query = new Query(Criteria.where("_id").is(horario.getId())
+                .and("reservaActual.idReserva").is(actual.getIdReserva())
+                .and("reservaActual.estado").is(actual.getEstado()));
+        Update update = new Update()
+                .set("reservaActual.estado", nuevoEstado)
+                .set("reservaActual.fecha", ahora)
+                .inc("version", 1);
+        if (disponible != null) {
+            update.set("disponible", disponible);
+        }
+
+        if (mongoTemplate.updateFirst(query, update, Horario.class).getModifiedCount() == 0) {
+            throw new RuntimeException("La reserva cambió mientras se procesaba la solicitud, intenta de nuevo.");
+        }
+
+        // Si la entrada no se puede agregar, el resumen del horario vuelve a su estado anterior
+        Reserva entrada = entradaDeEstado(horario, nuevoEstado, ahora);
+        try {
+            reservaRepositorio.insert(entrada);
+        } catch (RuntimeException e) {
+            deshacerCambioEstado(horario, nuevoEstado, disponible);
+            throw e;
+        }
+        return entrada;
+    }
+
+    // Compensación de reservarHorario: solo si el horario sigue apuntando a la reserva que falló
+    // horarioAnterior es el documento previo al findAndModify (reservaActual y disponible de antes)
+    private void deshacerReserva(Horario horarioAnterior, Reserva fallida) {
+        Update update = new Update()
+                .set("disponible", horarioAnterior.isDisponible())
+                .inc("version", 1);
+        if (horarioAnterior.getReservaActual() != null) {
+            update.set("reservaActual", horarioAnterior.getReservaActual());
+        } else {
+            update.unset("reservaActual");
+        }
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(horarioAnterior.getId())
+                        .and("reservaActual.idReserva").is(fallida.getIdReserva())),
+                update,
+                Horario.class
+        );
+    }
+
+    // Compensación de cambiarEstadoReserva: solo si nadie más cambió el resumen entretanto
+    private void deshacerCambioEstado(Horario horario, Reserva.EstadoReserva estadoAplicado, Boolean disponible) {
+        ResumenReserva anterior = horario.getReservaActual();
+        Update update = new Update()
+                .set("reservaActual.estado", anterior.getEstado())
+                .set("reservaActual.fecha", anterior.getFecha())
+                .inc("version", 1);
+        if (disponible != null) {
+            update.set("disponible", horario.isDisponible());
+        }
 
-        // 6. Cambiar estado a COMPLETADA
-        reservaActual.setEstado(Reserva.EstadoReserva.NO_ASISTIO);
-        reservaActual.setFecha(LocalDateTime.now()); // Fecha en que se completó
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(horario.getId())
+                        .and("reservaActual.idReserva").is(anterior.getIdReserva())
+                        .and("reservaActual.estado").is(estadoAplicado)),
+                update,
+                Horario.class
+        );
+    }
 
-        // 7. Guardar cambios
-        horarioRepositorio.save(horario);
+    // Cargar el historial de varios horarios con una sola consulta
+    // Una reserva por elemento, en orden de creación y con su último estado (la última entrada)
+    public void llenarHistorial(List<Horario> horarios) {
+        if (horarios.isEmpty()) return;
+
+        Map<String, Map<String, Reserva>> reservasPorHorario = new HashMap<>();
+        for (Reserva entrada : reservaRepositorio.findByIdHorarioInOrderByIdAsc(
+                horarios.stream().map(Horario::getId).toList())) {
+            reservasPorHorario
+                    .computeIfAbsent(entrada.getIdHorario(), id -> new LinkedHashMap<>())
+                    .put(entrada.getIdReserva(), entrada);
+        }
+
+        horarios.forEach(h -> h.setHistorialReservas(new ArrayList<>(
+                reservasPorHorario.getOrDefault(h.getId(), Map.of()).values())));
+    }
+
+    // (fechaInicioHorario < valor) OR (fechaInicioHorario == valor AND idReserva < ultimoId): orden descendente
+    private Criteria criteriaCursor(String cursor) {
+        String[] partes = PaginacionUtil.decodificarCursor(cursor, 2);
+        if (!ObjectId.isValid(partes[1])) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
+
+        LocalDateTime fechaInicio;
+        try {
+            fechaInicio = LocalDateTime.parse(partes[0]);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
 
-        return reservaActual;
+        // idReserva se guarda como texto hexadecimal: el orden de texto es el mismo que el de ObjectId
+        return new Criteria().orOperator(
+                Criteria.where("fechaInicioHorario").lt(fechaInicio),
+                new Criteria().andOperator(
+                        Criteria.where("fechaInicioHorario").is(fechaInicio),
+                        Criteria.where("idReserva").lt(partes[1])
+                )
+        );
     }
 }
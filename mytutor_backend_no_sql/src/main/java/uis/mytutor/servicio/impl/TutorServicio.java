@@ -1,15 +1,30 @@
 package uis.mytutor.servicio.impl;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import uis.mytutor.configuraciones.cache.PrincipalCache;
+import uis.mytutor.configuraciones.cache.TutorCache;
+import uis.mytutor.dto.EstadisticasCacheDTO;
+import uis.mytutor.dto.FiltroTutor;
+import uis.mytutor.dto.Pagina;
+import uis.mytutor.dto.ResumenResenasDTO;
 import uis.mytutor.dto.SolicitudTutor;
 import uis.mytutor.modelo.Tutor;
 import uis.mytutor.dto.TutorDTO;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Usuario;
 import uis.mytutor.repositorio.UsuarioRepositorio;
+import uis.mytutor.utilidades.PaginacionUtil;
+import uis.mytutor.utilidades.TextoUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class TutorServicio {
@@ -20,6 +35,21 @@ public class TutorServicio {
     @Autowired
     UsuarioRepositorio usuarioRepositorio;
 
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    TutorCache tutorCache;
+
+    @Autowired
+    PrincipalCache principalCache;
+
+    @Autowired
+    ReintentoOptimistaServicio reintentoOptimistaServicio;
+
     public static TutorDTO mapToTutorDTO(Usuario usuario) {
         if (usuario == null) {
             return null;
@@ -44,22 +74,79 @@ public class TutorServicio {
         dto.setPrecioHora(tutor.getPrecioHora());
         dto.setExperiencia(tutor.getExperiencia());
         dto.setMaterias(tutor.getMaterias());
-        dto.setResenas(tutor.getResenas());
         dto.setCalifiacionPromedio(tutor.getCalifiacionPromedio());
+        // Las reseñas están en su propia colección: aquí solo los contadores del perfil
+        // El histograma y las últimas reseñas los agrega TutorCache
+        dto.setResumenResenas(new ResumenResenasDTO(
+                tutor.getTotalResenas(), tutor.getCalifiacionPromedio(), null, null));
 
         return dto;
     }
 
-    // Obtener todos los tutores
-    public List<TutorDTO> getTutores() {
-        return usuarioRepositorio.findAll()
+    // Directorio de tutores activos, paginado por cursor (keyset) sobre _id
+    // Solo trae los campos de la tarjeta del tutor; las reseñas se piden aparte (ver ResenaControlador)
+    public Pagina<TutorDTO> getTutores(FiltroTutor filtro, String cursor, Integer tamano) {
+        if (filtro == null) filtro = new FiltroTutor();
+        int limite = PaginacionUtil.tamanoValido(tamano);
+
+        // Índice rol_tutorActivo_id: igualdad en rol y tutor.activo, orden y cursor por _id
+        Criteria criteria = Criteria.where("rol").is(Usuario.Rol.TUTOR)
+                .and("tutor.activo").is(true)
+                .and("activo").is(true);
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String ultimoId = PaginacionUtil.decodificarCursor(cursor, 1)[0];
+            if (!ObjectId.isValid(ultimoId)) {
+                throw new RuntimeException("El cursor de paginación no es válido.");
+            }
+            criteria.and("_id").gt(new ObjectId(ultimoId));
+        }
+
+        /* ---------------- FILTRO POR MATERIA (sin tildes, prefijo de palabra) ---------------- */
+        if (filtro.getMateria() != null && !filtro.getMateria().isEmpty()) {
+            criteria.and("tutor.materiasBusqueda").regex(TextoUtil.patronPrefijo(filtro.getMateria()));
+        }
+
+        /* ---------------- FILTRO POR NOMBRE (claves sin tildes, prefijo de palabra) ---------------- */
+        if (filtro.getNombre() != null && !filtro.getNombre().isBlank()) {
+            criteria.and("nombreBusqueda").regex(TextoUtil.patronPrefijo(filtro.getNombre().trim()));
+        }
+
+        /* ---------------- FILTRO POR PRECIO ---------------- */
+        if (filtro.getPrecioMin() != null || filtro.getPrecioMax() != null) {
+            Criteria precio = criteria.and("tutor.precioHora");
+            if (filtro.getPrecioMin() != null) precio.gte(filtro.getPrecioMin());
+            if (filtro.getPrecioMax() != null) precio.lte(filtro.getPrecioMax());
+        }
+
+        // Se pide un elemento de más para saber si hay otra página
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limite + 1);
+        query.fields().include(
+                "nombre", "apellido", "correo", "telefono", "fotoPerfil", "rol",
+                "tutor.bio", "tutor.precioHora", "tutor.experiencia", "tutor.materias", "tutor.califiacionPromedio",
+                "tutor.totalResenas"
+        );
+
+        List<TutorDTO> tutores = mongoTemplate.find(query, Usuario.class)
                 .stream()
-                .map(TutorServicio::mapToTutorDTO) // convierte cada Usuario a TutorDTO si es tutor
-                .toList();
+                .map(TutorServicio::mapToTutorDTO)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        String siguienteCursor = null;
+        if (tutores.size() > limite) {
+            tutores = new ArrayList<>(tutores.subList(0, limite));
+            siguienteCursor = PaginacionUtil.codificarCursor(tutores.get(limite - 1).getIdTutor());
+        }
+        return new Pagina<>(tutores, siguienteCursor);
     }
 
     // Que el propio usuario obtenga su información si es tutor tutor
-    public SolicitudTutor getTutor(Usuario usuarioActual) {
+    public SolicitudTutor getTutor(UsuarioPrincipal principal) {
+        // El principal no lleva el perfil de tutor: buscar el documento completo
+        Usuario usuarioActual = recargar(principal);
+
         // Validar rol
         if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
             throw new RuntimeException("Este usuario no es un tutor");
@@ -78,95 +165,145 @@ public class TutorServicio {
 
 
     // Obtener la información del tutor por id del usuario
+    // Se sirve desde la cache de tutores; solo va a Mongo si el perfil no está o expiró
     public TutorDTO getTutorPorId(String idUsuario) {
-        Usuario usuario = usuarioRepositorio.findById(idUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        TutorDTO tutor = tutorCache.obtener(idUsuario);
+        if (tutor != null) return tutor;
 
-        if (usuario.getRol() != Usuario.Rol.TUTOR || usuario.getTutor() == null) {
-            throw new RuntimeException("Este usuario no es un tutor");
+        // No está en cache: distinguir si el usuario no existe o si no es tutor
+        if (!usuarioRepositorio.existsById(idUsuario)) {
+            throw new RuntimeException("Usuario no encontrado");
         }
-        return mapToTutorDTO(usuario);
+        throw new RuntimeException("Este usuario no es un tutor");
     }
 
+    // Métricas de la cache de tutores (uso admin)
+    public EstadisticasCacheDTO estadisticasCache() {
+        return tutorCache.estadisticas();
+    }
 
 
-    // Que el propio usuario actualice su información si es tutor
-    public SolicitudTutor ActualizarInfoTutorMismoUsuario(Usuario usuarioActual, SolicitudTutor nuevaInfo) {
-        // Validar rol
-        if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
-            return null;
-        }
-
-        Tutor tutor = usuarioActual.getTutor();
-
-        // Actualizar campos
-        tutor.setBio(nuevaInfo.getBio());
-        tutor.setPrecioHora(nuevaInfo.getPrecioHora());
-        tutor.setExperiencia(nuevaInfo.getExperiencia());
-        tutor.setMaterias(nuevaInfo.getMaterias());
-
-        usuarioRepositorio.save(usuarioActual);
 
-        return nuevaInfo;
+    // Que el propio usuario actualice su información si es tutor
+    // Cada intento vuelve a leer el usuario y escribe condicionado a su versión
+    public SolicitudTutor ActualizarInfoTutorMismoUsuario(UsuarioPrincipal principal, SolicitudTutor nuevaInfo) {
+        return reintentoOptimistaServicio.ejecutar("tutor.actualizarPerfil", () -> {
+            Usuario usuarioActual = recargar(principal);
+
+            // Validar rol
+            if (usuarioActual.getRol() != Usuario.Rol.TUTOR || usuarioActual.getTutor() == null) {
+                return null;
+            }
+
+            Tutor tutor = usuarioActual.getTutor();
+
+            // Actualizar campos
+            tutor.setBio(nuevaInfo.getBio());
+            tutor.setPrecioHora(nuevaInfo.getPrecioHora());
+            tutor.setExperiencia(nuevaInfo.getExperiencia());
+            tutor.setMaterias(nuevaInfo.getMaterias());
+
+            // Solo los campos del perfil de tutor
+            usuarioRepositorio.actualizarPerfilTutor(usuarioActual, tutor);
+            invalidarCaches(usuarioActual);
+            horarioDisponibleServicio.sincronizarTutor(usuarioActual);
+
+            return nuevaInfo;
+        });
     }
 
 
     // Crear un tutor
-    public Tutor crearTutor(SolicitudTutor solicitud, Usuario usuarioActual) {
-
-        // 1. Validar que el usuario no sea ya tutor
-        if (usuarioActual.getRol() == Usuario.Rol.TUTOR && usuarioActual.getTutor() != null) {
-            throw new RuntimeException("El usuario ya es tutor.");
-        }
-
-        // 2. Crear el objeto Tutor
-        Tutor tutor = new Tutor();
-        tutor.setActivo(true);
-        tutor.setBio(solicitud.getBio());
-        tutor.setPrecioHora(solicitud.getPrecioHora());
-        tutor.setExperiencia(solicitud.getExperiencia());
-        tutor.setMaterias(solicitud.getMaterias());
-        tutor.setResenas(new ArrayList<>()); // Un tutor nuevo no tiene reseñas
-
-        // 3. Asignarlo al usuario
-        usuarioActual.setTutor(tutor);
-        usuarioActual.setRol(Usuario.Rol.TUTOR);
-
-        // 4. Guardar en MongoDB
-        usuarioRepositorio.save(usuarioActual);
-
-        return tutor;
+    public Tutor crearTutor(SolicitudTutor solicitud, UsuarioPrincipal principal) {
+        return reintentoOptimistaServicio.ejecutar("tutor.crear", () -> {
+            Usuario usuarioActual = recargar(principal);
+
+            // 1. Validar que el usuario no sea ya tutor
+            if (usuarioActual.getRol() == Usuario.Rol.TUTOR && usuarioActual.getTutor() != null) {
+                throw new RuntimeException("El usuario ya es tutor.");
+            }
+
+            // 2. Crear el objeto Tutor
+            Tutor tutor = new Tutor();
+            tutor.setActivo(true);
+            tutor.setBio(solicitud.getBio());
+            tutor.setPrecioHora(solicitud.getPrecioHora());
+            tutor.setExperiencia(solicitud.getExperiencia());
+            tutor.setMaterias(solicitud.getMaterias());
+
+            // Si vuelve a ser tutor, sus reseñas anteriores siguen en la colección resena:
+            // se conservan los contadores para que el promedio no se reinicie
+            Tutor anterior = usuarioActual.getTutor();
+            if (anterior != null) {
+                tutor.setSumaPuntuaciones(anterior.getSumaPuntuaciones());
+                tutor.setTotalResenas(anterior.getTotalResenas());
+                tutor.setCalifiacionPromedio(anterior.getCalifiacionPromedio());
+            }
+
+            // 3. Asignarlo al usuario
+            usuarioActual.setTutor(tutor);
+            usuarioActual.setRol(Usuario.Rol.TUTOR);
+
+            // 4. Guardar en MongoDB (solo tutor y rol)
+            usuarioRepositorio.asignarTutor(usuarioActual, tutor);
+            invalidarCaches(usuarioActual);
+            horarioDisponibleServicio.sincronizarTutor(usuarioActual);
+
+            return tutor;
+        });
     }
 
     // Que el tutor se soft borre a si mismo
-    public boolean tutorSeDesactivaElMismo(Usuario UsuarioQueSolicita) {
-        if (UsuarioQueSolicita.getRol() == Usuario.Rol.TUTOR && UsuarioQueSolicita.getTutor() != null) {
-            UsuarioQueSolicita.getTutor().setActivo(false);
-            UsuarioQueSolicita.setRol(Usuario.Rol.ESTUDIANTE);
-            usuarioRepositorio.save(UsuarioQueSolicita);
-            return true;
-        }
-        return false;
+    public boolean tutorSeDesactivaElMismo(UsuarioPrincipal principal) {
+        return reintentoOptimistaServicio.ejecutar("tutor.desactivar", () -> {
+            Usuario UsuarioQueSolicita = recargar(principal);
+
+            if (UsuarioQueSolicita.getRol() == Usuario.Rol.TUTOR && UsuarioQueSolicita.getTutor() != null) {
+                UsuarioQueSolicita.getTutor().setActivo(false);
+                UsuarioQueSolicita.setRol(Usuario.Rol.ESTUDIANTE);
+                usuarioRepositorio.desactivarTutor(UsuarioQueSolicita);
+                invalidarCaches(UsuarioQueSolicita);
+                horarioDisponibleServicio.sincronizarTutor(UsuarioQueSolicita);
+                return true;
+            }
+            return false;
+        });
     }
 
     // Soft borrar tutor por id
     public boolean desactivarTutorPorId(String idUsuarioTutor) {
-        // 1. Buscar el usuario
-        Usuario usuario = usuarioRepositorio.findById(idUsuarioTutor)
-                .orElse(null);
-        if (usuario == null) {
-            return false; // No existe
-        }
-        // 2. Validar que sea tutor
-        if (usuario.getRol() != Usuario.Rol.TUTOR || usuario.getTutor() == null) {
-            return false; // No es tutor, no se puede desactivar
-        }
-        // 3. Realizar soft delete del tutor
-        usuario.getTutor().setActivo(false);
-        usuario.setRol(Usuario.Rol.ESTUDIANTE);
+        return reintentoOptimistaServicio.ejecutar("tutor.desactivar", () -> {
+            // 1. Buscar el usuario
+            Usuario usuario = usuarioRepositorio.findById(idUsuarioTutor)
+                    .orElse(null);
+            if (usuario == null) {
+                return false; // No existe
+            }
+            // 2. Validar que sea tutor
+            if (usuario.getRol() != Usuario.Rol.TUTOR || usuario.getTutor() == null) {
+                return false; // No es tutor, no se puede desactivar
+            }
+            // 3. Realizar soft delete del tutor
+            usuario.getTutor().setActivo(false);
+            usuario.setRol(Usuario.Rol.ESTUDIANTE);
+
+            usuarioRepositorio.desactivarTutor(usuario);
+            invalidarCaches(usuario);
+            horarioDisponibleServicio.sincronizarTutor(usuario);
+            return true;
+        });
+    }
+
+
+    // Documento completo del usuario autenticado (el principal solo trae id, rol y estado)
+    private Usuario recargar(UsuarioPrincipal principal) {
+        return usuarioRepositorio.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
 
-        usuarioRepositorio.save(usuario);
-        return true;
+    private void invalidarCaches(Usuario usuario) {
+        tutorCache.invalidar(usuario.getId());
+        principalCache.invalidar(usuario.getNombreUsuario());
     }
 
 
@@ -1,14 +1,27 @@
 package uis.mytutor.servicio.impl;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import uis.mytutor.configuraciones.cache.PrincipalCache;
+import uis.mytutor.configuraciones.cache.TutorCache;
+import uis.mytutor.dto.FiltroUsuario;
+import uis.mytutor.dto.Pagina;
 import uis.mytutor.dto.SolicitudRegistro;
 import uis.mytutor.dto.UsuarioDTO;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Usuario;
 import uis.mytutor.repositorio.UsuarioRepositorio;
 import uis.mytutor.servicio.interfaz.IUsuarioServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
+import uis.mytutor.utilidades.TextoUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -17,9 +30,24 @@ public class UsuarioServicio implements IUsuarioServicio {
     @Autowired
     UsuarioRepositorio usuarioRepositorio;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    private TutorCache tutorCache;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private ReintentoOptimistaServicio reintentoOptimistaServicio;
+
     // Escencial para el DTO
     public static UsuarioDTO toDTO(Usuario usuario) {
         if (usuario == null) {
@@ -52,13 +80,56 @@ public class UsuarioServicio implements IUsuarioServicio {
         return usr;
     }
 
-    // Listar todos los usuarios
+    // Listar los usuarios (pantalla de admin), paginado por cursor (keyset) sobre _id
+    // Solo se leen los campos de UsuarioDTO: ni contraseña ni perfil de tutor
     @Override
-    public List<UsuarioDTO> getUsuarios() {
-        return usuarioRepositorio.findAll()
-                .stream()
-                .map(UsuarioServicio::toDTO) // convierte cada Usuario en UsuarioDTO
-                .toList();
+    public Pagina<UsuarioDTO> getUsuarios(FiltroUsuario filtro, String cursor, Integer tamano) {
+        if (filtro == null) filtro = new FiltroUsuario();
+        int limite = PaginacionUtil.tamanoValido(tamano);
+
+        Query query = new Query();
+
+        /* ---------------- FILTROS POR ROL Y ESTADO (índice rol_activo_id) ---------------- */
+        if (filtro.getRol() != null) {
+            query.addCriteria(Criteria.where("rol").is(filtro.getRol()));
+        }
+        if (filtro.getActivo() != null) {
+            query.addCriteria(Criteria.where("activo").is(filtro.getActivo()));
+        }
+
+        /* ---------------- BÚSQUEDA POR PREFIJO ---------------- */
+        // nombre y apellido: claves normalizadas sin tildes (índice nombreBusqueda)
+        // nombreUsuario: tal cual se guardó (índice único de nombreUsuario)
+        if (filtro.getBusqueda() != null && !filtro.getBusqueda().isBlank()) {
+            String busqueda = filtro.getBusqueda().trim();
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("nombreBusqueda").regex(TextoUtil.patronPrefijo(busqueda)),
+                    Criteria.where("nombreUsuario").regex(TextoUtil.patronPrefijoExacto(busqueda))
+            ));
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String ultimoId = PaginacionUtil.decodificarCursor(cursor, 1)[0];
+            if (!ObjectId.isValid(ultimoId)) {
+                throw new RuntimeException("El cursor de paginación no es válido.");
+            }
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(ultimoId)));
+        }
+
+        // Se pide un elemento de más para saber si hay otra página
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limite + 1);
+
+        List<UsuarioDTO> usuarios = mongoTemplate.query(Usuario.class)
+                .as(UsuarioDTO.class)
+                .matching(query)
+                .all();
+
+        String siguienteCursor = null;
+        if (usuarios.size() > limite) {
+            usuarios = new ArrayList<>(usuarios.subList(0, limite));
+            siguienteCursor = PaginacionUtil.codificarCursor(usuarios.get(limite - 1).getId());
+        }
+        return new Pagina<>(usuarios, siguienteCursor);
     }
 
     // Obtener usuario por ID
@@ -75,7 +146,7 @@ public class UsuarioServicio implements IUsuarioServicio {
 
     // Obtener el propio usuario
     @Override
-    public Usuario getMyUsuario(Usuario usuarioActual){
+    public Usuario getMyUsuario(UsuarioPrincipal usuarioActual){
         return getUsuarioEntityById(usuarioActual.getId());
     }
 
@@ -164,7 +235,7 @@ public class UsuarioServicio implements IUsuarioServicio {
     // Actualizar usuario
     // Un admin puede actualizar cualquier usuario
     // Si no es admin solo se puede actualizarse a si mismo
-    public UsuarioDTO updateUsuario(Usuario datosActualizados, Usuario usuarioQueSolicita, String rolSolicitado) {
+    public UsuarioDTO updateUsuario(Usuario datosActualizados, UsuarioPrincipal usuarioQueSolicita, String rolSolicitado) {
 
         if (datosActualizados == null) {
             throw new RuntimeException("Los datos a actualizar no pueden ser nulos.");
@@ -181,11 +252,6 @@ public class UsuarioServicio implements IUsuarioServicio {
             throw new RuntimeException("No tienes permisos para actualizar este usuario.");
         }
 
-        Usuario existe = getUsuarioEntityById(idObjetivo);
-        if (existe == null) {
-            throw new RuntimeException("El usuario a actualizar no existe.");
-        }
-
         validarCamposUsuario(
                 datosActualizados.getNombre(),
                 datosActualizados.getApellido(),
@@ -198,44 +264,73 @@ public class UsuarioServicio implements IUsuarioServicio {
                 idObjetivo // evitar choque con su propio username
         );
 
-        // Actualizar campos
-        existe.setNombre(datosActualizados.getNombre());
-        existe.setApellido(datosActualizados.getApellido());
-        existe.setCorreo(datosActualizados.getCorreo());
-        existe.setTelefono(datosActualizados.getTelefono());
-        existe.setFotoPerfil(datosActualizados.getFotoPerfil());
-        existe.setNombreUsuario(datosActualizados.getNombreUsuario());
+        // La contraseña se codifica una sola vez, fuera de los reintentos
+        String passwordCodificada = isNullOrEmpty(datosActualizados.getPassword())
+                ? null
+                : passwordEncoder.encode(datosActualizados.getPassword());
 
-        if (!isNullOrEmpty(datosActualizados.getPassword())) {
-            existe.setPassword(passwordEncoder.encode(datosActualizados.getPassword()));
-        }
+        String idUsuario = idObjetivo;
+        return reintentoOptimistaServicio.ejecutar("usuario.actualizar", () -> {
+            Usuario existe = getUsuarioEntityById(idUsuario);
+            if (existe == null) {
+                throw new RuntimeException("El usuario a actualizar no existe.");
+            }
+
+            // Actualizar campos
+            // El token sigue llevando el nombre de usuario anterior
+            String nombreUsuarioAnterior = existe.getNombreUsuario();
+
+            existe.setNombre(datosActualizados.getNombre());
+            existe.setApellido(datosActualizados.getApellido());
+            existe.setCorreo(datosActualizados.getCorreo());
+            existe.setTelefono(datosActualizados.getTelefono());
+            existe.setFotoPerfil(datosActualizados.getFotoPerfil());
+            existe.setNombreUsuario(datosActualizados.getNombreUsuario());
+            if (passwordCodificada != null) {
+                existe.setPassword(passwordCodificada);
+            }
+
+            // Solo los datos personales: el perfil de tutor no se reescribe
+            usuarioRepositorio.actualizarDatosPersonales(existe, passwordCodificada);
+            tutorCache.invalidar(existe.getId());
+            principalCache.invalidar(nombreUsuarioAnterior);
 
-        Usuario actualizado = usuarioRepositorio.save(existe);
-        return toDTO(actualizado);
+            // El nombre del tutor está copiado en sus horarios disponibles
+            if (existe.getRol() == Usuario.Rol.TUTOR) {
+                horarioDisponibleServicio.sincronizarTutor(existe);
+            }
+            return toDTO(existe);
+        });
     }
 
 
 
     // Borrar usuario soft delete
     public boolean deleteUsuarioById(String id){
-        Usuario usuario = getUsuarioEntityById(id); // lanza EntityNotFoundException si no existe
-        if (usuario != null){
-            usuario.setActivo(false);
-            usuarioRepositorio.save(usuario);
-            return true;
-        }
-        return false;
+        return reintentoOptimistaServicio.ejecutar("usuario.desactivar", () -> {
+            Usuario usuario = getUsuarioEntityById(id); // lanza EntityNotFoundException si no existe
+            if (usuario != null){
+                usuario.setActivo(false);
+                usuarioRepositorio.actualizarActivo(usuario, false);
+                principalCache.invalidar(usuario.getNombreUsuario());
+                return true;
+            }
+            return false;
+        });
     }
 
     // Borrarse a si mismo soft delete
-    public boolean deleteUsuario(Usuario usuarioQueSolicita){
-        Usuario usuario = getUsuarioEntityById(usuarioQueSolicita.getId());
-        if (usuario != null) {
-            usuario.setActivo(false);
-            usuarioRepositorio.save(usuario);
-            return true;
-        }
-        return false;
+    public boolean deleteUsuario(UsuarioPrincipal usuarioQueSolicita){
+        return reintentoOptimistaServicio.ejecutar("usuario.desactivar", () -> {
+            Usuario usuario = getUsuarioEntityById(usuarioQueSolicita.getId());
+            if (usuario != null) {
+                usuario.setActivo(false);
+                usuarioRepositorio.actualizarActivo(usuario, false);
+                principalCache.invalidar(usuario.getNombreUsuario());
+                return true;
+            }
+            return false;
+        });
     }
 
 }
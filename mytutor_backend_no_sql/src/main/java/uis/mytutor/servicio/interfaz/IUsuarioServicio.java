@@ -1,21 +1,22 @@
 package uis.mytutor.servicio.interfaz;
 
+import uis.mytutor.dto.FiltroUsuario;
+import uis.mytutor.dto.Pagina;
 import uis.mytutor.dto.SolicitudRegistro;
 import uis.mytutor.dto.UsuarioDTO;
+import uis.mytutor.dto.UsuarioPrincipal;
 import uis.mytutor.modelo.Usuario;
 
-import java.util.List;
-
 public interface IUsuarioServicio {
 
-    // Listar todos los usuarios
-    List<UsuarioDTO> getUsuarios();
+    // Listar usuarios con filtros, paginado por cursor
+    Pagina<UsuarioDTO> getUsuarios(FiltroUsuario filtro, String cursor, Integer tamano);
 
     // Obtener usuario por id
     UsuarioDTO getUsuarioById(String id);
 
     // Obtenerse a si mismo
-    Usuario getMyUsuario(Usuario usuarioActual);
+    Usuario getMyUsuario(UsuarioPrincipal usuarioActual);
 
     // Obtener usuario por id (SOLO BACK)
     Usuario getUsuarioEntityById(String id);
@@ -24,12 +25,12 @@ public interface IUsuarioServicio {
     UsuarioDTO register(SolicitudRegistro solicitud);
 
     // Actualizar usuario
-    UsuarioDTO updateUsuario(Usuario usuario, Usuario usuarioActual, String rol);
+    UsuarioDTO updateUsuario(Usuario usuario, UsuarioPrincipal usuarioActual, String rol);
 
     // Borrar usuario
     boolean deleteUsuarioById(String id);
 
     // Borrarse a si mismo
-    boolean deleteUsuario(Usuario nombreUsuario);
+    boolean deleteUsuario(UsuarioPrincipal nombreUsuario);
 
 }
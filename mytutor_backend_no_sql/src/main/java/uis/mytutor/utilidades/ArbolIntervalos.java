@@ -0,0 +1,126 @@
+package uis.mytutor.utilidades;
+
+// Árbol de intervalos [inicio, fin) sobre un AVL ordenado por inicio
+// Cada nodo guarda el fin máximo de su subárbol para descartar ramas al buscar cruces
+// Insertar y consultar cuestan O(log n); no es seguro entre hilos (se usa dentro de una petición)
+public class ArbolIntervalos<T extends Comparable<? super T>> {
+
+    private class Nodo {
+        final T inicio;
+        final T fin;
+        T finMaximo;
+        int altura = 1;
+        Nodo izquierdo;
+        Nodo derecho;
+
+        Nodo(T inicio, T fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.finMaximo = fin;
+        }
+    }
+
+    private Nodo raiz;
+    private int tamano;
+
+    public int tamano() {
+        return tamano;
+    }
+
+    // Altura del AVL (para comprobar el balanceo en las pruebas)
+    int altura() {
+        return altura(raiz);
+    }
+
+    public void insertar(T inicio, T fin) {
+        if (inicio.compareTo(fin) >= 0) {
+            throw new IllegalArgumentException("El inicio del intervalo debe ser anterior al fin.");
+        }
+        raiz = insertar(raiz, inicio, fin);
+        tamano++;
+    }
+
+    // Dos intervalos [a, b) y [c, d) se cruzan si a < d y c < b (compartir un extremo no es cruce)
+    public boolean seCruza(T inicio, T fin) {
+        Nodo nodo = raiz;
+        while (nodo != null) {
+            if (inicio.compareTo(nodo.fin) < 0 && nodo.inicio.compareTo(fin) < 0) {
+                return true;
+            }
+            // Si algún intervalo de la izquierda termina después de nuestro inicio y no hay cruce ahí,
+            // ese intervalo empieza en o después de nuestro fin, y todos los de la derecha empiezan aún más tarde
+            if (nodo.izquierdo != null && inicio.compareTo(nodo.izquierdo.finMaximo) < 0) {
+                nodo = nodo.izquierdo;
+            } else {
+                nodo = nodo.derecho;
+            }
+        }
+        return false;
+    }
+
+    private Nodo insertar(Nodo nodo, T inicio, T fin) {
+        if (nodo == null) return new Nodo(inicio, fin);
+
+        if (inicio.compareTo(nodo.inicio) < 0) {
+            nodo.izquierdo = insertar(nodo.izquierdo, inicio, fin);
+        } else {
+            nodo.derecho = insertar(nodo.derecho, inicio, fin);
+        }
+        actualizar(nodo);
+        return balancear(nodo);
+    }
+
+    private Nodo balancear(Nodo nodo) {
+        int factor = altura(nodo.izquierdo) - altura(nodo.derecho);
+
+        if (factor > 1) {
+            if (altura(nodo.izquierdo.izquierdo) < altura(nodo.izquierdo.derecho)) {
+                nodo.izquierdo = rotarIzquierda(nodo.izquierdo);
+            }
+            return rotarDerecha(nodo);
+        }
+        if (factor < -1) {
+            if (altura(nodo.derecho.derecho) < altura(nodo.derecho.izquierdo)) {
+                nodo.derecho = rotarDerecha(nodo.derecho);
+            }
+            return rotarIzquierda(nodo);
+        }
+        return nodo;
+    }
+
+    private Nodo rotarDerecha(Nodo nodo) {
+        Nodo nuevaRaiz = nodo.izquierdo;
+        nodo.izquierdo = nuevaRaiz.derecho;
+        nuevaRaiz.derecho = nodo;
+        actualizar(nodo);
+        actualizar(nuevaRaiz);
+        return nuevaRaiz;
+    }
+
+    private Nodo rotarIzquierda(Nodo nodo) {
+        Nodo nuevaRaiz = nodo.derecho;
+        nodo.derecho = nuevaRaiz.izquierdo;
+        nuevaRaiz.izquierdo = nodo;
+        actualizar(nodo);
+        actualizar(nuevaRaiz);
+        return nuevaRaiz;
+    }
+
+    // Recalcular altura y fin máximo a partir de los hijos
+    private void actualizar(Nodo nodo) {
+        nodo.altura = 1 + Math.max(altura(nodo.izquierdo), altura(nodo.derecho));
+
+        T maximo = nodo.fin;
+        if (nodo.izquierdo != null && nodo.izquierdo.finMaximo.compareTo(maximo) > 0) {
+            maximo = nodo.izquierdo.finMaximo;
+        }
+        if (nodo.derecho != null && nodo.derecho.finMaximo.compareTo(maximo) > 0) {
+            maximo = nodo.derecho.finMaximo;
+        }
+        nodo.finMaximo = maximo;
+    }
+
+    private int altura(Nodo nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+}
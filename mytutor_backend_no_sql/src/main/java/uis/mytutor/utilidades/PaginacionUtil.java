@@ -0,0 +1,56 @@
+package uis.mytutor.utilidades;
+
+import org.springframework.http.ResponseEntity;
+import uis.mytutor.dto.Pagina;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+public final class PaginacionUtil {
+
+    // Cabecera con el token para pedir la siguiente página
+    public static final String CABECERA_CURSOR = "X-Siguiente-Cursor";
+
+    public static final int TAMANO_POR_DEFECTO = 20;
+    public static final int TAMANO_MAXIMO = 100;
+
+    private static final String SEPARADOR = "|";
+
+    private PaginacionUtil() {
+    }
+
+    // Limitar el tamaño de página pedido por el cliente
+    public static int tamanoValido(Integer tamano) {
+        if (tamano == null || tamano <= 0) return TAMANO_POR_DEFECTO;
+        return Math.min(tamano, TAMANO_MAXIMO);
+    }
+
+    // Token opaco para el cliente: base64 de los valores de la última fila entregada
+    public static String codificarCursor(String... partes) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARADOR, partes).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodificarCursor(String cursor, int partesEsperadas) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\" + SEPARADOR, -1);
+            if (partes.length != partesEsperadas) {
+                throw new IllegalArgumentException();
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("El cursor de paginación no es válido.");
+        }
+    }
+
+    // Respuesta con la lista en el cuerpo y el cursor en la cabecera
+    public static <T> ResponseEntity<List<T>> respuesta(Pagina<T> pagina) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            builder.header(CABECERA_CURSOR, pagina.getSiguienteCursor());
+        }
+        return builder.body(pagina.getItems());
+    }
+}
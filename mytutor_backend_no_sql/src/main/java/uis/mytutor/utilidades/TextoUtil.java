@@ -0,0 +1,64 @@
+package uis.mytutor.utilidades;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class TextoUtil {
+
+    private TextoUtil() {
+    }
+
+    // Busqueda de texto sin tildes
+    public static String normalizar(String texto) {
+        if (texto == null) return null;
+
+        return Normalizer
+                .normalize(texto, Normalizer.Form.NFD) // separa caracteres base + tildes
+                .replaceAll("\\p{M}", "")               // elimina tildes
+                .toLowerCase()                          // pasa a minúsculas
+                .trim();
+    }
+
+    // Claves de búsqueda precalculadas: el texto completo normalizado y cada una de sus palabras
+    // ej. "José Pérez" -> ["jose perez", "jose", "perez"]
+    public static List<String> clavesBusqueda(Collection<String> textos) {
+        Set<String> claves = new LinkedHashSet<>();
+        if (textos == null) return new ArrayList<>();
+
+        for (String texto : textos) {
+            String normalizado = normalizar(texto);
+            if (normalizado == null || normalizado.isEmpty()) continue;
+
+            normalizado = normalizado.replaceAll("\\s+", " ");
+            claves.add(normalizado);
+            claves.addAll(Arrays.asList(normalizado.split(" ")));
+        }
+        return new ArrayList<>(claves);
+    }
+
+    // Expresión regular anclada al inicio (^...) para que Mongo use el índice de las claves de búsqueda
+    public static String patronPrefijo(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado == null) return null;
+
+        return patronPrefijoExacto(normalizado.replaceAll("\\s+", " "));
+    }
+
+    // Igual que patronPrefijo pero sin normalizar: para campos guardados tal cual (ej. nombreUsuario)
+    public static String patronPrefijoExacto(String texto) {
+        if (texto == null) return null;
+
+        StringBuilder patron = new StringBuilder("^");
+        for (char c : texto.toCharArray()) {
+            // Escapar cualquier caracter especial de regex
+            if (!Character.isLetterOrDigit(c) && c != ' ') patron.append('\\');
+            patron.append(c);
+        }
+        return patron.toString();
+    }
+}
@@ -0,0 +1,224 @@
+package uis.mytutor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import uis.mytutor.configuraciones.jwt.JwtUtil;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.Materia;
+import uis.mytutor.modelo.Reserva;
+import uis.mytutor.modelo.Tutor;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.ReservaRepositorio;
+import uis.mytutor.repositorio.UsuarioRepositorio;
+import uis.mytutor.servicio.impl.HorarioDisponibleServicio;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compara peticiones por segundo y latencia p99 de la API con hilos de plataforma y con hilos virtuales
+// Levanta la aplicación una vez por modo (spring.threads.virtual.enabled) y lanza la misma carga HTTP
+// sobre GET /api/horario/disponibles y GET /api/reserva
+// Ejecutar con: mvn test -Dbenchmark=true -Dtest=HilosVirtualesBenchmarkTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HilosVirtualesBenchmarkTest {
+
+    // Más clientes simultáneos que hilos de Tomcat (200 por defecto) para que el pool se sature
+    private static final int CLIENTES = 400;
+    private static final int PETICIONES_POR_CLIENTE = 20;
+    private static final int HORARIOS = 200;
+    private static final int RESERVAS = 50;
+
+    private static final String ESTUDIANTE = "benchmark_hilos_estudiante";
+    private static final String TUTOR = "benchmark_hilos_tutor";
+
+    private record Datos(List<String> idsUsuarios, List<String> idsHorarios, List<String> idsReservas) {
+    }
+
+    private record Resultado(String modo, double peticionesPorSegundo, double p50Ms, double p99Ms, int errores) {
+    }
+
+    @Test
+    void compararModosDeEjecucion() throws Exception {
+        Resultado plataforma = ejecutar(false);
+        Resultado virtuales = ejecutar(true);
+
+        imprimir(plataforma);
+        imprimir(virtuales);
+        System.out.printf("Hilos virtuales: x%.2f peticiones por segundo, p99 x%.2f%n",
+                virtuales.peticionesPorSegundo() / plataforma.peticionesPorSegundo(),
+                virtuales.p99Ms() / plataforma.p99Ms());
+
+        assertEquals(0, plataforma.errores());
+        assertEquals(0, virtuales.errores());
+    }
+
+    private Resultado ejecutar(boolean hilosVirtuales) throws Exception {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(MytutorApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "app.mongo.indices.verificar=false",
+                        "logging.level.org.springframework.security=WARN")
+                .run()) {
+
+            Datos datos = sembrarDatos(contexto);
+            try {
+                int puerto = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                String token = contexto.getBean(JwtUtil.class).generateToken(ESTUDIANTE, "ESTUDIANTE");
+                List<URI> uris = List.of(
+                        URI.create("http://localhost:" + puerto + "/api/horario/disponibles?tamano=20"),
+                        URI.create("http://localhost:" + puerto + "/api/reserva?tamano=20")
+                );
+
+                String modo = hilosVirtuales ? "hilos virtuales" : "hilos de plataforma";
+                cargar(modo, uris, token, CLIENTES / 4, 5); // calentamiento
+                return cargar(modo, uris, token, CLIENTES, PETICIONES_POR_CLIENTE);
+            } finally {
+                limpiarDatos(contexto, datos);
+            }
+        }
+    }
+
+    // Todos los clientes arrancan a la vez y cada uno alterna entre los endpoints
+    private Resultado cargar(String modo, List<URI> uris, String token, int clientes, int peticiones)
+            throws InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long[] latencias = new long[clientes * peticiones];
+        AtomicInteger indice = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        long inicio;
+        try (ExecutorService hilosClientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int numeroCliente = c;
+                hilosClientes.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < peticiones; i++) {
+                        HttpRequest peticion = HttpRequest.newBuilder(uris.get((numeroCliente + i) % uris.size()))
+                                .header("Authorization", "Bearer " + token)
+                                .GET()
+                                .build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+                            if (respuesta.statusCode() != 200) errores.incrementAndGet();
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        latencias[indice.getAndIncrement()] = System.nanoTime() - t0;
+                    }
+                    return null;
+                });
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+        } // close() espera a que terminen todos los clientes
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        long[] ordenadas = Arrays.copyOf(latencias, indice.get());
+        Arrays.sort(ordenadas);
+        return new Resultado(
+                modo,
+                ordenadas.length / segundos,
+                percentilMs(ordenadas, 0.50),
+                percentilMs(ordenadas, 0.99),
+                errores.get()
+        );
+    }
+
+    private double percentilMs(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) return 0;
+        int posicion = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(posicion, 0)] / 1_000_000.0;
+    }
+
+    private void imprimir(Resultado resultado) {
+        System.out.printf("%s: %.0f peticiones/s, p50 %.1f ms, p99 %.1f ms, %d errores (%d clientes x %d peticiones)%n",
+                resultado.modo(), resultado.peticionesPorSegundo(), resultado.p50Ms(), resultado.p99Ms(),
+                resultado.errores(), CLIENTES, PETICIONES_POR_CLIENTE);
+    }
+
+    // Un tutor con horarios futuros y un estudiante con reservas en algunos de ellos
+    private Datos sembrarDatos(ConfigurableApplicationContext contexto) {
+        UsuarioRepositorio usuarioRepositorio = contexto.getBean(UsuarioRepositorio.class);
+        HorarioRepositorio horarioRepositorio = contexto.getBean(HorarioRepositorio.class);
+        ReservaRepositorio reservaRepositorio = contexto.getBean(ReservaRepositorio.class);
+
+        Tutor perfil = new Tutor();
+        perfil.setBio("bio");
+        perfil.setExperiencia("experiencia");
+        perfil.setPrecioHora(30);
+        perfil.setMaterias(List.of(new Materia("Matemáticas", 5)));
+        Usuario tutor = usuarioRepositorio.save(usuario(TUTOR, Usuario.Rol.TUTOR, perfil));
+        Usuario estudiante = usuarioRepositorio.save(usuario(ESTUDIANTE, Usuario.Rol.ESTUDIANTE, null));
+
+        List<Horario> horarios = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < HORARIOS; i++) {
+            Horario horario = new Horario();
+            horario.setIdTutor(tutor.getId());
+            horario.setFechaInicio(base.plusHours(i));
+            horario.setFechaFin(base.plusHours(i).plusMinutes(50));
+            horario.setDisponible(true);
+            horarios.add(horario);
+        }
+        horarios = horarioRepositorio.saveAll(horarios);
+        contexto.getBean(HorarioDisponibleServicio.class).sincronizarHorariosNuevos(tutor.getId(), horarios);
+
+        List<Reserva> reservas = new ArrayList<>();
+        for (Horario horario : horarios.subList(0, RESERVAS)) {
+            Reserva reserva = new Reserva();
+            reserva.setIdHorario(horario.getId());
+            reserva.setIdUsuario(estudiante.getId());
+            reserva.setFechaInicioHorario(horario.getFechaInicio());
+            reservas.add(reserva);
+        }
+        reservaRepositorio.insert(reservas);
+
+        return new Datos(
+                List.of(tutor.getId(), estudiante.getId()),
+                horarios.stream().map(Horario::getId).toList(),
+                reservas.stream().map(Reserva::getId).toList()
+        );
+    }
+
+    private Usuario usuario(String nombreUsuario, Usuario.Rol rol, Tutor tutor) {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Benchmark");
+        usuario.setApellido("Hilos");
+        usuario.setCorreo(nombreUsuario + "@correo.com");
+        usuario.setTelefono("3000000000");
+        usuario.setNombreUsuario(nombreUsuario);
+        usuario.setPassword("x");
+        usuario.setRol(rol);
+        usuario.setTutor(tutor);
+        return usuario;
+    }
+
+    private void limpiarDatos(ConfigurableApplicationContext contexto, Datos datos) {
+        contexto.getBean(ReservaRepositorio.class).deleteAllById(datos.idsReservas());
+        contexto.getBean(HorarioRepositorio.class).deleteAllById(datos.idsHorarios());
+        contexto.getBean(UsuarioRepositorio.class).deleteAllById(datos.idsUsuarios());
+        contexto.getBean(HorarioDisponibleServicio.class).reindexar();
+    }
+}
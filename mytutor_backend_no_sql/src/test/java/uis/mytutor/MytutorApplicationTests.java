@@ -3,7 +3,11 @@ package uis.mytutor;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Solo el cableado del contexto: sin tareas de arranque que necesiten Mongo
+@SpringBootTest(properties = {
+        "app.mongo.inicializar=false",
+        "app.mongo.indices.verificar=false"
+})
 class MytutorApplicationTests {
 
     @Test
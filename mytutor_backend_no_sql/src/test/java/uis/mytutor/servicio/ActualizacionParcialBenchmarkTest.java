@@ -0,0 +1,120 @@
+package uis.mytutor.servicio;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import uis.mytutor.modelo.Materia;
+import uis.mytutor.modelo.Tutor;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.UsuarioRepositorio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compara save() del documento completo con la actualización parcial ($set) sobre un tutor grande
+// Ejecutar con: mvn test -Dbenchmark=true -Dtest=ActualizacionParcialBenchmarkTest
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ActualizacionParcialBenchmarkTest {
+
+    private static final int MATERIAS = 300;
+    private static final int LARGO_BIO = 50_000;
+    private static final int REPETICIONES = 200;
+
+    @Autowired
+    UsuarioRepositorio usuarioRepositorio;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private Usuario tutorGrande;
+
+    @BeforeEach
+    void sembrarDatos() {
+        List<Materia> materias = new ArrayList<>();
+        for (int i = 0; i < MATERIAS; i++) {
+            materias.add(new Materia("Materia de prueba número " + i, 5));
+        }
+
+        Tutor tutor = new Tutor();
+        tutor.setBio("x".repeat(LARGO_BIO));
+        tutor.setExperiencia("experiencia");
+        tutor.setPrecioHora(30);
+        tutor.setMaterias(materias);
+
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Benchmark");
+        usuario.setApellido("Parcial");
+        usuario.setCorreo("parcial@correo.com");
+        usuario.setTelefono("3000000000");
+        usuario.setNombreUsuario("benchmark_parcial");
+        usuario.setPassword("x");
+        usuario.setRol(Usuario.Rol.TUTOR);
+        usuario.setTutor(tutor);
+        tutorGrande = usuarioRepositorio.save(usuario);
+    }
+
+    @AfterEach
+    void limpiarDatos() {
+        usuarioRepositorio.deleteById(tutorGrande.getId());
+    }
+
+    @Test
+    void compararSaveConActualizacionParcial() {
+        // Bytes enviados: documento completo contra el $set de un solo campo
+        Document completo = new Document();
+        mongoTemplate.getConverter().write(tutorGrande, completo);
+        Document parcial = new Update().set("activo", false).inc("version", 1).getUpdateObject();
+
+        int bytesCompleto = bytes(completo);
+        int bytesParcial = bytes(parcial);
+        System.out.println("save(): " + bytesCompleto + " bytes por escritura");
+        System.out.println("actualización parcial: " + bytesParcial + " bytes por escritura");
+
+        // Latencia: alternar activo con cada estrategia
+        long msSave = medir("save()", i -> {
+            tutorGrande.setActivo(i % 2 == 0);
+            usuarioRepositorio.save(tutorGrande);
+        });
+        long msParcial = medir("actualización parcial", i ->
+                usuarioRepositorio.actualizarActivo(tutorGrande, i % 2 == 0));
+
+        System.out.println("Ahorro: " + (bytesCompleto - bytesParcial) + " bytes y "
+                + (msSave - msParcial) + " ms en " + REPETICIONES + " escrituras");
+
+        assertTrue(bytesParcial < bytesCompleto);
+        // La actualización parcial no tocó el perfil de tutor
+        Usuario guardado = usuarioRepositorio.findById(tutorGrande.getId()).orElseThrow();
+        assertFalse(guardado.getTutor().getMaterias().isEmpty());
+    }
+
+    private interface Escritura {
+        void ejecutar(int i);
+    }
+
+    private long medir(String nombre, Escritura escritura) {
+        escritura.ejecutar(0); // calentamiento
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            escritura.ejecutar(i);
+        }
+        long totalMs = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.println(nombre + ": " + totalMs + " ms en total (" + REPETICIONES + " escrituras)");
+        return totalMs;
+    }
+
+    private int bytes(Document documento) {
+        return new RawBsonDocument(documento, mongoTemplate.getDb().getCodecRegistry().get(Document.class))
+                .getByteBuffer().remaining();
+    }
+}
@@ -0,0 +1,162 @@
+package uis.mytutor.servicio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import uis.mytutor.dto.FiltroHorario;
+import uis.mytutor.dto.HorarioDisponibleDTO;
+import uis.mytutor.dto.OrdenHorario;
+import uis.mytutor.dto.Pagina;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.Materia;
+import uis.mytutor.modelo.Tutor;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.UsuarioRepositorio;
+import uis.mytutor.servicio.impl.HorarioConsultaServicio;
+import uis.mytutor.servicio.impl.HorarioDisponibleServicio;
+import uis.mytutor.utilidades.PaginacionUtil;
+import uis.mytutor.utilidades.TextoUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compara el pipeline anterior (findAll + stream en Java) con la consulta sobre horario_disponible
+// Ejecutar con: mvn test -Dbenchmark=true -Dtest=HorarioConsultaBenchmarkTest
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HorarioConsultaBenchmarkTest {
+
+    private static final int TUTORES = 20;
+    private static final int HORARIOS = 3000;
+    private static final int REPETICIONES = 10;
+
+    @Autowired
+    HorarioConsultaServicio horarioConsultaServicio;
+
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    HorarioRepositorio horarioRepositorio;
+
+    @Autowired
+    UsuarioRepositorio usuarioRepositorio;
+
+    private final List<String> idsTutores = new ArrayList<>();
+    private final List<String> idsHorarios = new ArrayList<>();
+
+    @BeforeEach
+    void sembrarDatos() {
+        List<Usuario> tutores = new ArrayList<>();
+        for (int i = 0; i < TUTORES; i++) {
+            Tutor tutor = new Tutor();
+            tutor.setBio("bio");
+            tutor.setExperiencia("experiencia");
+            tutor.setPrecioHora(10 + i * 5);
+            tutor.setCalifiacionPromedio(i % 5 + 0.5);
+            tutor.setMaterias(List.of(new Materia(i % 2 == 0 ? "Matemáticas" : "Física", 5)));
+
+            Usuario usuario = new Usuario();
+            usuario.setNombre("Benchmark" + i);
+            usuario.setApellido("Pérez");
+            usuario.setCorreo("bench" + i + "@correo.com");
+            usuario.setTelefono("3000000000");
+            usuario.setNombreUsuario("benchmark_tutor_" + i);
+            usuario.setPassword("x");
+            usuario.setRol(Usuario.Rol.TUTOR);
+            usuario.setTutor(tutor);
+            tutores.add(usuario);
+        }
+        usuarioRepositorio.saveAll(tutores).forEach(u -> idsTutores.add(u.getId()));
+
+        List<Horario> horarios = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < HORARIOS; i++) {
+            Horario horario = new Horario();
+            horario.setIdTutor(idsTutores.get(i % TUTORES));
+            horario.setFechaInicio(base.plusHours(i));
+            horario.setFechaFin(base.plusHours(i).plusMinutes(50));
+            horario.setDisponible(true);
+            horarios.add(horario);
+        }
+        horarioRepositorio.saveAll(horarios).forEach(h -> idsHorarios.add(h.getId()));
+        horarioDisponibleServicio.reindexar();
+    }
+
+    @AfterEach
+    void limpiarDatos() {
+        horarioRepositorio.deleteAllById(idsHorarios);
+        usuarioRepositorio.deleteAllById(idsTutores);
+        horarioDisponibleServicio.reindexar();
+    }
+
+    @Test
+    void compararPipelines() {
+        String materia = "matematicas";
+        Double precioMin = 20.0;
+        Double calificacionMin = 2.0;
+
+        int enMemoria = medir("stream en Java", () ->
+                filtrarEnMemoria(materia, precioMin, calificacionMin).size());
+        FiltroHorario filtro = new FiltroHorario(materia, precioMin, null, calificacionMin, null, null, null, null, null);
+        int modeloLectura = medir("modelo de lectura", () -> contarPaginas(filtro));
+
+        assertEquals(enMemoria, modeloLectura);
+    }
+
+    // Recorre todas las páginas siguiendo el cursor
+    private int contarPaginas(FiltroHorario filtro) {
+        int total = 0;
+        String cursor = null;
+        do {
+            Pagina<HorarioDisponibleDTO> pagina = horarioConsultaServicio.buscarHorariosDisponibles(
+                    filtro, OrdenHorario.PROXIMOS, cursor, PaginacionUtil.TAMANO_MAXIMO);
+            total += pagina.getItems().size();
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+        return total;
+    }
+
+    private int medir(String nombre, Supplier<Integer> consulta) {
+        int resultados = consulta.get(); // calentamiento
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            resultados = consulta.get();
+        }
+        long promedioMs = (System.nanoTime() - inicio) / REPETICIONES / 1_000_000;
+        System.out.println(nombre + ": " + promedioMs + " ms por consulta (" + resultados + " resultados)");
+        return resultados;
+    }
+
+    // Réplica del pipeline anterior: findAll, un findById por horario y filtros en un stream
+    private List<HorarioDisponibleDTO> filtrarEnMemoria(String materia, Double precioMin, Double calificacionMin) {
+        return horarioRepositorio.findAll().stream()
+                .filter(Horario::isDisponible)
+                .filter(h -> h.getFechaInicio().isAfter(LocalDateTime.now()))
+                .map(h -> {
+                    Usuario u = usuarioRepositorio.findById(h.getIdTutor()).orElse(null);
+                    if (u == null || u.getRol() != Usuario.Rol.TUTOR || u.getTutor() == null) return null;
+                    HorarioDisponibleDTO dto = new HorarioDisponibleDTO();
+                    dto.setId(h.getId());
+                    dto.setPrecioHora(u.getTutor().getPrecioHora());
+                    dto.setCalifiacionPromedio(u.getTutor().getCalifiacionPromedio());
+                    dto.setMaterias(u.getTutor().getMaterias());
+                    return dto;
+                })
+                .filter(Objects::nonNull)
+                .filter(dto -> dto.getMaterias().stream().anyMatch(m ->
+                        TextoUtil.normalizar(m.getNombre()).contains(TextoUtil.normalizar(materia))))
+                .filter(dto -> dto.getPrecioHora() >= precioMin)
+                .filter(dto -> dto.getCalifiacionPromedio() >= calificacionMin)
+                .toList();
+    }
+}
@@ -0,0 +1,121 @@
+package uis.mytutor.servicio;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uis.mytutor.modelo.LeaseScheduler;
+import uis.mytutor.servicio.impl.LeaseSchedulerServicio;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dos réplicas (dos instancias con distinto nodo) compiten por el mismo lease
+// Mongo en Docker (MongoDBContainer); se omite si no hay Docker
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class LeaseSchedulerTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final Duration TTL_CORTO = Duration.ofMillis(300);
+    private static final Duration TTL_LARGO = Duration.ofSeconds(30);
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private LeaseSchedulerServicio nodoA;
+    private LeaseSchedulerServicio nodoB;
+    private String nombre;
+
+    @BeforeEach
+    void crearNodos() {
+        nodoA = new LeaseSchedulerServicio(mongoTemplate, "nodo-a");
+        nodoB = new LeaseSchedulerServicio(mongoTemplate, "nodo-b");
+        nombre = "prueba-lease-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void borrarLease() {
+        LeaseScheduler lease = mongoTemplate.findById(nombre, LeaseScheduler.class);
+        if (lease != null) mongoTemplate.remove(lease);
+    }
+
+    @Test
+    void otraReplicaLoTomaSoloAlVencer() throws InterruptedException {
+        LeaseScheduler deA = nodoA.adquirir(nombre, TTL_CORTO);
+        assertNotNull(deA);
+        assertEquals(1, deA.getToken());
+
+        // Vigente: la otra réplica no puede tomarlo, la dueña sí puede renovarlo
+        assertNull(nodoB.adquirir(nombre, TTL_CORTO));
+        LeaseScheduler renovado = nodoA.adquirir(nombre, TTL_CORTO);
+        assertEquals(2, renovado.getToken());
+        assertTrue(esVigente(renovado));
+
+        Thread.sleep(TTL_CORTO.toMillis() * 2);
+
+        // Vencido según el reloj de Mongo: la toma la otra réplica con un token mayor
+        assertFalse(esVigente(renovado));
+        LeaseScheduler deB = nodoB.adquirir(nombre, TTL_LARGO);
+        assertNotNull(deB);
+        assertEquals("nodo-b", deB.getNodo());
+        assertEquals(3, deB.getToken());
+        assertTrue(esVigente(deB));
+        assertFalse(esVigente(renovado));
+        assertNull(nodoA.adquirir(nombre, TTL_CORTO));
+    }
+
+    // La tarea de A tarda más que su lease y B lo toma mientras tanto:
+    // el registro de la ejecución de A no debe pisar el lease de B
+    @Test
+    void laReplicaQueLoPierdeNoRegistraLaEjecucion() {
+        AtomicReference<LeaseScheduler> deB = new AtomicReference<>();
+
+        boolean ejecutada = nodoA.ejecutarConLease(nombre, TTL_CORTO, () -> {
+            try {
+                Thread.sleep(TTL_CORTO.toMillis() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deB.set(nodoB.adquirir(nombre, TTL_LARGO));
+        });
+
+        assertTrue(ejecutada);
+        assertNotNull(deB.get());
+
+        LeaseScheduler guardado = mongoTemplate.findById(nombre, LeaseScheduler.class);
+        assertEquals("nodo-b", guardado.getNodo());
+        assertEquals(deB.get().getToken(), guardado.getToken());
+        assertNull(guardado.getUltimoNodoExitoso());
+        assertNull(guardado.getUltimaEjecucionExitosa());
+    }
+
+    // El lease tiene el mismo token y no ha vencido según el reloj de Mongo
+    private boolean esVigente(LeaseScheduler lease) {
+        return mongoTemplate.exists(
+                new BasicQuery(new Document("_id", lease.getId())
+                        .append("token", lease.getToken())
+                        .append("$expr", new Document("$gt", List.of("$expiraEn", "$$NOW")))),
+                LeaseScheduler.class
+        );
+    }
+}
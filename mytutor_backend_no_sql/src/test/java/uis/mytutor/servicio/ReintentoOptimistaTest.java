@@ -0,0 +1,161 @@
+package uis.mytutor.servicio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uis.mytutor.Excepciones.ConcurrenciaExcepciones;
+import uis.mytutor.Excepciones.GlobalExceptionHandler;
+import uis.mytutor.dto.EstadisticasConflictosDTO;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.servicio.impl.ReintentoOptimistaServicio;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Escrituras condicionadas a @Version sobre el mismo horario: reintentos, 409 y métricas de conflictos
+// Mongo en Docker (MongoDBContainer); se omite si no hay Docker
+@SpringBootTest(properties = "app.concurrencia.max-intentos=" + ReintentoOptimistaTest.MAX_INTENTOS)
+@Testcontainers(disabledWithoutDocker = true)
+class ReintentoOptimistaTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    static final int MAX_INTENTOS = 3;
+    private static final int ESCRITORES = 8;
+
+    @Autowired
+    ReintentoOptimistaServicio reintentoOptimistaServicio;
+
+    @Autowired
+    HorarioRepositorio horarioRepositorio;
+
+    private String idHorario;
+
+    @BeforeEach
+    void crearHorario() {
+        Horario horario = new Horario();
+        horario.setIdTutor("tutor_reintentos");
+        horario.setFechaInicio(LocalDateTime.now().plusDays(2));
+        horario.setFechaFin(LocalDateTime.now().plusDays(2).plusHours(1));
+        horario.setDisponible(true);
+        idHorario = horarioRepositorio.save(horario).getId();
+    }
+
+    @AfterEach
+    void borrarHorario() {
+        horarioRepositorio.deleteById(idHorario);
+    }
+
+    // Todos escriben con la misma versión leída y no vuelven a leer: gana uno, el resto agota los
+    // intentos y recibe ConflictoConcurrenciaException (409)
+    @Test
+    void escritoresConVersionVieja() throws Exception {
+        String operacion = "prueba.versionVieja." + idHorario;
+        ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitos = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < ESCRITORES; i++) {
+            Horario leido = horarioRepositorio.findById(idHorario).orElseThrow();
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                try {
+                    reintentoOptimistaServicio.ejecutar(operacion, () -> {
+                        leido.setDisponible(false);
+                        horarioRepositorio.actualizarDisponible(leido);
+                        return null;
+                    });
+                    exitos.incrementAndGet();
+                } catch (ConcurrenciaExcepciones.ConflictoConcurrenciaException e) {
+                    rechazados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, exitos.get());
+        assertEquals(ESCRITORES - 1, rechazados.get());
+
+        EstadisticasConflictosDTO estadisticas = estadisticas(operacion);
+        assertEquals(ESCRITORES, estadisticas.getEjecuciones());
+        assertEquals((long) (ESCRITORES - 1) * MAX_INTENTOS, estadisticas.getConflictos());
+        assertEquals(ESCRITORES - 1, estadisticas.getReintentosAgotados());
+
+        Horario horario = horarioRepositorio.findById(idHorario).orElseThrow();
+        assertFalse(horario.isDisponible());
+        assertEquals(1L, horario.getVersion());
+    }
+
+    // Otra escritura se cuela entre la lectura y la escritura del primer intento: el segundo
+    // intento vuelve a leer y termina bien
+    @Test
+    void reintentoReleeYGana() {
+        String operacion = "prueba.reintento." + idHorario;
+        AtomicInteger intentos = new AtomicInteger();
+
+        Horario resultado = reintentoOptimistaServicio.ejecutar(operacion, () -> {
+            Horario leido = horarioRepositorio.findById(idHorario).orElseThrow();
+            if (intentos.incrementAndGet() == 1) {
+                Horario otro = horarioRepositorio.findById(idHorario).orElseThrow();
+                otro.setDisponible(false);
+                horarioRepositorio.actualizarDisponible(otro);
+            }
+            leido.setDisponible(true);
+            horarioRepositorio.actualizarDisponible(leido);
+            return leido;
+        });
+
+        assertEquals(2, intentos.get());
+        assertTrue(resultado.isDisponible());
+        assertEquals(2L, horarioRepositorio.findById(idHorario).orElseThrow().getVersion());
+
+        EstadisticasConflictosDTO estadisticas = estadisticas(operacion);
+        assertEquals(1, estadisticas.getEjecuciones());
+        assertEquals(1, estadisticas.getConflictos());
+        assertEquals(0, estadisticas.getReintentosAgotados());
+    }
+
+    @Test
+    void conflictoAgotadoRespondeConflict() {
+        var respuesta = new GlobalExceptionHandler().handleConflictoConcurrencia(
+                new ConcurrenciaExcepciones.ConflictoConcurrenciaException("conflicto"));
+
+        assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+    }
+
+    private EstadisticasConflictosDTO estadisticas(String operacion) {
+        return reintentoOptimistaServicio.estadisticas().stream()
+                .filter(e -> e.getOperacion().equals(operacion))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,120 @@
+package uis.mytutor.servicio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uis.mytutor.dto.UsuarioPrincipal;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.Reserva;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.ReservaRepositorio;
+import uis.mytutor.servicio.impl.HorarioDisponibleServicio;
+import uis.mytutor.servicio.impl.ReservaServicio;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// Reservar y cambiar el estado son dos escrituras (horario y entrada del registro): si la segunda falla,
+// el horario debe quedar como estaba
+// Mongo en Docker (MongoDBContainer); se omite si no hay Docker
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class ReservaCompensacionTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    // El registro de reservas falla a voluntad; el horario se escribe por MongoTemplate
+    @MockitoBean
+    ReservaRepositorio reservaRepositorio;
+
+    @Autowired
+    ReservaServicio reservaServicio;
+
+    @Autowired
+    HorarioRepositorio horarioRepositorio;
+
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private final UsuarioPrincipal estudiante = new UsuarioPrincipal(
+            "estudiante_compensacion", "estudiante_compensacion", Usuario.Rol.ESTUDIANTE, true, null);
+
+    private String idHorario;
+
+    @BeforeEach
+    void crearHorario() {
+        Horario horario = new Horario();
+        horario.setIdTutor("tutor_compensacion");
+        horario.setFechaInicio(LocalDateTime.now().plusDays(3));
+        horario.setFechaFin(LocalDateTime.now().plusDays(3).plusHours(1));
+        horario.setDisponible(true);
+        idHorario = horarioRepositorio.save(horario).getId();
+    }
+
+    @AfterEach
+    void borrarHorario() {
+        horarioRepositorio.deleteById(idHorario);
+        mongoTemplate.remove(new Query(Criteria.where("idHorario").is(idHorario)), Reserva.class);
+        horarioDisponibleServicio.eliminarHorario(idHorario);
+    }
+
+    @Test
+    void reservaSinRegistroDevuelveElHorario() {
+        when(reservaRepositorio.insert(any(Reserva.class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> reservaServicio.reservarHorario(estudiante, idHorario));
+
+        Horario horario = horarioRepositorio.findById(idHorario).orElseThrow();
+        assertTrue(horario.isDisponible());
+        assertNull(horario.getReservaActual());
+
+        // El horario se puede volver a reservar
+        when(reservaRepositorio.insert(any(Reserva.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        reservaServicio.reservarHorario(estudiante, idHorario);
+        assertFalse(horarioRepositorio.findById(idHorario).orElseThrow().isDisponible());
+    }
+
+    @Test
+    void cancelarSinRegistroNoCambiaElResumen() {
+        when(reservaRepositorio.insert(any(Reserva.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        Reserva reserva = reservaServicio.reservarHorario(estudiante, idHorario);
+
+        // La entrada de la cancelación no se puede agregar al registro
+        when(reservaRepositorio.insert(any(Reserva.class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> reservaServicio.cancelarReserva(estudiante, idHorario));
+
+        Horario horario = horarioRepositorio.findById(idHorario).orElseThrow();
+        assertFalse(horario.isDisponible());
+        assertEquals(reserva.getIdReserva(), horario.getReservaActual().getIdReserva());
+        assertEquals(Reserva.EstadoReserva.PENDIENTE, horario.getReservaActual().getEstado());
+    }
+}
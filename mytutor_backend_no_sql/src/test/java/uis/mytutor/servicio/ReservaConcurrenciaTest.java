@@ -0,0 +1,115 @@
+package uis.mytutor.servicio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uis.mytutor.Excepciones.ReservaExcepciones;
+import uis.mytutor.dto.UsuarioPrincipal;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.ReservaRepositorio;
+import uis.mytutor.servicio.impl.HorarioDisponibleServicio;
+import uis.mytutor.servicio.impl.ReservaServicio;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Muchos estudiantes reservan el mismo horario al mismo tiempo: solo uno debe conseguirlo
+// Mongo en Docker (MongoDBContainer); se omite si no hay Docker
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class ReservaConcurrenciaTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final int ESTUDIANTES = 16;
+
+    @Autowired
+    ReservaServicio reservaServicio;
+
+    @Autowired
+    HorarioRepositorio horarioRepositorio;
+
+    @Autowired
+    ReservaRepositorio reservaRepositorio;
+
+    @Autowired
+    HorarioDisponibleServicio horarioDisponibleServicio;
+
+    private String idHorario;
+
+    @BeforeEach
+    void crearHorario() {
+        Horario horario = new Horario();
+        horario.setIdTutor("tutor_concurrencia");
+        horario.setFechaInicio(LocalDateTime.now().plusDays(2));
+        horario.setFechaFin(LocalDateTime.now().plusDays(2).plusHours(1));
+        horario.setDisponible(true);
+        idHorario = horarioRepositorio.save(horario).getId();
+    }
+
+    @AfterEach
+    void borrarHorario() {
+        horarioRepositorio.deleteById(idHorario);
+        reservaRepositorio.deleteByIdHorario(idHorario);
+        horarioDisponibleServicio.eliminarHorario(idHorario);
+    }
+
+    @Test
+    void soloUnaReservaGanaBajoContencion() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ESTUDIANTES);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitos = new AtomicInteger();
+        AtomicInteger conflictos = new AtomicInteger();
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < ESTUDIANTES; i++) {
+            UsuarioPrincipal estudiante = new UsuarioPrincipal(
+                    "estudiante_" + i, "estudiante_" + i, Usuario.Rol.ESTUDIANTE, true, null);
+
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                try {
+                    reservaServicio.reservarHorario(estudiante, idHorario);
+                    exitos.incrementAndGet();
+                } catch (ReservaExcepciones.HorarioNoDisponibleException e) {
+                    conflictos.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Todos los hilos salen a la vez
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, exitos.get());
+        assertEquals(ESTUDIANTES - 1, conflictos.get());
+
+        Horario horario = horarioRepositorio.findById(idHorario).orElseThrow();
+        assertFalse(horario.isDisponible());
+        assertEquals(1, reservaRepositorio.findByIdHorarioOrderByIdAsc(idHorario).size());
+    }
+}
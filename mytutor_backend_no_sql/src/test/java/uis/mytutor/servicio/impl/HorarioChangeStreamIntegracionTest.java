@@ -0,0 +1,96 @@
+package uis.mytutor.servicio.impl;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uis.mytutor.dto.EventoHorario;
+import uis.mytutor.dto.UsuarioPrincipal;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// Change stream real: Mongo en Docker como replica set de un solo nodo (lo que hace MongoDBContainer)
+// Se omite si no hay Docker
+@SpringBootTest(properties = {
+        "app.horarios.eventos.change-stream=true",
+        "app.mongo.indices.verificar=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class HorarioChangeStreamIntegracionTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @MockitoSpyBean
+    EventosHorarioServicio eventosHorarioServicio;
+
+    @Autowired
+    HorarioChangeStreamServicio horarioChangeStreamServicio;
+
+    @Autowired
+    ReservaServicio reservaServicio;
+
+    @Autowired
+    HorarioRepositorio horarioRepositorio;
+
+    @Test
+    void cancelarYVolverAReservarEmiteUnEventoPorCambio() throws InterruptedException {
+        esperarChangeStream();
+
+        UsuarioPrincipal primero = new UsuarioPrincipal("estudiante_1", "estudiante_1", Usuario.Rol.ESTUDIANTE, true, null);
+        UsuarioPrincipal segundo = new UsuarioPrincipal("estudiante_2", "estudiante_2", Usuario.Rol.ESTUDIANTE, true, null);
+
+        Horario horario = new Horario();
+        horario.setIdTutor("tutor_eventos");
+        horario.setFechaInicio(LocalDateTime.now().plusDays(3));
+        horario.setFechaFin(LocalDateTime.now().plusDays(3).plusHours(1));
+        horario.setDisponible(true);
+        String idHorario = horarioRepositorio.save(horario).getId();
+
+        // Seguidas, sin esperar: el documento completo de cada cambio ya puede reflejar el siguiente
+        reservaServicio.reservarHorario(primero, idHorario);
+        reservaServicio.cancelarReserva(primero, idHorario);
+        reservaServicio.reservarHorario(segundo, idHorario);
+
+        ArgumentCaptor<EventoHorario> captor = ArgumentCaptor.forClass(EventoHorario.class);
+        verify(eventosHorarioServicio, timeout(10_000).atLeast(4))
+                .publicar(argThat(evento -> idHorario.equals(evento.getIdHorario())));
+        verify(eventosHorarioServicio, atLeast(4)).publicar(captor.capture());
+
+        List<EventoHorario> eventos = captor.getAllValues().stream()
+                .filter(evento -> idHorario.equals(evento.getIdHorario()))
+                .toList();
+        assertEquals(
+                List.of(EventoHorario.Tipo.CREADO, EventoHorario.Tipo.RESERVADO,
+                        EventoHorario.Tipo.CANCELADO, EventoHorario.Tipo.RESERVADO),
+                eventos.stream().map(EventoHorario::getTipo).toList()
+        );
+        assertEquals(List.of(true, false, true, false), eventos.stream().map(EventoHorario::isDisponible).toList());
+    }
+
+    // El hilo abre el cursor al arrancar la aplicación: lo escrito antes no llegaría
+    private void esperarChangeStream() throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!horarioChangeStreamServicio.escuchando() && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        assertTrue(horarioChangeStreamServicio.escuchando());
+    }
+}
@@ -0,0 +1,129 @@
+package uis.mytutor.servicio.impl;
+
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+import uis.mytutor.dto.EventoHorario;
+import uis.mytutor.modelo.Horario;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Traducción de un cambio del change stream a EventoHorario, sin Mongo
+class HorarioChangeStreamMapeoTest {
+
+    private static final String ID = "6650f0a1b2c3d4e5f6a7b8c9";
+    private static final LocalDateTime AHORA = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private Horario horario(LocalDateTime fechaInicio, boolean disponible) {
+        Horario horario = new Horario();
+        horario.setId(ID);
+        horario.setIdTutor("tutor");
+        horario.setFechaInicio(fechaInicio);
+        horario.setFechaFin(fechaInicio == null ? null : fechaInicio.plusHours(1));
+        horario.setDisponible(disponible);
+        return horario;
+    }
+
+    private BsonDocument disponible(boolean valor) {
+        return new BsonDocument("disponible", BsonBoolean.valueOf(valor)).append("version", new BsonInt64(2));
+    }
+
+    @Test
+    void altaYBaja() {
+        EventoHorario creado = HorarioChangeStreamServicio.aEvento(
+                OperationType.INSERT, ID, null, horario(AHORA.plusDays(1), true), AHORA);
+        assertEquals(EventoHorario.Tipo.CREADO, creado.getTipo());
+        assertTrue(creado.isDisponible());
+
+        EventoHorario eliminado = HorarioChangeStreamServicio.aEvento(OperationType.DELETE, ID, null, null, AHORA);
+        assertEquals(EventoHorario.Tipo.ELIMINADO, eliminado.getTipo());
+        assertEquals(ID, eliminado.getIdHorario());
+        assertFalse(eliminado.isDisponible());
+    }
+
+    // El documento completo se lee después del cambio: si ya se volvió a cancelar, dice disponible=true
+    @Test
+    void reservaSeClasificaPorLosCamposEscritos() {
+        BsonDocument cambios = disponible(false).append("reservaActual", new BsonDocument("estado", new BsonString("PENDIENTE")));
+
+        EventoHorario evento = HorarioChangeStreamServicio.aEvento(
+                OperationType.UPDATE, ID, cambios, horario(AHORA.plusDays(1), true), AHORA);
+
+        assertEquals(EventoHorario.Tipo.RESERVADO, evento.getTipo());
+        assertFalse(evento.isDisponible());
+    }
+
+    @Test
+    void reservaConCamposPunteados() {
+        BsonDocument cambios = disponible(false)
+                .append("reservaActual.idReserva", new BsonString("r1"))
+                .append("reservaActual.estado", new BsonString("PENDIENTE"));
+
+        assertEquals(EventoHorario.Tipo.RESERVADO,
+                HorarioChangeStreamServicio.tipoDeActualizacion(cambios, AHORA.plusDays(1), AHORA));
+    }
+
+    @Test
+    void cancelacionAunqueElDocumentoYaEsteReservadoDeNuevo() {
+        BsonDocument cambios = disponible(true).append("reservaActual.estado", new BsonString("CANCELADA"));
+
+        EventoHorario evento = HorarioChangeStreamServicio.aEvento(
+                OperationType.UPDATE, ID, cambios, horario(AHORA.plusDays(2), false), AHORA);
+
+        assertEquals(EventoHorario.Tipo.CANCELADO, evento.getTipo());
+        assertTrue(evento.isDisponible());
+    }
+
+    @Test
+    void tutorCancelaSinCambiarDisponibilidad() {
+        BsonDocument cambios = disponible(false).append("reservaActual.estado", new BsonString("CANCELADA"));
+
+        assertNull(HorarioChangeStreamServicio.tipoDeActualizacion(cambios, AHORA.plusDays(2), AHORA));
+    }
+
+    @Test
+    void expiradoOEliminadoSegunLaFecha() {
+        assertEquals(EventoHorario.Tipo.EXPIRADO,
+                HorarioChangeStreamServicio.tipoDeActualizacion(disponible(false), AHORA.minusMinutes(1), AHORA));
+        assertEquals(EventoHorario.Tipo.EXPIRADO,
+                HorarioChangeStreamServicio.tipoDeActualizacion(disponible(false), AHORA, AHORA));
+        assertEquals(EventoHorario.Tipo.ELIMINADO,
+                HorarioChangeStreamServicio.tipoDeActualizacion(disponible(false), AHORA.plusDays(1), AHORA));
+    }
+
+    @Test
+    void sinFechaInicioNoFalla() {
+        assertEquals(EventoHorario.Tipo.ELIMINADO,
+                HorarioChangeStreamServicio.tipoDeActualizacion(disponible(false), null, AHORA));
+
+        EventoHorario evento = HorarioChangeStreamServicio.aEvento(
+                OperationType.UPDATE, ID, disponible(false), horario(null, false), AHORA);
+        assertEquals(EventoHorario.Tipo.ELIMINADO, evento.getTipo());
+    }
+
+    @Test
+    void cambioDeFechas() {
+        BsonDocument cambios = new BsonDocument("fechaInicio", new BsonString("x")).append("fechaFin", new BsonString("y"));
+
+        assertEquals(EventoHorario.Tipo.MODIFICADO,
+                HorarioChangeStreamServicio.tipoDeActualizacion(cambios, AHORA.plusDays(1), AHORA));
+    }
+
+    @Test
+    void cambiosSinInteresNoGeneranEvento() {
+        BsonDocument soloVersion = new BsonDocument("version", new BsonInt64(3));
+
+        assertNull(HorarioChangeStreamServicio.tipoDeActualizacion(soloVersion, AHORA.plusDays(1), AHORA));
+        assertNull(HorarioChangeStreamServicio.tipoDeActualizacion(null, AHORA.plusDays(1), AHORA));
+        // El horario se borró antes de leer el documento completo
+        assertNull(HorarioChangeStreamServicio.aEvento(OperationType.UPDATE, ID, disponible(false), null, AHORA));
+    }
+}
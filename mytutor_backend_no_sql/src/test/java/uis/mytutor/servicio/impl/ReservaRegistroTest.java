@@ -0,0 +1,94 @@
+package uis.mytutor.servicio.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uis.mytutor.dto.Pagina;
+import uis.mytutor.dto.UsuarioPrincipal;
+import uis.mytutor.modelo.Horario;
+import uis.mytutor.modelo.Reserva;
+import uis.mytutor.modelo.Usuario;
+import uis.mytutor.repositorio.HorarioRepositorio;
+import uis.mytutor.repositorio.ReservaRepositorio;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// El registro de reservas solo crece: cada cambio de estado agrega una entrada y ninguna se reescribe
+// Se omite si no hay Docker
+@SpringBootTest(properties = "app.mongo.indices.verificar=false")
+@Testcontainers(disabledWithoutDocker = true)
+class ReservaRegistroTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    ReservaServicio reservaServicio;
+
+    @Autowired
+    HorarioRepositorio horarioRepositorio;
+
+    @Autowired
+    ReservaRepositorio reservaRepositorio;
+
+    @Test
+    void cadaCambioDeEstadoAgregaUnaEntrada() {
+        UsuarioPrincipal primero = new UsuarioPrincipal("estudiante_registro_1", "estudiante_registro_1", Usuario.Rol.ESTUDIANTE, true, null);
+        UsuarioPrincipal segundo = new UsuarioPrincipal("estudiante_registro_2", "estudiante_registro_2", Usuario.Rol.ESTUDIANTE, true, null);
+
+        Horario horario = new Horario();
+        horario.setIdTutor("tutor_registro");
+        horario.setFechaInicio(LocalDateTime.now().plusDays(3));
+        horario.setFechaFin(LocalDateTime.now().plusDays(3).plusHours(1));
+        horario.setDisponible(true);
+        String idHorario = horarioRepositorio.save(horario).getId();
+
+        Reserva reservada = reservaServicio.reservarHorario(primero, idHorario);
+        Reserva cancelada = reservaServicio.cancelarReserva(primero, idHorario);
+        Reserva otra = reservaServicio.reservarHorario(segundo, idHorario);
+
+        // Tres entradas; la de la reserva original sigue con su estado y su fecha
+        List<Reserva> entradas = reservaRepositorio.findByIdHorarioOrderByIdAsc(idHorario);
+        assertEquals(3, entradas.size());
+        assertEquals(reservada.getId(), entradas.get(0).getId());
+        assertEquals(Reserva.EstadoReserva.PENDIENTE, entradas.get(0).getEstado());
+        assertEquals(reservada.getFecha().withNano(0), entradas.get(0).getFecha().withNano(0));
+        assertEquals(reservada.getIdReserva(), entradas.get(1).getIdReserva());
+        assertEquals(Reserva.EstadoReserva.CANCELADA, entradas.get(1).getEstado());
+        assertEquals(cancelada.getId(), entradas.get(1).getId());
+
+        // El historial del horario tiene una reserva por elemento, con su último estado
+        Horario conHistorial = horarioRepositorio.findById(idHorario).orElseThrow();
+        reservaServicio.llenarHistorial(List.of(conHistorial));
+        assertEquals(2, conHistorial.getHistorialReservas().size());
+        assertEquals(Reserva.EstadoReserva.CANCELADA, conHistorial.getHistorialReservas().get(0).getEstado());
+        assertEquals(otra.getIdReserva(), conHistorial.getHistorialReservas().get(1).getIdReserva());
+        assertEquals(otra.getIdReserva(), conHistorial.getReservaActual().getIdReserva());
+
+        // Mis reservas filtra por el estado actual de la reserva, no por el de cualquier entrada
+        Pagina<Horario> pendientes = reservaServicio.ObtenerMisReservas(
+                primero, List.of(Reserva.EstadoReserva.PENDIENTE), null, null, null, null);
+        assertTrue(pendientes.getItems().isEmpty());
+        Pagina<Horario> canceladas = reservaServicio.ObtenerMisReservas(
+                primero, List.of(Reserva.EstadoReserva.CANCELADA), null, null, null, null);
+        assertEquals(1, canceladas.getItems().size());
+        assertNull(canceladas.getSiguienteCursor());
+
+        // El conteo también va por estado actual: una cancelada para el primero, una pendiente para el segundo
+        Map<Reserva.EstadoReserva, Long> conteoPrimero = reservaServicio.contarMisReservas(primero);
+        assertEquals(1L, conteoPrimero.get(Reserva.EstadoReserva.CANCELADA));
+        assertEquals(0L, conteoPrimero.get(Reserva.EstadoReserva.PENDIENTE));
+        assertEquals(1L, reservaServicio.contarMisReservas(segundo).get(Reserva.EstadoReserva.PENDIENTE));
+    }
+}
@@ -0,0 +1,144 @@
+package uis.mytutor.utilidades;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Árbol de intervalos [inicio, fin): cruces, balanceo AVL y comparación con una búsqueda lineal
+class ArbolIntervalosTest {
+
+    @Test
+    void cruceYExtremosQueSeTocan() {
+        ArbolIntervalos<Integer> arbol = new ArbolIntervalos<>();
+        arbol.insertar(10, 20);
+
+        // Compartir un extremo no es cruce
+        assertFalse(arbol.seCruza(20, 30));
+        assertFalse(arbol.seCruza(0, 10));
+        assertFalse(arbol.seCruza(25, 30));
+
+        assertTrue(arbol.seCruza(19, 21));
+        assertTrue(arbol.seCruza(5, 11));
+        assertTrue(arbol.seCruza(12, 15));
+        assertTrue(arbol.seCruza(0, 30));
+        assertTrue(arbol.seCruza(10, 20));
+    }
+
+    @Test
+    void arbolVacioNoSeCruza() {
+        ArbolIntervalos<Integer> arbol = new ArbolIntervalos<>();
+
+        assertFalse(arbol.seCruza(0, 100));
+        assertEquals(0, arbol.tamano());
+        assertEquals(0, arbol.altura());
+    }
+
+    @Test
+    void intervaloInvalido() {
+        ArbolIntervalos<Integer> arbol = new ArbolIntervalos<>();
+
+        assertThrows(IllegalArgumentException.class, () -> arbol.insertar(10, 10));
+        assertThrows(IllegalArgumentException.class, () -> arbol.insertar(20, 10));
+        assertEquals(0, arbol.tamano());
+    }
+
+    // Sin rotación tres inserciones en cadena darían altura 3. Los intervalos largos quedan en el
+    // nodo que se mueve, así que un fin máximo mal recalculado en la rotación haría fallar la consulta
+    @Test
+    void rotacionIzquierdaIzquierda() {
+        comprobarRotacion(new int[][]{{30, 35}, {20, 60}, {10, 15}});
+    }
+
+    @Test
+    void rotacionDerechaDerecha() {
+        comprobarRotacion(new int[][]{{10, 60}, {20, 25}, {30, 35}});
+    }
+
+    @Test
+    void rotacionIzquierdaDerecha() {
+        comprobarRotacion(new int[][]{{30, 35}, {10, 15}, {20, 60}});
+    }
+
+    @Test
+    void rotacionDerechaIzquierda() {
+        comprobarRotacion(new int[][]{{10, 60}, {30, 35}, {20, 25}});
+    }
+
+    @Test
+    void insercionesOrdenadasQuedanBalanceadas() {
+        ArbolIntervalos<Integer> ascendente = new ArbolIntervalos<>();
+        ArbolIntervalos<Integer> descendente = new ArbolIntervalos<>();
+        int n = 1023;
+        for (int i = 0; i < n; i++) {
+            ascendente.insertar(i * 10, i * 10 + 10);
+            descendente.insertar((n - i) * 10, (n - i) * 10 + 10);
+        }
+
+        // Árbol completo de 1023 nodos: el AVL con inserciones ordenadas llega justo a esa altura
+        assertEquals(10, ascendente.altura());
+        assertEquals(10, descendente.altura());
+        assertFalse(ascendente.seCruza(n * 10, n * 10 + 5));
+        assertTrue(ascendente.seCruza(5005, 5006));
+        assertFalse(descendente.seCruza(0, 10));
+    }
+
+    @Test
+    void coincideConBusquedaLineal() {
+        Random random = new Random(17);
+
+        for (int ronda = 0; ronda < 20; ronda++) {
+            ArbolIntervalos<Integer> arbol = new ArbolIntervalos<>();
+            List<int[]> intervalos = new ArrayList<>();
+
+            for (int i = 0; i < 200; i++) {
+                int inicio = random.nextInt(1000);
+                int fin = inicio + 1 + random.nextInt(ronda % 2 == 0 ? 10 : 80);
+                arbol.insertar(inicio, fin);
+                intervalos.add(new int[]{inicio, fin});
+
+                for (int consulta = 0; consulta < 20; consulta++) {
+                    int a = random.nextInt(1100);
+                    int b = a + 1 + random.nextInt(30);
+                    assertEquals(seCruzaLineal(intervalos, a, b), arbol.seCruza(a, b),
+                            "ronda " + ronda + ", consulta [" + a + ", " + b + ")");
+                }
+            }
+
+            assertEquals(intervalos.size(), arbol.tamano());
+            // Cota de altura de un AVL: 1.44 log2(n + 2)
+            assertTrue(arbol.altura() <= 1.44 * Math.log(arbol.tamano() + 2) / Math.log(2));
+        }
+    }
+
+    private void comprobarRotacion(int[][] orden) {
+        ArbolIntervalos<Integer> arbol = new ArbolIntervalos<>();
+        List<int[]> intervalos = new ArrayList<>();
+        for (int[] intervalo : orden) {
+            arbol.insertar(intervalo[0], intervalo[1]);
+            intervalos.add(intervalo);
+        }
+
+        assertEquals(3, arbol.tamano());
+        assertEquals(2, arbol.altura());
+        for (int a = 0; a <= 70; a++) {
+            for (int b = a + 1; b <= 70; b++) {
+                assertEquals(seCruzaLineal(intervalos, a, b), arbol.seCruza(a, b),
+                        "consulta [" + a + ", " + b + ")");
+            }
+        }
+    }
+
+    private static boolean seCruzaLineal(List<int[]> intervalos, int inicio, int fin) {
+        for (int[] intervalo : intervalos) {
+            if (inicio < intervalo[1] && intervalo[0] < fin) return true;
+        }
+        return false;
+    }
+}
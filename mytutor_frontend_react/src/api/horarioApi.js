@@ -1,4 +1,8 @@
 import axiosInstance from './axiosConfig';
+import { obtenerPagina } from './paginacion';
+
+const REINTENTO_EVENTOS_MS = 3000;
+const TIPOS_EVENTO = ['CREADO', 'RESERVADO', 'CANCELADO', 'EXPIRADO', 'ELIMINADO', 'MODIFICADO'];
 
 export const horarioApi = {
   updateHorario: async (idHorario, horarioData) => {
@@ -82,24 +86,71 @@ export const horarioApi = {
     }
   },
 
-  getAvailableHorarios: async () => {
-    console.log('📡 horarioApi.getAvailableHorarios - Obteniendo horarios disponibles globales...');
+  // Una página de los horarios disponibles de un tutor, los más próximos primero
+  // Para la siguiente página se pasa el cursor recibido (siguienteCursor es null en la última)
+  getHorariosDisponiblesDeTutor: async (idTutor, cursor) => {
+    console.log('📡 horarioApi.getHorariosDisponiblesDeTutor - ID Tutor:', idTutor, 'cursor:', cursor);
     try {
-      const response = await axiosInstance.get('/api/horario/disponibles');
-      console.log('✅ horarioApi.getAvailableHorarios - Total:', response.data.length);
-      console.log('✅ horarioApi.getAvailableHorarios - Datos completos:', JSON.stringify(response.data, null, 2));
-      
-      // Filtrar nulls que vienen del backend
-      const horariosValidos = response.data.filter(h => h !== null && h !== undefined);
-      console.log('✅ Horarios válidos (sin nulls):', horariosValidos.length);
-      
-      return horariosValidos;
+      const pagina = await obtenerPagina(axiosInstance, '/api/horario/filtrar', { idTutor, cursor });
+      console.log('✅ horarioApi.getHorariosDisponiblesDeTutor - Horarios en la página:', pagina.items.length);
+      return pagina;
     } catch (error) {
-      console.error('❌ horarioApi.getAvailableHorarios - Error:', error.response?.data || error.message);
+      console.error('❌ horarioApi.getHorariosDisponiblesDeTutor - Error:', error.response?.data || error.message);
       throw error;
     }
   },
 
+  // Cambios de disponibilidad en tiempo real (SSE). EventSource no envía la cabecera Authorization:
+  // se pide un token de eventos (dura 1 minuto) y se abre la conexión con ?token=
+  // Si la conexión se cae se pide otro token y se reconecta; onReconectado avisa para recargar lo
+  // que pudo cambiar mientras tanto. Devuelve la función para cerrar la suscripción
+  subscribeEventos: (onEvento, onReconectado) => {
+    let eventSource = null;
+    let reintento = null;
+    let cerrado = false;
+    let conectadoAntes = false;
+
+    const conectar = async () => {
+      try {
+        const { data: token } = await axiosInstance.post('/api/horario/eventos/token');
+        if (cerrado) return;
+
+        const url = `${axiosInstance.defaults.baseURL}/api/horario/eventos?token=${encodeURIComponent(token)}`;
+        eventSource = new EventSource(url);
+
+        eventSource.onopen = () => {
+          if (conectadoAntes && onReconectado) onReconectado();
+          conectadoAntes = true;
+        };
+        TIPOS_EVENTO.forEach((tipo) => {
+          eventSource.addEventListener(tipo, (e) => onEvento(JSON.parse(e.data)));
+        });
+        // El token ya no sirve para reconectar: se cierra y se abre otra conexión con uno nuevo
+        eventSource.onerror = () => {
+          eventSource.close();
+          programarReintento();
+        };
+      } catch (error) {
+        console.error('❌ horarioApi.subscribeEventos - Error:', error.response?.data || error.message);
+        programarReintento();
+      }
+    };
+
+    const programarReintento = () => {
+      if (cerrado) return;
+      clearTimeout(reintento);
+      reintento = setTimeout(conectar, REINTENTO_EVENTOS_MS);
+    };
+
+    conectar();
+
+    return () => {
+      cerrado = true;
+      clearTimeout(reintento);
+      if (eventSource) eventSource.close();
+    };
+  },
+
   getMyHorarios: async () => {
     console.log('📡 horarioApi.getMyHorarios - Obteniendo MIS horarios como tutor...');
     try {
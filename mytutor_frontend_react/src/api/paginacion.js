@@ -0,0 +1,19 @@
+// Los listados del backend se paginan por cursor: cada respuesta trae la página en el cuerpo y,
+// si hay más, el token de la siguiente en la cabecera X-Siguiente-Cursor (ausente en la última)
+const CABECERA_CURSOR = 'x-siguiente-cursor';
+export const TAMANO_PAGINA = 20; // el backend acepta hasta 100
+
+// Pide una sola página: la primera si no hay cursor, o la que sigue al cursor recibido antes
+// Los filtros vacíos no se envían. siguienteCursor es null en la última página
+export const obtenerPagina = async (axiosInstance, url, { cursor, tamano = TAMANO_PAGINA, ...filtros } = {}) => {
+  const params = Object.fromEntries(
+    Object.entries(filtros).filter(([, valor]) => valor !== undefined && valor !== null && valor !== '')
+  );
+  const response = await axiosInstance.get(url, {
+    params: { ...params, tamano, cursor: cursor || undefined },
+  });
+  return {
+    items: response.data,
+    siguienteCursor: response.headers[CABECERA_CURSOR] || null,
+  };
+};
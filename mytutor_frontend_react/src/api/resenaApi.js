@@ -1,4 +1,5 @@
 import axiosInstance from './axiosConfig';
+import { obtenerPagina } from './paginacion';
 
 export const resenaApi = {
   createResena: async (resenaData) => {
@@ -19,18 +20,18 @@ export const resenaApi = {
     }
   },
 
-  getResenasByTutor: async (idTutor) => {
-    console.log('📡 resenaApi.getResenasByTutor - ID Tutor:', idTutor);
-    console.log('📡 URL completa:', `http://localhost:8081/api/resena/tutor/${idTutor}`);
+  // Una página de reseñas del tutor, las más recientes primero
+  // Para la siguiente página se pasa el cursor recibido (siguienteCursor es null en la última)
+  getResenasByTutor: async (idTutor, cursor) => {
+    console.log('📡 resenaApi.getResenasByTutor - ID Tutor:', idTutor, 'cursor:', cursor);
     try {
-      const response = await axiosInstance.get(`/api/resena/tutor/${idTutor}`);
-      console.log('✅ resenaApi.getResenasByTutor - Total:', response.data.length);
-      console.log('✅ resenaApi.getResenasByTutor - Datos:', JSON.stringify(response.data, null, 2));
-      return response.data;
+      const pagina = await obtenerPagina(axiosInstance, `/api/resena/tutor/${idTutor}`, { cursor });
+      console.log('✅ resenaApi.getResenasByTutor - Reseñas en la página:', pagina.items.length);
+      return pagina;
     } catch (error) {
       console.error('❌ resenaApi.getResenasByTutor - Error:', error.response?.data || error.message);
       console.error('❌ Status:', error.response?.status);
-      return [];
+      return { items: [], siguienteCursor: null };
     }
   },
 
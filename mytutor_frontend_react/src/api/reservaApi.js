@@ -1,4 +1,5 @@
 import axiosInstance from './axiosConfig';
+import { obtenerPagina } from './paginacion';
 
 export const reservaApi = {
   marcarCompletada: async (idHorario) => {
@@ -63,21 +64,35 @@ export const reservaApi = {
     }
   },
 
-  getMyReservas: async () => {
-    console.log('📡 reservaApi.getMyReservas - Obteniendo mis reservas...');
+  // Una página de mis reservas; estados es una lista de estados actuales (vacía = todos)
+  getMyReservas: async ({ estados = [], cursor } = {}) => {
+    console.log('📡 reservaApi.getMyReservas - Obteniendo mis reservas...', { estados, cursor });
     try {
-      const response = await axiosInstance.get('/api/reserva');
-      console.log('✅ reservaApi.getMyReservas - Total:', response.data.length);
-      if (response.data.length > 0) {
-        console.log('✅ Primera reserva:', JSON.stringify(response.data[0], null, 2));
-      }
-      return response.data;
+      const pagina = await obtenerPagina(axiosInstance, '/api/reserva', {
+        estado: estados.join(','),
+        cursor,
+      });
+      console.log('✅ reservaApi.getMyReservas - Página:', pagina.items.length);
+      return pagina;
     } catch (error) {
       console.error('❌ reservaApi.getMyReservas - Error:', error.response?.data || error.message);
       throw error;
     }
   },
 
+  // Cantidad de mis reservas por estado actual, sin pedir todas las páginas
+  contarMisReservas: async () => {
+    console.log('📡 reservaApi.contarMisReservas - Contando mis reservas...');
+    try {
+      const response = await axiosInstance.get('/api/reserva/conteo');
+      console.log('✅ reservaApi.contarMisReservas - Conteo:', response.data);
+      return response.data;
+    } catch (error) {
+      console.error('❌ reservaApi.contarMisReservas - Error:', error.response?.data || error.message);
+      throw error;
+    }
+  },
+
   listAllReservas: async () => {
     console.log('📡 reservaApi.listAllReservas - Obteniendo todas las reservas...');
     try {
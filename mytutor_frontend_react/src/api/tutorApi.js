@@ -1,4 +1,5 @@
 import axiosInstance from './axiosConfig';
+import { obtenerPagina } from './paginacion';
 
 export const tutorApi = {
   getMyTutorProfile: async () => {
@@ -85,17 +86,18 @@ export const tutorApi = {
     }
   },
 
-  listAllTutors: async () => {
-    console.log('📡 tutorApi.listAllTutors - Obteniendo todos los tutores...');
+  // Una página del directorio de tutores. Filtros del backend: materia, precioMin, precioMax y nombre
+  // (inicio del nombre o del apellido). Para la siguiente página se pasa el cursor recibido
+  listTutors: async ({ materia, precioMin, precioMax, nombre, cursor } = {}) => {
+    console.log('📡 tutorApi.listTutors - Filtros:', { materia, precioMin, precioMax, nombre, cursor });
     try {
-      const response = await axiosInstance.get('/api/tutor/list');
-      console.log('✅ tutorApi.listAllTutors - Total:', response.data.length);
-      if (response.data.length > 0) {
-        console.log('✅ Primer tutor con foto:', response.data[0].usuario?.fotoPerfil);
-      }
-      return response.data;
+      const pagina = await obtenerPagina(axiosInstance, '/api/tutor/list', {
+        materia, precioMin, precioMax, nombre, cursor,
+      });
+      console.log('✅ tutorApi.listTutors - Tutores en la página:', pagina.items.length);
+      return pagina;
     } catch (error) {
-      console.error('❌ tutorApi.listAllTutors - Error:', error.response?.data || error.message);
+      console.error('❌ tutorApi.listTutors - Error:', error.response?.data || error.message);
       throw error;
     }
   },
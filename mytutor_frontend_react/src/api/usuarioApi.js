@@ -1,4 +1,5 @@
 import axiosInstance from '../config/axiosConfig';
+import { obtenerPagina } from './paginacion';
 
 export const usuarioApi = {
   getMyProfile: async () => {
@@ -49,17 +50,16 @@ export const usuarioApi = {
     }
   },
 
-  getAllUsers: async () => {
-    console.log('📡 usuarioApi.getAllUsers - Obteniendo todos los usuarios (ADMIN)...');
+  // Una página del listado de admin. Filtros del backend: busqueda (inicio del nombre de usuario,
+  // nombre o apellido), rol y activo. Para la siguiente página se pasa el cursor recibido
+  getUsers: async ({ busqueda, rol, activo, cursor } = {}) => {
+    console.log('📡 usuarioApi.getUsers - Filtros:', { busqueda, rol, activo, cursor });
     try {
-      const response = await axiosInstance.get('/api/usuario/list');
-      console.log('✅ usuarioApi.getAllUsers - Total usuarios:', response.data.length);
-      if (response.data.length > 0) {
-        console.log('✅ Primer usuario:', JSON.stringify(response.data[0], null, 2));
-      }
-      return response.data;
+      const pagina = await obtenerPagina(axiosInstance, '/api/usuario/list', { busqueda, rol, activo, cursor });
+      console.log('✅ usuarioApi.getUsers - Usuarios en la página:', pagina.items.length);
+      return pagina;
     } catch (error) {
-      console.error('❌ usuarioApi.getAllUsers - Error:', error.response?.data || error.message);
+      console.error('❌ usuarioApi.getUsers - Error:', error.response?.data || error.message);
       throw error;
     }
   },
@@ -1,34 +1,64 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { resenaApi } from '../../api/resenaApi';
 import { tutorApi } from '../../api/tutorApi';
 
+const ESPERA_BUSQUEDA_MS = 300;
+
 const AdminReviews = () => {
   const [tutores, setTutores] = useState([]);
   const [selectedTutor, setSelectedTutor] = useState(null);
   const [resenas, setResenas] = useState([]);
+  const [resenasCursor, setResenasCursor] = useState(null);
+  const [cargandoResenas, setCargandoResenas] = useState(false);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
+  const [cargandoMas, setCargandoMas] = useState(false);
+  // Solo se usa la respuesta de la última búsqueda (una anterior puede llegar después)
+  const ultimaBusqueda = useRef(0);
 
+  // La búsqueda por nombre se hace en el servidor: al cambiarla se vuelve a la primera página
   useEffect(() => {
-    loadTutores();
-  }, []);
+    const espera = setTimeout(() => loadTutores(), searchTerm ? ESPERA_BUSQUEDA_MS : 0);
+    return () => clearTimeout(espera);
+  }, [searchTerm]);
 
   const loadTutores = async () => {
+    const busqueda = ++ultimaBusqueda.current;
     try {
-      const data = await tutorApi.listAllTutors();
-      setTutores(data);
+      const pagina = await tutorApi.listTutors({ nombre: searchTerm.trim() });
+      if (busqueda !== ultimaBusqueda.current) return;
+      setTutores(pagina.items);
+      setSiguienteCursor(pagina.siguienteCursor);
     } catch (error) {
       console.error('Error cargando tutores:', error);
     } finally {
-      setLoading(false);
+      if (busqueda === ultimaBusqueda.current) setLoading(false);
+    }
+  };
+
+  const loadMasTutores = async () => {
+    const busqueda = ultimaBusqueda.current;
+    setCargandoMas(true);
+    try {
+      const pagina = await tutorApi.listTutors({ nombre: searchTerm.trim(), cursor: siguienteCursor });
+      if (busqueda !== ultimaBusqueda.current) return;
+      setTutores((anteriores) => [...anteriores, ...pagina.items]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (error) {
+      console.error('Error cargando más tutores:', error);
+    } finally {
+      setCargandoMas(false);
     }
   };
 
   const loadResenasTutor = async (idTutor) => {
     try {
       setLoading(true);
-      const data = await resenaApi.getResenasByTutor(idTutor);
-      setResenas(data);
+      // Solo la página más reciente; el resto se pide con "Cargar más reseñas"
+      const pagina = await resenaApi.getResenasByTutor(idTutor);
+      setResenas(pagina.items);
+      setResenasCursor(pagina.siguienteCursor);
       setSelectedTutor(idTutor);
     } catch (error) {
       console.error('Error cargando reseñas:', error);
@@ -37,20 +67,20 @@ const AdminReviews = () => {
     }
   };
 
-  const filteredTutores = tutores.filter((tutor) => {
-    if (!searchTerm) return true;
-    
-    const search = searchTerm.toLowerCase();
-    const nombre = tutor.nombre && tutor.apellido 
-      ? `${tutor.nombre} ${tutor.apellido}`.toLowerCase()
-      : '';
-    const email = tutor.correo?.toLowerCase() || '';
-    const materias = tutor.materias?.map(m => m.nombre.toLowerCase()).join(' ') || '';
-    
-    return nombre.includes(search) || 
-           email.includes(search) || 
-           materias.includes(search);
-  });
+  const loadMasResenas = async () => {
+    setCargandoResenas(true);
+    try {
+      const pagina = await resenaApi.getResenasByTutor(selectedTutor, resenasCursor);
+      setResenas((anteriores) => [...anteriores, ...pagina.items]);
+      setResenasCursor(pagina.siguienteCursor);
+    } finally {
+      setCargandoResenas(false);
+    }
+  };
+
+  // Total según los contadores del tutor (las reseñas cargadas pueden ser solo la primera página)
+  const tutorSeleccionado = tutores.find((tutor) => (tutor.id || tutor.idTutor) === selectedTutor);
+  const totalResenas = tutorSeleccionado?.resumenResenas?.total ?? resenas.length;
 
   if (loading && tutores.length === 0) {
     return <div className="loading">Cargando reseñas...</div>;
@@ -63,14 +93,14 @@ const AdminReviews = () => {
       <div className="grid-2" style={{ gap: '20px' }}>
         {/* Lista de tutores */}
         <div className="card">
-          <h2 style={{ marginBottom: '20px' }}>👨‍🏫 Tutores ({tutores.length})</h2>
+          <h2 style={{ marginBottom: '20px' }}>👨‍🏫 Tutores ({tutores.length}{siguienteCursor ? '+' : ''})</h2>
           
           {/* Barra de búsqueda */}
           <div style={{ marginBottom: '15px' }}>
             <input
               type="text"
               className="form-control"
-              placeholder="🔍 Buscar tutor..."
+              placeholder="🔍 Buscar tutor por nombre..."
               value={searchTerm}
               onChange={(e) => setSearchTerm(e.target.value)}
               style={{
@@ -80,22 +110,17 @@ const AdminReviews = () => {
                 borderRadius: '8px'
               }}
             />
-            {searchTerm && (
-              <p style={{ marginTop: '8px', color: '#666', fontSize: '12px' }}>
-                Mostrando <strong>{filteredTutores.length}</strong> de <strong>{tutores.length}</strong>
-              </p>
-            )}
           </div>
 
           <div style={{ maxHeight: '600px', overflowY: 'auto' }}>
-            {filteredTutores.length === 0 ? (
+            {tutores.length === 0 ? (
               <p style={{ textAlign: 'center', color: '#666', padding: '20px' }}>
                 {searchTerm 
                   ? `No se encontraron tutores con "${searchTerm}"`
                   : 'No hay tutores registrados'}
               </p>
             ) : (
-              filteredTutores.map((tutor) => (
+              tutores.map((tutor) => (
                 <div
                   key={tutor.id || tutor.idTutor}
                   onClick={() => loadResenasTutor(tutor.id || tutor.idTutor)}
@@ -116,13 +141,18 @@ const AdminReviews = () => {
                 </div>
               ))
             )}
+            {siguienteCursor && (
+              <button onClick={loadMasTutores} className="btn-secondary" disabled={cargandoMas} style={{ width: '100%' }}>
+                {cargandoMas ? 'Cargando...' : 'Cargar más tutores'}
+              </button>
+            )}
           </div>
         </div>
 
         {/* Reseñas del tutor seleccionado */}
         <div className="card">
           <h2 style={{ marginBottom: '20px' }}>
-            {selectedTutor ? `📝 Reseñas (${resenas.length})` : '📝 Selecciona un tutor'}
+            {selectedTutor ? `📝 Reseñas (${totalResenas})` : '📝 Selecciona un tutor'}
           </h2>
           
           {loading ? (
@@ -160,6 +190,11 @@ const AdminReviews = () => {
                   )}
                 </div>
               ))}
+              {resenasCursor && (
+                <button onClick={loadMasResenas} className="btn-secondary" disabled={cargandoResenas} style={{ width: '100%' }}>
+                  {cargandoResenas ? 'Cargando...' : 'Cargar más reseñas'}
+                </button>
+              )}
             </div>
           )}
         </div>
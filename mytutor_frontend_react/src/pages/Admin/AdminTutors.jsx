@@ -1,26 +1,49 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { tutorApi } from '../../api/tutorApi';
 
+const ESPERA_BUSQUEDA_MS = 300;
+
 const AdminTutors = () => {
   const [tutores, setTutores] = useState([]);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
+  const [cargandoMas, setCargandoMas] = useState(false);
+  // Solo se usa la respuesta de la última búsqueda (una anterior puede llegar después)
+  const ultimaBusqueda = useRef(0);
 
+  // La búsqueda por nombre se hace en el servidor: al cambiarla se vuelve a la primera página
   useEffect(() => {
-    loadTutores();
-  }, []);
+    const espera = setTimeout(() => loadTutores(), searchTerm ? ESPERA_BUSQUEDA_MS : 0);
+    return () => clearTimeout(espera);
+  }, [searchTerm]);
 
   const loadTutores = async () => {
+    const busqueda = ++ultimaBusqueda.current;
     try {
-      const data = await tutorApi.listAllTutors();
-      console.log('📊 Tutores cargados:', data);
-      console.log('📊 Estructura del primer tutor:', JSON.stringify(data[0], null, 2));
-      console.log('📊 Estado activo del primer tutor:', data[0]?.activo);
-      setTutores(data);
+      const pagina = await tutorApi.listTutors({ nombre: searchTerm.trim() });
+      if (busqueda !== ultimaBusqueda.current) return;
+      setTutores(pagina.items);
+      setSiguienteCursor(pagina.siguienteCursor);
     } catch (error) {
       console.error('Error cargando tutores:', error);
     } finally {
-      setLoading(false);
+      if (busqueda === ultimaBusqueda.current) setLoading(false);
+    }
+  };
+
+  const loadMasTutores = async () => {
+    const busqueda = ultimaBusqueda.current;
+    setCargandoMas(true);
+    try {
+      const pagina = await tutorApi.listTutors({ nombre: searchTerm.trim(), cursor: siguienteCursor });
+      if (busqueda !== ultimaBusqueda.current) return;
+      setTutores((anteriores) => [...anteriores, ...pagina.items]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (error) {
+      console.error('Error cargando más tutores:', error);
+    } finally {
+      setCargandoMas(false);
     }
   };
 
@@ -63,19 +86,6 @@ const AdminTutors = () => {
     }
   };
 
-  const filteredTutores = tutores.filter((tutor) => {
-    if (!searchTerm) return true;
-    
-    const search = searchTerm.toLowerCase();
-    const nombre = `${tutor.nombre} ${tutor.apellido}`.toLowerCase();
-    const email = tutor.correo?.toLowerCase() || '';
-    const materias = tutor.materias?.map(m => m.nombre.toLowerCase()).join(' ') || '';
-    
-    return nombre.includes(search) || 
-           email.includes(search) || 
-           materias.includes(search);
-  });
-
   if (loading) return <div className="loading">Cargando tutores...</div>;
 
   return (
@@ -88,7 +98,7 @@ const AdminTutors = () => {
           <input
             type="text"
             className="form-control"
-            placeholder="🔍 Buscar por nombre, email o materia..."
+            placeholder="🔍 Buscar por inicio del nombre o apellido..."
             value={searchTerm}
             onChange={(e) => setSearchTerm(e.target.value)}
             style={{
@@ -98,15 +108,10 @@ const AdminTutors = () => {
               borderRadius: '8px'
             }}
           />
-          {searchTerm && (
-            <p style={{ marginTop: '10px', color: '#666', fontSize: '14px' }}>
-              Mostrando <strong>{filteredTutores.length}</strong> de <strong>{tutores.length}</strong> tutores
-            </p>
-          )}
         </div>
 
         <p style={{ marginBottom: '20px' }}>
-          Total de tutores: <strong>{tutores.length}</strong>
+          Mostrando <strong>{tutores.length}</strong> tutores{siguienteCursor ? ' (hay más)' : ''}
         </p>
         
         <div style={{ overflowX: 'auto' }}>
@@ -123,7 +128,7 @@ const AdminTutors = () => {
               </tr>
             </thead>
             <tbody>
-              {filteredTutores.map((tutor) => (
+              {tutores.map((tutor) => (
                 <tr key={tutor.idTutor || tutor.id} style={{ borderBottom: '1px solid #eee' }}>
                   <td style={{ padding: '12px' }}>
                     <small style={{ fontSize: '10px', color: '#999' }}>
@@ -192,15 +197,17 @@ const AdminTutors = () => {
           </table>
         </div>
 
-        {filteredTutores.length === 0 && tutores.length > 0 && (
-          <p style={{ textAlign: 'center', color: '#666', padding: '20px' }}>
-            No se encontraron tutores con "{searchTerm}"
-          </p>
+        {siguienteCursor && (
+          <div style={{ textAlign: 'center', marginTop: '20px' }}>
+            <button onClick={loadMasTutores} className="btn-primary" disabled={cargandoMas}>
+              {cargandoMas ? 'Cargando...' : 'Cargar más tutores'}
+            </button>
+          </div>
         )}
 
         {tutores.length === 0 && (
           <p style={{ textAlign: 'center', color: '#666', padding: '20px' }}>
-            No hay tutores registrados
+            {searchTerm ? `No se encontraron tutores con "${searchTerm}"` : 'No hay tutores registrados'}
           </p>
         )}
       </div>
@@ -1,30 +1,59 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { usuarioApi } from '../../api/usuarioApi';
 
+const ESPERA_BUSQUEDA_MS = 300;
+
 const AdminUsers = () => {
   const [usuarios, setUsuarios] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [cargandoMas, setCargandoMas] = useState(false);
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
+  const [rol, setRol] = useState('');
+  const [activo, setActivo] = useState('true');
+  // Solo se usa la respuesta de la última búsqueda (una anterior puede llegar después)
+  const ultimaBusqueda = useRef(0);
 
+  // Los filtros se aplican en el servidor: al cambiarlos se vuelve a la primera página
   useEffect(() => {
-    loadUsuarios();
-  }, []);
+    const espera = setTimeout(() => loadUsuarios(), searchTerm ? ESPERA_BUSQUEDA_MS : 0);
+    return () => clearTimeout(espera);
+  }, [searchTerm, rol, activo]);
+
+  const filtros = () => ({
+    busqueda: searchTerm.trim(),
+    rol,
+    activo: activo === '' ? undefined : activo === 'true',
+  });
 
   const loadUsuarios = async () => {
+    const busqueda = ++ultimaBusqueda.current;
     try {
-      const data = await usuarioApi.getAllUsers();
-      console.log('📊 Usuarios cargados:', data);
-      
-      // Filtrar solo usuarios activos
-      const usuariosActivos = data.filter(usuario => usuario.activo !== false);
-      console.log('📊 Usuarios activos filtrados:', usuariosActivos.length);
-      
-      setUsuarios(usuariosActivos);
+      const pagina = await usuarioApi.getUsers(filtros());
+      if (busqueda !== ultimaBusqueda.current) return;
+      setUsuarios(pagina.items);
+      setSiguienteCursor(pagina.siguienteCursor);
     } catch (error) {
       console.error('Error cargando usuarios:', error);
       alert('Error al cargar usuarios: ' + (error.response?.data || error.message));
     } finally {
-      setLoading(false);
+      if (busqueda === ultimaBusqueda.current) setLoading(false);
+    }
+  };
+
+  const loadMas = async () => {
+    const busqueda = ultimaBusqueda.current;
+    setCargandoMas(true);
+    try {
+      const pagina = await usuarioApi.getUsers({ ...filtros(), cursor: siguienteCursor });
+      if (busqueda !== ultimaBusqueda.current) return;
+      setUsuarios((anteriores) => [...anteriores, ...pagina.items]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (error) {
+      console.error('Error cargando más usuarios:', error);
+      alert('Error al cargar usuarios: ' + (error.response?.data || error.message));
+    } finally {
+      setCargandoMas(false);
     }
   };
 
@@ -61,21 +90,6 @@ const AdminUsers = () => {
     }
   };
 
-  const filteredUsuarios = usuarios.filter((usuario) => {
-    if (!searchTerm) return true;
-    
-    const search = searchTerm.toLowerCase();
-    const nombre = `${usuario.nombre} ${usuario.apellido}`.toLowerCase();
-    const email = usuario.correo?.toLowerCase() || '';
-    const nombreUsuario = usuario.nombreUsuario?.toLowerCase() || '';
-    const rol = usuario.rol?.toLowerCase() || '';
-    
-    return nombre.includes(search) || 
-           email.includes(search) || 
-           nombreUsuario.includes(search) ||
-           rol.includes(search);
-  });
-
   if (loading) return <div className="loading">Cargando usuarios...</div>;
 
   return (
@@ -83,30 +97,38 @@ const AdminUsers = () => {
       <h1 style={{ marginBottom: '30px' }}>👥 Gestión de Usuarios (Admin)</h1>
 
       <div className="card">
-        {/* Barra de búsqueda */}
-        <div style={{ marginBottom: '20px' }}>
+        {/* Barra de búsqueda y filtros (en el servidor) */}
+        <div style={{ marginBottom: '20px', display: 'flex', gap: '10px', flexWrap: 'wrap' }}>
           <input
             type="text"
             className="form-control"
-            placeholder="🔍 Buscar por nombre, email, usuario o rol..."
+            placeholder="🔍 Buscar por inicio del nombre, apellido o usuario..."
             value={searchTerm}
             onChange={(e) => setSearchTerm(e.target.value)}
             style={{
+              flex: 1,
+              minWidth: '250px',
               padding: '12px',
               fontSize: '16px',
               border: '2px solid #2196f3',
               borderRadius: '8px'
             }}
           />
-          {searchTerm && (
-            <p style={{ marginTop: '10px', color: '#666', fontSize: '14px' }}>
-              Mostrando <strong>{filteredUsuarios.length}</strong> de <strong>{usuarios.length}</strong> usuarios
-            </p>
-          )}
+          <select className="form-control" value={rol} onChange={(e) => setRol(e.target.value)} style={{ width: 'auto' }}>
+            <option value="">Todos los roles</option>
+            <option value="ESTUDIANTE">Estudiantes</option>
+            <option value="TUTOR">Tutores</option>
+            <option value="ADMIN">Administradores</option>
+          </select>
+          <select className="form-control" value={activo} onChange={(e) => setActivo(e.target.value)} style={{ width: 'auto' }}>
+            <option value="true">Activos</option>
+            <option value="false">Desactivados</option>
+            <option value="">Todos</option>
+          </select>
         </div>
 
         <p style={{ marginBottom: '20px' }}>
-          Total de usuarios: <strong>{usuarios.length}</strong>
+          Mostrando <strong>{usuarios.length}</strong> usuarios{siguienteCursor ? ' (hay más)' : ''}
         </p>
         
         <div style={{ overflowX: 'auto' }}>
@@ -122,7 +144,7 @@ const AdminUsers = () => {
               </tr>
             </thead>
             <tbody>
-              {filteredUsuarios.map((usuario) => (
+              {usuarios.map((usuario) => (
                 <tr key={usuario.id} style={{ borderBottom: '1px solid #eee' }}>
                   <td style={{ padding: '12px' }}>
                     <small style={{ fontSize: '10px', color: '#999' }}>
@@ -193,15 +215,17 @@ const AdminUsers = () => {
           </table>
         </div>
 
-        {filteredUsuarios.length === 0 && usuarios.length > 0 && (
-          <p style={{ textAlign: 'center', color: '#666', padding: '20px' }}>
-            No se encontraron usuarios con "{searchTerm}"
-          </p>
+        {siguienteCursor && (
+          <div style={{ textAlign: 'center', marginTop: '20px' }}>
+            <button onClick={loadMas} className="btn-primary" disabled={cargandoMas}>
+              {cargandoMas ? 'Cargando...' : 'Cargar más usuarios'}
+            </button>
+          </div>
         )}
 
         {usuarios.length === 0 && (
           <p style={{ textAlign: 'center', color: '#666', padding: '20px' }}>
-            No hay usuarios registrados
+            {searchTerm ? `No se encontraron usuarios con "${searchTerm}"` : 'No hay usuarios con estos filtros'}
           </p>
         )}
       </div>
@@ -49,32 +49,15 @@ const Dashboard = () => {
     }
 
     try {
-      const horariosData = await reservaApi.getMyReservas();
-      console.log('📊 Horarios con reservas:', horariosData);
-      
-      // Procesar horarios para obtener las reservas
-      const reservasList = [];
-      horariosData.forEach(horario => {
-        if (horario.historialReservas && horario.historialReservas.length > 0) {
-          horario.historialReservas.forEach(reserva => {
-            reservasList.push({
-              estado: reserva.estado,
-              fecha: reserva.fecha
-            });
-          });
-        }
-      });
-      
-      console.log('📊 Reservas procesadas:', reservasList.length);
-      
+      // Totales por estado actual calculados en el servidor: no hace falta traer todas las reservas
+      const conteo = await reservaApi.contarMisReservas();
+      console.log('📊 Conteo de reservas:', conteo);
+      const total = (estado) => conteo[estado] || 0;
+
       setStats({
-        reservasPendientes: reservasList.filter(r => 
-          r.estado === 'PENDIENTE' || r.estado === 'CONFIRMADA' || r.estado === 'ESPERANDO_ACCION_TUTOR'
-        ).length,
-        reservasCompletadas: reservasList.filter(r => 
-          r.estado === 'COMPLETADA'
-        ).length,
-        totalReservas: reservasList.length
+        reservasPendientes: total('PENDIENTE') + total('ESPERANDO_ACCION_TUTOR'),
+        reservasCompletadas: total('COMPLETADA'),
+        totalReservas: Object.values(conteo).reduce((suma, cantidad) => suma + cantidad, 0)
       });
     } catch (error) {
       console.error('Error cargando estadísticas:', error);
@@ -1,23 +1,40 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
+import { useAuth } from '../../contexts/AuthContext';
 import { reservaApi } from '../../api/reservaApi';
 import { resenaApi } from '../../api/resenaApi';
 import { tutorApi } from '../../api/tutorApi';
 
+// Estados actuales que pide cada filtro al servidor ('all' = sin filtro)
+const ESTADOS_POR_FILTRO = {
+  all: [],
+  pendiente: ['PENDIENTE', 'ESPERANDO_ACCION_TUTOR'],
+  COMPLETADA: ['COMPLETADA'],
+  NO_ASISTIO: ['NO_ASISTIO'],
+  CANCELADA: ['CANCELADA'],
+};
+
 const MyReservations = () => {
+  const { user } = useAuth();
   const [reservas, setReservas] = useState([]);
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
+  const [conteo, setConteo] = useState({});
   const [misResenas, setMisResenas] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [cargandoMas, setCargandoMas] = useState(false);
   const [filter, setFilter] = useState('all');
+  // Solo se usa la respuesta de la última carga (una anterior puede llegar después)
+  const ultimaCarga = useRef(0);
   const navigate = useNavigate();
 
   useEffect(() => {
-    loadData();
+    loadMisResenas();
   }, []);
 
-  const loadData = async () => {
-    await Promise.all([loadReservas(), loadMisResenas()]);
-  };
+  // El filtro se aplica en el servidor: al cambiarlo se vuelve a la primera página
+  useEffect(() => {
+    loadReservas();
+  }, [filter]);
 
   const loadMisResenas = async () => {
     try {
@@ -29,55 +46,88 @@ const MyReservations = () => {
     }
   };
 
-  const loadReservas = async () => {
+  const loadConteo = async () => {
     try {
-      const horariosData = await reservaApi.getMyReservas();
-      console.log('📊 Mis reservas:', horariosData);
-      
-      // Procesar horarios para extraer reservas
-      const reservasList = [];
-      
-      for (const horario of horariosData) {
-        if (horario.historialReservas && horario.historialReservas.length > 0) {
-          // Obtener info del tutor
-          let tutorNombre = 'Cargando...';
-          let precioHora = 0;
-          
-          try {
-            const tutorData = await tutorApi.getTutorById(horario.idTutor);
-            tutorNombre = tutorData.nombre && tutorData.apellido 
-              ? `${tutorData.nombre} ${tutorData.apellido}`
-              : tutorData.correo || 'Tutor';
-            precioHora = tutorData.precioHora || 0;
-          } catch (error) {
-            console.warn('⚠️ Error cargando tutor:', error);
-            tutorNombre = horario.tutorNombreApellido || `ID: ${horario.idTutor}`;
-            precioHora = horario.precioHora || 0;
-          }
-          
-          // Solo tomar la última reserva del historial (la más reciente)
-          const ultimaReserva = horario.historialReservas[horario.historialReservas.length - 1];
-          
-          reservasList.push({
-            id: horario.id,
-            fechaInicio: horario.fechaInicio,
-            fechaFin: horario.fechaFin,
-            idTutor: horario.idTutor,
-            tutorNombre: tutorNombre,
-            estado: ultimaReserva.estado,
-            fechaReserva: ultimaReserva.fecha,
-            precioHora: precioHora
-          });
+      setConteo(await reservaApi.contarMisReservas());
+    } catch (error) {
+      console.error('Error contando reservas:', error);
+    }
+  };
+
+  // Convierte una página de horarios en filas de reserva; los tutores de la página se piden a la vez
+  const procesarPagina = (horarios) => Promise.all(
+    horarios
+      .filter((horario) => horario.historialReservas && horario.historialReservas.length > 0)
+      .map(async (horario) => {
+        let tutorNombre = 'Cargando...';
+        let precioHora = 0;
+
+        try {
+          const tutorData = await tutorApi.getTutorById(horario.idTutor);
+          tutorNombre = tutorData.nombre && tutorData.apellido
+            ? `${tutorData.nombre} ${tutorData.apellido}`
+            : tutorData.correo || 'Tutor';
+          precioHora = tutorData.precioHora || 0;
+        } catch (error) {
+          console.warn('⚠️ Error cargando tutor:', error);
+          tutorNombre = horario.tutorNombreApellido || `ID: ${horario.idTutor}`;
+          precioHora = horario.precioHora || 0;
         }
-      }
-      
+
+        // Mi última reserva del historial: si cancelé, el horario pudo reservarlo otra persona después
+        const mias = horario.historialReservas.filter((r) => !user?.id || r.idUsuario === user.id);
+        const ultimaReserva = mias.length > 0
+          ? mias[mias.length - 1]
+          : horario.historialReservas[horario.historialReservas.length - 1];
+
+        return {
+          id: horario.id,
+          fechaInicio: horario.fechaInicio,
+          fechaFin: horario.fechaFin,
+          idTutor: horario.idTutor,
+          tutorNombre: tutorNombre,
+          estado: ultimaReserva.estado,
+          fechaReserva: ultimaReserva.fecha,
+          precioHora: precioHora
+        };
+      })
+  );
+
+  // Primera página del filtro actual (y los totales de los botones)
+  const loadReservas = async () => {
+    const carga = ++ultimaCarga.current;
+    setLoading(true);
+    loadConteo();
+    try {
+      const pagina = await reservaApi.getMyReservas({ estados: ESTADOS_POR_FILTRO[filter] });
+      const reservasList = await procesarPagina(pagina.items);
+      if (carga !== ultimaCarga.current) return;
       console.log('📊 Reservas procesadas:', reservasList);
-      console.log('📊 Estados únicos:', [...new Set(reservasList.map(r => r.estado))]);
       setReservas(reservasList);
+      setSiguienteCursor(pagina.siguienteCursor);
     } catch (error) {
       console.error('Error cargando reservas:', error);
     } finally {
-      setLoading(false);
+      if (carga === ultimaCarga.current) setLoading(false);
+    }
+  };
+
+  const loadMas = async () => {
+    const carga = ultimaCarga.current;
+    setCargandoMas(true);
+    try {
+      const pagina = await reservaApi.getMyReservas({
+        estados: ESTADOS_POR_FILTRO[filter],
+        cursor: siguienteCursor,
+      });
+      const reservasList = await procesarPagina(pagina.items);
+      if (carga !== ultimaCarga.current) return;
+      setReservas((anteriores) => [...anteriores, ...reservasList]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (error) {
+      console.error('Error cargando más reservas:', error);
+    } finally {
+      setCargandoMas(false);
     }
   };
 
@@ -168,27 +218,8 @@ const MyReservations = () => {
     }
   };
 
-  const filteredReservas = reservas.filter((reserva) => {
-    // Filtrar por estado
-    if (filter !== 'all') {
-      // Unificar PENDIENTE y ESPERANDO_ACCION_TUTOR como "pendiente"
-      if (filter === 'pendiente') {
-        const esPendiente = reserva.estado === 'PENDIENTE' || reserva.estado === 'ESPERANDO_ACCION_TUTOR';
-        if (!esPendiente) return false;
-      } else {
-        // Para otros filtros, comparación exacta
-        if (reserva.estado !== filter) return false;
-      }
-    }
-    
-    return true;
-  });
-
-  console.log('📊 Filtro activo:', filter);
-  console.log('📊 Total reservas:', reservas.length);
-  console.log('📊 Total filtradas:', filteredReservas.length);
-  console.log('📊 Estados en todas:', reservas.map(r => r.estado));
-  console.log('📊 Estados filtradas:', filteredReservas.map(r => r.estado));
+  // Las reservas ya llegan filtradas por el servidor; los totales de los botones vienen del conteo
+  const total = (estado) => conteo[estado] || 0;
 
   const getEstadoBadge = (estado) => {
     const badges = {
@@ -213,41 +244,41 @@ const MyReservations = () => {
           className={filter === 'all' ? 'btn-primary' : 'btn-secondary'}
           style={{ padding: '10px 16px' }}
         >
-          Todas ({reservas.length})
+          Todas ({Object.values(conteo).reduce((suma, cantidad) => suma + cantidad, 0)})
         </button>
         <button
           onClick={() => setFilter('pendiente')}
           className={filter === 'pendiente' ? 'btn-primary' : 'btn-secondary'}
           style={{ padding: '10px 16px' }}
         >
-          Pendientes ({reservas.filter(r => r.estado === 'PENDIENTE' || r.estado === 'ESPERANDO_ACCION_TUTOR').length})
+          Pendientes ({total('PENDIENTE') + total('ESPERANDO_ACCION_TUTOR')})
         </button>
         <button
           onClick={() => setFilter('COMPLETADA')}
           className={filter === 'COMPLETADA' ? 'btn-primary' : 'btn-secondary'}
           style={{ padding: '10px 16px' }}
         >
-          Completadas ({reservas.filter(r => r.estado === 'COMPLETADA').length})
+          Completadas ({total('COMPLETADA')})
         </button>
         <button
           onClick={() => setFilter('NO_ASISTIO')}
           className={filter === 'NO_ASISTIO' ? 'btn-primary' : 'btn-secondary'}
           style={{ padding: '10px 16px' }}
         >
-          No Asistió ({reservas.filter(r => r.estado === 'NO_ASISTIO').length})
+          No Asistió ({total('NO_ASISTIO')})
         </button>
         <button
           onClick={() => setFilter('CANCELADA')}
           className={filter === 'CANCELADA' ? 'btn-primary' : 'btn-secondary'}
           style={{ padding: '10px 16px' }}
         >
-          Canceladas ({reservas.filter(r => r.estado === 'CANCELADA').length})
+          Canceladas ({total('CANCELADA')})
         </button>
       </div>
 
       {/* Lista de reservas */}
       <div style={{ display: 'grid', gap: '20px' }}>
-        {filteredReservas.length === 0 ? (
+        {reservas.length === 0 ? (
           <div className="card" style={{ padding: '20px', textAlign: 'center' }}>
             <p>No tienes reservas {filter}s</p>
             {filter === 'all' && (
@@ -259,7 +290,7 @@ const MyReservations = () => {
             )}
           </div>
         ) : (
-          filteredReservas.map((reserva) => {
+          reservas.map((reserva) => {
             const fechaInicio = new Date(reserva.fechaInicio);
             const fechaFin = new Date(reserva.fechaFin);
             const duracion = Math.round((fechaFin - fechaInicio) / 60000);
@@ -350,6 +381,14 @@ const MyReservations = () => {
           })
         )}
       </div>
+
+      {siguienteCursor && (
+        <div style={{ textAlign: 'center', marginTop: '30px' }}>
+          <button onClick={loadMas} className="btn-primary" disabled={cargandoMas}>
+            {cargandoMas ? 'Cargando...' : 'Ver más reservas'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
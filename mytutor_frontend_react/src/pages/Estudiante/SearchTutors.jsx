@@ -1,57 +1,61 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { Link } from 'react-router-dom';
 import { tutorApi } from '../../api/tutorApi';
 
+const ESPERA_BUSQUEDA_MS = 300;
+
 const SearchTutors = () => {
   const [tutores, setTutores] = useState([]);
-  const [filteredTutores, setFilteredTutores] = useState([]);
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [materiaFilter, setMateriaFilter] = useState('');
+  const [precioMin, setPrecioMin] = useState('');
+  const [precioMax, setPrecioMax] = useState('');
   const [loading, setLoading] = useState(true);
+  const [cargandoMas, setCargandoMas] = useState(false);
+  // Solo se usa la respuesta de la última búsqueda (una anterior puede llegar después)
+  const ultimaBusqueda = useRef(0);
 
+  // Los filtros se aplican en el servidor: al cambiarlos se vuelve a la primera página
   useEffect(() => {
-    loadTutores();
-  }, []);
+    const espera = setTimeout(() => loadTutores(), loading ? 0 : ESPERA_BUSQUEDA_MS);
+    return () => clearTimeout(espera);
+  }, [searchTerm, materiaFilter, precioMin, precioMax]);
 
-  useEffect(() => {
-    filterTutores();
-  }, [searchTerm, materiaFilter, tutores]);
+  const filtros = () => ({
+    nombre: searchTerm.trim(),
+    materia: materiaFilter.trim(),
+    precioMin: precioMin === '' ? undefined : precioMin,
+    precioMax: precioMax === '' ? undefined : precioMax,
+  });
 
   const loadTutores = async () => {
+    const busqueda = ++ultimaBusqueda.current;
     try {
-      const data = await tutorApi.listAllTutors();
-      console.log('📊 Tutores cargados - Datos completos:', JSON.stringify(data[0], null, 2));
-      setTutores(data);
-      setFilteredTutores(data);
+      const pagina = await tutorApi.listTutors(filtros());
+      if (busqueda !== ultimaBusqueda.current) return;
+      setTutores(pagina.items);
+      setSiguienteCursor(pagina.siguienteCursor);
     } catch (error) {
       console.error('Error cargando tutores:', error);
     } finally {
-      setLoading(false);
+      if (busqueda === ultimaBusqueda.current) setLoading(false);
     }
   };
 
-  const filterTutores = () => {
-    let filtered = tutores;
-
-    if (searchTerm) {
-      filtered = filtered.filter((tutor) =>
-        tutor.nombre?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        tutor.apellido?.toLowerCase().includes(searchTerm.toLowerCase())
-      );
-    }
-
-    if (materiaFilter) {
-      filtered = filtered.filter((tutor) => {
-        if (!tutor.materias || !Array.isArray(tutor.materias)) return false;
-        
-        return tutor.materias.some((materia) => {
-          const nombreMateria = typeof materia === 'object' ? materia.nombre : materia;
-          return nombreMateria?.toLowerCase().includes(materiaFilter.toLowerCase());
-        });
-      });
+  const loadMas = async () => {
+    const busqueda = ultimaBusqueda.current;
+    setCargandoMas(true);
+    try {
+      const pagina = await tutorApi.listTutors({ ...filtros(), cursor: siguienteCursor });
+      if (busqueda !== ultimaBusqueda.current) return;
+      setTutores((anteriores) => [...anteriores, ...pagina.items]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (error) {
+      console.error('Error cargando más tutores:', error);
+    } finally {
+      setCargandoMas(false);
     }
-
-    setFilteredTutores(filtered);
   };
 
   if (loading) return <div className="loading">Buscando tutores disponibles...</div>;
@@ -68,7 +72,7 @@ const SearchTutors = () => {
             <input
               type="text"
               className="form-control"
-              placeholder="Nombre del tutor..."
+              placeholder="Nombre o apellido del tutor..."
               value={searchTerm}
               onChange={(e) => setSearchTerm(e.target.value)}
             />
@@ -83,14 +87,36 @@ const SearchTutors = () => {
               onChange={(e) => setMateriaFilter(e.target.value)}
             />
           </div>
+          <div className="form-group">
+            <label className="form-label">Precio mínimo por hora:</label>
+            <input
+              type="number"
+              min="0"
+              className="form-control"
+              placeholder="Ej: 20"
+              value={precioMin}
+              onChange={(e) => setPrecioMin(e.target.value)}
+            />
+          </div>
+          <div className="form-group">
+            <label className="form-label">Precio máximo por hora:</label>
+            <input
+              type="number"
+              min="0"
+              className="form-control"
+              placeholder="Ej: 50"
+              value={precioMax}
+              onChange={(e) => setPrecioMax(e.target.value)}
+            />
+          </div>
         </div>
         <p style={{ marginTop: '10px', color: '#666', fontSize: '14px' }}>
-          📊 Mostrando {filteredTutores.length} de {tutores.length} tutores
+          📊 Mostrando {tutores.length} tutores{siguienteCursor ? ' (hay más)' : ''}
         </p>
       </div>
 
       {/* Lista de tutores */}
-      {filteredTutores.length === 0 ? (
+      {tutores.length === 0 ? (
         <div className="card">
           <p style={{ textAlign: 'center', color: '#666', padding: '30px' }}>
             No se encontraron tutores que coincidan con tu búsqueda
@@ -98,7 +124,7 @@ const SearchTutors = () => {
         </div>
       ) : (
         <div className="grid-3">
-          {filteredTutores.map((tutor) => {
+          {tutores.map((tutor) => {
             const nombreCompleto = `${tutor.nombre || ''} ${tutor.apellido || ''}`.trim() || 'Tutor';
             
             return (
@@ -199,6 +225,14 @@ const SearchTutors = () => {
           })}
         </div>
       )}
+
+      {siguienteCursor && (
+        <div style={{ textAlign: 'center', marginTop: '30px' }}>
+          <button onClick={loadMas} className="btn-primary" disabled={cargandoMas}>
+            {cargandoMas ? 'Cargando...' : 'Ver más tutores'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -1,16 +1,35 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { tutorApi } from '../../api/tutorApi';
 import { horarioApi } from '../../api/horarioApi';
 import { resenaApi } from '../../api/resenaApi';
 import { reservaApi } from '../../api/reservaApi';
 
+// Tras reconectar a los eventos se recarga una sola vez aunque la conexión oscile
+const ESPERA_RECARGA_MS = 1000;
+
+// Inserta o mueve un horario en la lista, que va ordenada por fecha de inicio (orden PROXIMOS)
+const colocarHorario = (horarios, horario) => {
+  const resto = horarios.filter((h) => h.id !== horario.id);
+  const posicion = resto.findIndex((h) => new Date(h.fechaInicio) > new Date(horario.fechaInicio));
+  return posicion === -1
+    ? [...resto, horario]
+    : [...resto.slice(0, posicion), horario, ...resto.slice(posicion)];
+};
+
 const TutorProfile = () => {
   const { id } = useParams();
   const navigate = useNavigate();
   const [tutor, setTutor] = useState(null);
   const [horarios, setHorarios] = useState([]);
+  const [horariosCursor, setHorariosCursor] = useState(null);
+  // Copia del cursor para el manejador de eventos, que se registra una vez por tutor
+  const horariosCursorRef = useRef(null);
+  const recargaHorarios = useRef(null);
+  const [cargandoHorarios, setCargandoHorarios] = useState(false);
   const [resenas, setResenas] = useState([]);
+  const [resenasCursor, setResenasCursor] = useState(null);
+  const [cargandoResenas, setCargandoResenas] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [selectedHorario, setSelectedHorario] = useState(null);
@@ -20,6 +39,80 @@ const TutorProfile = () => {
     loadTutorData();
   }, [id]);
 
+  // Cambios de disponibilidad en vivo aplicados sobre la lista, sin volver a pedirla:
+  // el evento trae id y fechas, que es lo que se muestra (el precio es el del tutor)
+  // Solo se recarga la primera página al reconectar, por lo que se pudo perder mientras tanto
+  useEffect(() => {
+    const cerrar = horarioApi.subscribeEventos(
+      (evento) => {
+        // Los borrados no traen tutor: quitar un id que no está en la lista no cambia nada
+        if (!evento.disponible) {
+          setHorarios((actuales) => actuales.filter((h) => h.id !== evento.idHorario));
+          return;
+        }
+        if (evento.idTutor !== id) return;
+
+        const horario = {
+          id: evento.idHorario,
+          idTutor: evento.idTutor,
+          fechaInicio: evento.fechaInicio,
+          fechaFin: evento.fechaFin,
+        };
+        setHorarios((actuales) => {
+          // Si hay más páginas y el horario cae después de la última cargada, llegará con "Ver más"
+          const ultimo = actuales[actuales.length - 1];
+          if (horariosCursorRef.current && ultimo
+              && new Date(horario.fechaInicio) > new Date(ultimo.fechaInicio)) {
+            return actuales.filter((h) => h.id !== horario.id);
+          }
+          return colocarHorario(actuales, horario);
+        });
+      },
+      () => {
+        clearTimeout(recargaHorarios.current);
+        recargaHorarios.current = setTimeout(loadHorarios, ESPERA_RECARGA_MS);
+      }
+    );
+    return () => {
+      cerrar();
+      clearTimeout(recargaHorarios.current);
+    };
+  }, [id]);
+
+  const ponerHorariosCursor = (cursor) => {
+    horariosCursorRef.current = cursor;
+    setHorariosCursor(cursor);
+  };
+
+  // Primera página de los horarios disponibles de este tutor (el filtro por tutor lo hace el servidor)
+  const loadHorarios = async () => {
+    try {
+      console.log('📡 Cargando horarios disponibles del tutor...');
+      const pagina = await horarioApi.getHorariosDisponiblesDeTutor(id);
+      setHorarios(pagina.items);
+      ponerHorariosCursor(pagina.siguienteCursor);
+    } catch (horarioError) {
+      console.error('❌ Error cargando horarios:', horarioError);
+      setHorarios([]);
+      ponerHorariosCursor(null);
+    }
+  };
+
+  const loadMasHorarios = async () => {
+    setCargandoHorarios(true);
+    try {
+      const pagina = await horarioApi.getHorariosDisponiblesDeTutor(id, horariosCursor);
+      // Un horario que llegó por evento mientras se pedía la página no se repite
+      const nuevos = new Set(pagina.items.map((h) => h.id));
+      setHorarios((anteriores) => [...anteriores.filter((h) => !nuevos.has(h.id)), ...pagina.items]);
+      ponerHorariosCursor(pagina.siguienteCursor);
+    } catch (horarioError) {
+      console.error('❌ Error cargando más horarios:', horarioError);
+    } finally {
+      setCargandoHorarios(false);
+    }
+  };
+
   const loadTutorData = async () => {
     try {
       setError(null);
@@ -30,34 +123,13 @@ const TutorProfile = () => {
       console.log('✅ Calificación promedio:', tutorData.califiacionPromedio || tutorData.calificacionPromedio);
       setTutor(tutorData);
       
-      try {
-        console.log('📡 Cargando horarios disponibles...');
-        const horariosData = await horarioApi.getAvailableHorarios();
-        
-        const horariosValidos = horariosData.filter(h => h !== null && h !== undefined && h.id);
-        
-        const horariosTutor = horariosValidos.filter(h => {
-          const tutorIdDelHorario = h.idTutor || h.tutor?.idTutor || h.tutor?.id;
-          return tutorIdDelHorario === id;
-        });
-        
-        console.log('✅ Horarios filtrados:', horariosTutor.length);
-        setHorarios(horariosTutor);
-      } catch (horarioError) {
-        console.error('❌ Error cargando horarios:', horarioError);
-        setHorarios([]);
-      }
+      await loadHorarios();
       
-      try {
-        console.log('📡 Cargando reseñas del tutor ID:', id);
-        const resenasData = await resenaApi.getResenasByTutor(id);
-        console.log('✅ Reseñas cargadas:', resenasData.length);
-        console.log('✅ Datos de reseñas:', JSON.stringify(resenasData, null, 2));
-        setResenas(resenasData);
-      } catch (resenaError) {
-        console.error('❌ Error cargando reseñas:', resenaError);
-        setResenas([]);
-      }
+      // Solo la página más reciente; el resto se pide con "Ver más reseñas"
+      console.log('📡 Cargando reseñas del tutor ID:', id);
+      const pagina = await resenaApi.getResenasByTutor(id);
+      setResenas(pagina.items);
+      setResenasCursor(pagina.siguienteCursor);
       
     } catch (error) {
       console.error('❌ Error cargando datos del tutor:', error);
@@ -67,6 +139,20 @@ const TutorProfile = () => {
     }
   };
 
+  const loadMasResenas = async () => {
+    setCargandoResenas(true);
+    try {
+      const pagina = await resenaApi.getResenasByTutor(id, resenasCursor);
+      setResenas((anteriores) => [...anteriores, ...pagina.items]);
+      setResenasCursor(pagina.siguienteCursor);
+    } finally {
+      setCargandoResenas(false);
+    }
+  };
+
+  // Total de reseñas según los contadores del tutor (las cargadas pueden ser solo la primera página)
+  const totalResenas = tutor?.resumenResenas?.total ?? resenas.length;
+
   const handleReservar = async (idHorario) => {
     const horarioSeleccionado = horarios.find(h => h.id === idHorario);
     
@@ -194,7 +280,7 @@ const TutorProfile = () => {
                 {'⭐'.repeat(Math.round(tutor.califiacionPromedio || tutor.calificacionPromedio || 0))}
               </span>
               <span style={{ fontSize: '18px', color: '#666' }}>
-                {(tutor.califiacionPromedio || tutor.calificacionPromedio || 0).toFixed(1)} ({resenas.length} reseñas)
+                {(tutor.califiacionPromedio || tutor.calificacionPromedio || 0).toFixed(1)} ({totalResenas} reseñas)
               </span>
             </div>
 
@@ -317,11 +403,16 @@ const TutorProfile = () => {
                       </div>
                     );
                   })}
+                  {horariosCursor && (
+                    <button onClick={loadMasHorarios} className="btn-secondary" disabled={cargandoHorarios}>
+                      {cargandoHorarios ? 'Cargando...' : 'Ver más horarios'}
+                    </button>
+                  )}
                 </div>
               )}
             </div>
 
-            <h3 style={{ marginTop: '30px' }}>💬 Reseñas ({resenas.length})</h3>
+            <h3 style={{ marginTop: '30px' }}>💬 Reseñas ({totalResenas})</h3>
             <div className="card">
               {resenas.length === 0 ? (
                 <p style={{ textAlign: 'center', color: '#666', padding: '20px' }}>
@@ -359,6 +450,11 @@ const TutorProfile = () => {
                       )}
                     </div>
                   ))}
+                  {resenasCursor && (
+                    <button onClick={loadMasResenas} className="btn-secondary" disabled={cargandoResenas}>
+                      {cargandoResenas ? 'Cargando...' : 'Ver más reseñas'}
+                    </button>
+                  )}
                 </div>
               )}
             </div>